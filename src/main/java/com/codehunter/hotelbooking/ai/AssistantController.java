@@ -1,8 +1,7 @@
 package com.codehunter.hotelbooking.ai;
 
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -17,14 +16,14 @@ public class AssistantController {
     private final AssistantService assistantService;
 
     @PostMapping("/ask")
-    public Answer askQuestion(@RequestBody Question question, @AuthenticationPrincipal User user) {
-        return assistantService.askQuestion(question, user.getUsername());
+    public Answer askQuestion(@RequestBody Question question, AppUserPrincipal principal) {
+        return assistantService.askQuestion(question, principal.getUsername());
     }
 
     @PostMapping("/stream/ask")
     public Flux<String> askStreamQuestion(@RequestBody Question question,
-                                          @AuthenticationPrincipal User user) {
-        return assistantService.streamQuestion(question, user.getUsername());
+                                          AppUserPrincipal principal) {
+        return assistantService.streamQuestion(question, principal.getUsername());
     }
 
     @GetMapping("/history/{chatId}")
@@ -3,7 +3,8 @@ package com.codehunter.hotelbooking.ai.tool;
 import com.codehunter.hotelbooking.dto.BookingRequest;
 import com.codehunter.hotelbooking.dto.BookingResponse;
 import com.codehunter.hotelbooking.model.Booking;
-import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import com.codehunter.hotelbooking.service.BookingCoordinator;
 import com.codehunter.hotelbooking.service.BookingService;
 import com.codehunter.hotelbooking.service.UserService;
 import lombok.AllArgsConstructor;
@@ -11,6 +12,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -23,6 +26,7 @@ import java.util.UUID;
 @Slf4j
 public class BookingTools {
     private final BookingService bookingService;
+    private final BookingCoordinator bookingCoordinator;
     private final UserService userService;
 
     @Tool(description = "Get booking details by booking id")
@@ -39,7 +43,7 @@ public class BookingTools {
     @Tool(description = "Cancel booking by booking id")
     public void cancelBooking(@ToolParam(description = "The user booking id in UUID format") String bookingId) {
         log.info("Cancel booking by booking id {}", bookingId);
-        bookingService.cancelBooking(UUID.fromString(bookingId), Instant.now());
+        bookingCoordinator.cancelBooking(UUID.fromString(bookingId), null, Instant.now());
     }
 
     @Tool(description = "Create a new booking for a user")
@@ -48,12 +52,12 @@ public class BookingTools {
                                                 @ToolParam(description = "The check-in date in ISO-8601 format") String checkIn,
                                                 @ToolParam(description = "The check-out date in ISO-8601 format") String checkOut) {
         log.info("Create a new booking for user {} with details roomId {}, checkIn {}, checkOut {} ", username, roomId, checkIn, checkOut);
-        User appUser = userService.findByUsername(username);
-        BookingResponse booking = bookingService.createBooking(
+        AppUserPrincipal principal = principalFor(username);
+        BookingResponse booking = bookingCoordinator.createBooking(
                 new BookingRequest(UUID.fromString(roomId),
                         LocalDate.parse(checkIn).atTime(7,0,0).atZone(LocaleContextHolder.getTimeZone().toZoneId()).toInstant(),
                         LocalDate.parse(checkOut).atTime(7,0,0).atZone(LocaleContextHolder.getTimeZone().toZoneId()).toInstant()),
-                appUser
+                principal
         );
         return new BookingDetailsResponse(booking.getBookingId(),
                 username,
@@ -61,6 +65,19 @@ public class BookingTools {
                 booking.getCheckOut().atZone(LocaleContextHolder.getTimeZone().toZoneId()).toString());
     }
 
+    /**
+     * Uses the principal of the current request when it matches {@code username}, so a tool call made on
+     * behalf of the signed-in user needs no extra user lookup.
+     */
+    private AppUserPrincipal principalFor(String username) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AppUserPrincipal principal
+            && principal.getUsername().equals(username)) {
+            return principal;
+        }
+        return AppUserPrincipal.from(userService.findByUsername(username));
+    }
+
     public record BookingDetailsResponse(UUID bookingId, String username, String checkIn, String checkOut) {
     }
 }
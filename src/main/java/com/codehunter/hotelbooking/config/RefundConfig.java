@@ -0,0 +1,19 @@
+package com.codehunter.hotelbooking.config;
+
+import com.codehunter.hotelbooking.service.LoggingRefundGateway;
+import com.codehunter.hotelbooking.service.RefundGateway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class RefundConfig {
+    /** Falls back to the logging stub until a real payment provider {@link RefundGateway} bean is defined. */
+    @Bean
+    @ConditionalOnMissingBean(RefundGateway.class)
+    public RefundGateway refundGateway() {
+        return new LoggingRefundGateway();
+    }
+}
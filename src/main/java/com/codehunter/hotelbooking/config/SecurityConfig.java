@@ -1,5 +1,7 @@
 package com.codehunter.hotelbooking.config;
 
+import com.codehunter.hotelbooking.security.TokenAuthenticationFilter;
+import com.codehunter.hotelbooking.security.TokenService;
 import com.codehunter.hotelbooking.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -10,6 +12,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -20,6 +23,9 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private TokenService tokenService;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -33,11 +39,14 @@ public class SecurityConfig {
                                 "/health",
                                 "/actuator/health",
                                 "/api/v1/rooms",
-                                "/api/v1/rooms/**"
+                                "/api/v1/rooms/**",
+                                "/api/v1/auth/login"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
                 .userDetailsService(customUserDetailsService)
+                // Bearer tokens are checked first; HTTP Basic remains as a fallback for tooling
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, customUserDetailsService), BasicAuthenticationFilter.class)
                 .httpBasic(Customizer.withDefaults());
         return http.build();
     }
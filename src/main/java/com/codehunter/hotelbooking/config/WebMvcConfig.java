@@ -0,0 +1,34 @@
+package com.codehunter.hotelbooking.config;
+
+import com.codehunter.hotelbooking.security.CurrentUserArgumentResolver;
+import com.codehunter.hotelbooking.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+    @Autowired
+    private UserService userService;
+    @Value("${app.booking.export.timeout-ms:3600000}")
+    private long exportTimeoutMillis;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver(userService));
+    }
+
+    /**
+     * The admin booking export is the only async (streaming) handler. Without an explicit timeout the
+     * container default applies, 30 s on Tomcat, which would cut off exactly the long exports.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(exportTimeoutMillis);
+    }
+}
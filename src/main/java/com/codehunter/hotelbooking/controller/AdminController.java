@@ -1,8 +1,12 @@
 package com.codehunter.hotelbooking.controller;
 
+import com.codehunter.hotelbooking.model.Booking;
 import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.service.BookingExportService;
 import com.codehunter.hotelbooking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,14 +15,22 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/admin/users")
 public class AdminController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private BookingExportService bookingExportService;
     @Autowired
     private UserService userService;
     @Autowired
@@ -45,6 +57,30 @@ public class AdminController {
         return ResponseEntity.ok(bookings);
     }
 
+    /**
+     * Streams bookings as NDJSON (default) or CSV without loading them into memory. All filters are optional;
+     * {@code from}/{@code to} bound the check-in instant.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/bookings/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Booking.Status status,
+            @RequestParam(required = false) UUID roomId,
+            @RequestParam(defaultValue = "NDJSON") BookingExportService.Format format
+    ) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        StreamingResponseBody body = out -> bookingExportService.export(from, to, status, roomId, format, out);
+        boolean csv = format == BookingExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=bookings." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
     public static class CreateUserRequest {
         private String username;
         private String password;
@@ -0,0 +1,77 @@
+package com.codehunter.hotelbooking.controller;
+
+import com.codehunter.hotelbooking.dto.LoginRequest;
+import com.codehunter.hotelbooking.dto.TokenResponse;
+import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.security.SessionToken;
+import com.codehunter.hotelbooking.security.TokenService;
+import com.codehunter.hotelbooking.service.UserService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exchanges credentials for a short-lived session token, so the password is verified once per session
+ * instead of on every request.
+ */
+@RestController
+@RequestMapping("/api/v1/auth")
+@Slf4j
+public class AuthController {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @PostMapping("/login")
+    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest request) {
+        User user;
+        try {
+            user = userService.findByUsername(request.getUsername());
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        log.info("Issuing session token for user {}", user.getUsername());
+        return ResponseEntity.ok(tokenService.issue(user));
+    }
+
+    /**
+     * Exchanges a still-valid token for a fresh one. The user is reloaded, so role or membership changes made
+     * since the old token was issued are picked up, and the old token is revoked.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(Authentication authentication) {
+        SessionToken current = currentToken(authentication);
+        User user = userService.findByUsername(current.username());
+        tokenService.revoke(current);
+        return ResponseEntity.ok(tokenService.issue(user));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(Authentication authentication) {
+        tokenService.revoke(currentToken(authentication));
+        return ResponseEntity.noContent().build();
+    }
+
+    private static SessionToken currentToken(Authentication authentication) {
+        if (authentication != null && authentication.getDetails() instanceof SessionToken token) {
+            return token;
+        }
+        throw new BadCredentialsException("A bearer token is required");
+    }
+}
@@ -1,16 +1,22 @@
 package com.codehunter.hotelbooking.controller;
 
+import com.codehunter.hotelbooking.dto.BookingPageResponse;
 import com.codehunter.hotelbooking.dto.BookingRequest;
 import com.codehunter.hotelbooking.dto.BookingResponse;
+import com.codehunter.hotelbooking.dto.BulkBookingRequest;
 import com.codehunter.hotelbooking.dto.CancellationResponse;
+import com.codehunter.hotelbooking.dto.RefundPreviewBatchRequest;
 import com.codehunter.hotelbooking.dto.RefundPreviewResponse;
+import com.codehunter.hotelbooking.dto.RoomTypeBookingRequest;
+import com.codehunter.hotelbooking.model.Booking;
+import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import com.codehunter.hotelbooking.service.BookingCoordinator;
+import com.codehunter.hotelbooking.service.BookingIdempotencyService;
 import com.codehunter.hotelbooking.service.BookingService;
-import com.codehunter.hotelbooking.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -22,60 +28,92 @@ import java.util.UUID;
 @RequestMapping("/api/v1/bookings")
 @Slf4j
 public class BookingController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private BookingService bookingService;
 
     @Autowired
-    private UserService userService;
+    private BookingCoordinator bookingCoordinator;
+
+    @Autowired
+    private BookingIdempotencyService bookingIdempotencyService;
 
     @PostMapping
     public ResponseEntity<BookingResponse> createBooking(
             @Valid @RequestBody BookingRequest request,
-            @AuthenticationPrincipal User user
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            AppUserPrincipal principal
+    ) {
+        log.info("Creating a new booking for user {}", principal.getUsername());
+        BookingResponse response = idempotencyKey == null
+                ? bookingCoordinator.createBooking(request, principal)
+                : bookingIdempotencyService.createBooking(request, principal, idempotencyKey);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/by-type")
+    public ResponseEntity<BookingResponse> createBookingByType(
+            @Valid @RequestBody RoomTypeBookingRequest request,
+            AppUserPrincipal principal
     ) {
-        log.info("Creating a new booking for user {}", user);
-        // Retrieve username from Spring Security User
-        String username = user.getUsername();
-        // Fetch application User from database using UserService
-        com.codehunter.hotelbooking.model.User appUser = userService.findByUsername(username);
-        BookingResponse response = bookingService.createBooking(request, appUser);
+        log.info("Creating a {} booking for user {}", request.getRoomType(), principal.getUsername());
+        BookingResponse response = bookingCoordinator.createBooking(request, principal);
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BookingResponse>> createBookings(
+            @Valid @RequestBody BulkBookingRequest request,
+            AppUserPrincipal principal
+    ) {
+        log.info("Creating a group booking of {} rooms for user {}", request.getRoomIds().size(), principal.getUsername());
+        List<BookingResponse> responses = bookingCoordinator.createBookings(request, principal);
+        return ResponseEntity.ok(responses);
+    }
+
     @PostMapping("/{bookingId}/cancel")
     public ResponseEntity<CancellationResponse> cancelBooking(
             @PathVariable UUID bookingId,
-            @AuthenticationPrincipal User user
+            AppUserPrincipal principal
     ) {
-        // Enforce booking ownership: only the owner can cancel
-        String username = user.getUsername();
-        com.codehunter.hotelbooking.model.User appUser = userService.findByUsername(username);
-        // Fetch booking and check ownership
-        com.codehunter.hotelbooking.model.Booking booking = bookingService.getBookingById(bookingId);
-        if (!booking.getUser().getId().equals(appUser.getId())) {
-            // Optionally log unauthorized attempt
-            log.warn("User {} attempted to cancel booking {} not owned by them", username, bookingId);
-            return ResponseEntity.status(403).build(); // Forbidden
-        }
-        CancellationResponse response = bookingService.cancelBooking(bookingId, Instant.now());
+        // Only the owner can cancel; enforced by the cancellation update itself
+        CancellationResponse response = bookingCoordinator.cancelBooking(bookingId, principal.getId(), Instant.now());
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{bookingId}/refund-preview")
     public ResponseEntity<RefundPreviewResponse> previewRefund(
             @PathVariable UUID bookingId,
-            @AuthenticationPrincipal User user
+            AppUserPrincipal principal
     ) {
         // Optionally, you could check if the booking belongs to the user here
         RefundPreviewResponse response = bookingService.previewRefund(bookingId, Instant.now());
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refund-preview")
+    public ResponseEntity<List<RefundPreviewResponse>> previewRefunds(
+            @Valid @RequestBody RefundPreviewBatchRequest request,
+            AppUserPrincipal principal
+    ) {
+        // Admins may preview any booking; everyone else only sees their own
+        UUID ownerId = principal.getRole() == User.Role.ADMIN ? null : principal.getId();
+        List<RefundPreviewResponse> responses = bookingService.previewRefunds(request.getBookingIds(), ownerId, Instant.now());
+        return ResponseEntity.ok(responses);
+    }
+
     @GetMapping("/my")
-    public ResponseEntity<List<BookingResponse>> getMyBookings(@AuthenticationPrincipal User user) {
-        String username = user.getUsername();
-        com.codehunter.hotelbooking.model.User appUser = userService.findByUsername(username);
-        List<BookingResponse> bookings = bookingService.getBookingsForUser(appUser.getId());
+    public ResponseEntity<BookingPageResponse> getMyBookings(
+            @RequestParam(required = false) Booking.Status status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            AppUserPrincipal principal
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        BookingPageResponse bookings = bookingService.getBookingsForUser(principal.getId(), status, cursor, limit);
         return ResponseEntity.ok(bookings);
     }
 }
@@ -0,0 +1,48 @@
+package com.codehunter.hotelbooking.controller;
+
+import com.codehunter.hotelbooking.dto.HoldRequest;
+import com.codehunter.hotelbooking.dto.HoldResponse;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import com.codehunter.hotelbooking.service.BookingCoordinator;
+import com.codehunter.hotelbooking.service.ReservationHoldService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/holds")
+@Slf4j
+public class HoldController {
+    @Autowired
+    private BookingCoordinator bookingCoordinator;
+
+    @Autowired
+    private ReservationHoldService reservationHoldService;
+
+    @PostMapping
+    public ResponseEntity<HoldResponse> createHold(
+            @Valid @RequestBody HoldRequest request,
+            AppUserPrincipal principal
+    ) {
+        log.info("Creating a hold on room {} for user {}", request.getRoomId(), principal.getUsername());
+        return ResponseEntity.ok(bookingCoordinator.createHold(request, principal));
+    }
+
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> releaseHold(
+            @PathVariable UUID holdId,
+            AppUserPrincipal principal
+    ) {
+        reservationHoldService.release(holdId, principal.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.codehunter.hotelbooking.controller;
+
+import com.codehunter.hotelbooking.dto.SeasonalRateDto;
+import com.codehunter.hotelbooking.model.RoomTypeRate;
+import com.codehunter.hotelbooking.service.PricingEngine;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Seasonal rates per room type. A PUT replaces every season of the type.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/rates")
+@Slf4j
+public class RateController {
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{roomType}")
+    public ResponseEntity<List<SeasonalRateDto>> getRates(@PathVariable String roomType) {
+        return ResponseEntity.ok(pricingEngine.getRates(roomType).stream().map(SeasonalRateDto::from).toList());
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{roomType}")
+    public ResponseEntity<List<SeasonalRateDto>> replaceRates(@PathVariable String roomType,
+                                                              @Valid @RequestBody RatesRequest request) {
+        log.info("Replacing rates of room type {} with {} seasons", roomType, request.getSeasons().size());
+        List<RoomTypeRate> rates = request.getSeasons().stream().map(SeasonalRateDto::toEntity).toList();
+        return ResponseEntity.ok(pricingEngine.replaceRates(roomType, rates).stream().map(SeasonalRateDto::from).toList());
+    }
+
+    public static class RatesRequest {
+        @NotNull
+        private List<@Valid @NotNull SeasonalRateDto> seasons;
+
+        public List<SeasonalRateDto> getSeasons() {
+            return seasons;
+        }
+
+        public void setSeasons(List<SeasonalRateDto> seasons) {
+            this.seasons = seasons;
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.codehunter.hotelbooking.controller;
 
+import com.codehunter.hotelbooking.dto.AvailabilityBatchRequest;
+import com.codehunter.hotelbooking.dto.AvailabilityBatchResponse;
+import com.codehunter.hotelbooking.dto.FlexibleAvailabilityResponse;
+import com.codehunter.hotelbooking.dto.RoomCalendarResponse;
+import com.codehunter.hotelbooking.dto.RoomPageResponse;
 import com.codehunter.hotelbooking.dto.RoomResponse;
+import com.codehunter.hotelbooking.dto.RoomTypeAvailabilityResponse;
 import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.service.FlexibleGrouping;
+import com.codehunter.hotelbooking.service.RoomSearchOrder;
 import com.codehunter.hotelbooking.service.RoomService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/rooms")
@@ -48,5 +62,100 @@ public class RoomController {
 
         return ResponseEntity.ok(rooms);
     }
-}
 
+    /**
+     * Filtered, sorted and keyset-paginated room catalog; pass {@code nextCursor} back as {@code cursor} for the
+     * next page. With {@code fromDate} and {@code toDate} only rooms available for that range are listed.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<RoomPageResponse> searchRooms(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate fromDate,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate toDate,
+
+            @RequestParam(defaultValue = "PRICE_ASC") RoomSearchOrder sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(roomService.searchRooms(type, minPrice, maxPrice, fromDate, toDate, sort, cursor, limit));
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<List<RoomTypeAvailabilityResponse>> getAvailabilityByType(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate fromDate,
+
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate toDate) {
+        return ResponseEntity.ok(roomService.getAvailabilityByType(fromDate, toDate));
+    }
+
+    /**
+     * Availability for many date ranges at once, all answered from one snapshot of the bookings.
+     */
+    @PostMapping("/availability/batch")
+    public ResponseEntity<AvailabilityBatchResponse> getAvailabilityBatch(@Valid @RequestBody AvailabilityBatchRequest request) {
+        return ResponseEntity.ok(roomService.getAvailabilityBatch(request.getRanges(), request.getFormat()));
+    }
+
+    /**
+     * Alternative stays of {@code nights} nights starting up to {@code flexDays} days before or after
+     * {@code fromDate}, grouped per room type or per room, for when the exact dates are not available.
+     */
+    @GetMapping("/flexible")
+    public ResponseEntity<List<FlexibleAvailabilityResponse>> getFlexibleAvailability(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate fromDate,
+
+            @RequestParam int nights,
+            @RequestParam(defaultValue = "3") int flexDays,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "TYPE") FlexibleGrouping groupBy,
+            @RequestParam(defaultValue = "3") int limit) {
+        return ResponseEntity.ok(roomService.findFlexibleDates(fromDate, nights, flexDays, type, groupBy, limit));
+    }
+
+    /**
+     * Night-by-night occupancy and price of one room, run-length encoded.
+     */
+    @GetMapping("/{roomId}/calendar")
+    public ResponseEntity<RoomCalendarResponse> getCalendar(
+            @PathVariable UUID roomId,
+
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate from,
+
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate to) {
+        return ResponseEntity.ok(roomService.getCalendars(List.of(roomId), from, to).get(0));
+    }
+
+    /**
+     * Calendars of several rooms, in the order requested, built from one bookings query.
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<List<RoomCalendarResponse>> getCalendars(
+            @RequestParam List<UUID> roomIds,
+
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate from,
+
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate to) {
+        return ResponseEntity.ok(roomService.getCalendars(roomIds, from, to));
+    }
+}
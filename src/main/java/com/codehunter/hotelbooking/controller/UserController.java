@@ -2,12 +2,10 @@ package com.codehunter.hotelbooking.controller;
 
 import com.codehunter.hotelbooking.dto.MembershipInfoResponse;
 import com.codehunter.hotelbooking.dto.UserDetailsResponse;
-import com.codehunter.hotelbooking.model.User;
-import com.codehunter.hotelbooking.service.UserService;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import com.codehunter.hotelbooking.service.PricingEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,25 +14,21 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/v1/users/me")
 public class UserController {
     @Autowired
-    private UserService userService;
+    private PricingEngine pricingEngine;
 
     @GetMapping("/membership")
-    public ResponseEntity<MembershipInfoResponse> getMembershipInfo(@AuthenticationPrincipal UserDetails principal) {
-        String username = principal.getUsername();
-        User appUser = userService.findByUsername(username);
-        MembershipInfoResponse response = MembershipInfoResponse.fromUser(appUser);
+    public ResponseEntity<MembershipInfoResponse> getMembershipInfo(AppUserPrincipal principal) {
+        MembershipInfoResponse response = MembershipInfoResponse.fromLevel(principal.getMembershipLevel(), pricingEngine.discountsByLevel());
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("")
-    public ResponseEntity<UserDetailsResponse> getUserDetails(@AuthenticationPrincipal UserDetails principal) {
-        String username = principal.getUsername();
-        User appUser = userService.findByUsername(username);
+    public ResponseEntity<UserDetailsResponse> getUserDetails(AppUserPrincipal principal) {
         UserDetailsResponse response = new UserDetailsResponse(
-                appUser.getUsername(),
-                appUser.getEmail(),
-                appUser.getRole().name(),
-                appUser.getMembershipLevel().name()
+                principal.getUsername(),
+                principal.getEmail(),
+                principal.getRole().name(),
+                principal.getMembershipLevel().name()
         );
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,68 @@
+package com.codehunter.hotelbooking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Date ranges to check room availability for in one request, answered as room id lists or as bitmaps.
+ */
+public class AvailabilityBatchRequest {
+    public enum Format {
+        /** Available room ids per range. */
+        IDS,
+        /** One bitmap per range over the room list returned once in the response. */
+        BITMAP
+    }
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid @NotNull Range> ranges;
+    private Format format = Format.IDS;
+
+    public List<Range> getRanges() {
+        return ranges;
+    }
+    public void setRanges(List<Range> ranges) {
+        this.ranges = ranges;
+    }
+    public Format getFormat() {
+        return format;
+    }
+    public void setFormat(Format format) {
+        this.format = format;
+    }
+
+    /** A stay from {@code fromDate} (inclusive) to {@code toDate} (exclusive), as in {@code GET /api/v1/rooms}. */
+    public static class Range {
+        @NotNull
+        private LocalDate fromDate;
+        @NotNull
+        private LocalDate toDate;
+
+        public Range() {
+        }
+
+        public Range(LocalDate fromDate, LocalDate toDate) {
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+        }
+
+        public LocalDate getFromDate() {
+            return fromDate;
+        }
+        public void setFromDate(LocalDate fromDate) {
+            this.fromDate = fromDate;
+        }
+        public LocalDate getToDate() {
+            return toDate;
+        }
+        public void setToDate(LocalDate toDate) {
+            this.toDate = toDate;
+        }
+    }
+}
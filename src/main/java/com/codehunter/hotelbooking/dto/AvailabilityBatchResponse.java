@@ -0,0 +1,94 @@
+package com.codehunter.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Availability for every range of an {@link AvailabilityBatchRequest}, in request order.
+ * <p>
+ * In {@code BITMAP} format {@code roomIds} lists every room once and each range carries a base64url
+ * (unpadded) bitmap in which bit {@code i}, counted from the low bit of the first byte, is set if
+ * {@code roomIds[i]} is available; bytes missing at the end are all zero. In {@code IDS} format each
+ * range lists its available room ids instead.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityBatchResponse {
+    private List<UUID> roomIds;
+    private List<RangeAvailability> ranges;
+
+    public AvailabilityBatchResponse() {
+    }
+
+    public AvailabilityBatchResponse(List<UUID> roomIds, List<RangeAvailability> ranges) {
+        this.roomIds = roomIds;
+        this.ranges = ranges;
+    }
+
+    public List<UUID> getRoomIds() {
+        return roomIds;
+    }
+    public void setRoomIds(List<UUID> roomIds) {
+        this.roomIds = roomIds;
+    }
+    public List<RangeAvailability> getRanges() {
+        return ranges;
+    }
+    public void setRanges(List<RangeAvailability> ranges) {
+        this.ranges = ranges;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RangeAvailability {
+        private LocalDate fromDate;
+        private LocalDate toDate;
+        private int availableRooms;
+        private List<UUID> availableRoomIds;
+        private String bitmap;
+
+        public RangeAvailability() {
+        }
+
+        public RangeAvailability(LocalDate fromDate, LocalDate toDate, int availableRooms,
+                                 List<UUID> availableRoomIds, String bitmap) {
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.availableRooms = availableRooms;
+            this.availableRoomIds = availableRoomIds;
+            this.bitmap = bitmap;
+        }
+
+        public LocalDate getFromDate() {
+            return fromDate;
+        }
+        public void setFromDate(LocalDate fromDate) {
+            this.fromDate = fromDate;
+        }
+        public LocalDate getToDate() {
+            return toDate;
+        }
+        public void setToDate(LocalDate toDate) {
+            this.toDate = toDate;
+        }
+        public int getAvailableRooms() {
+            return availableRooms;
+        }
+        public void setAvailableRooms(int availableRooms) {
+            this.availableRooms = availableRooms;
+        }
+        public List<UUID> getAvailableRoomIds() {
+            return availableRoomIds;
+        }
+        public void setAvailableRoomIds(List<UUID> availableRoomIds) {
+            this.availableRoomIds = availableRoomIds;
+        }
+        public String getBitmap() {
+            return bitmap;
+        }
+        public void setBitmap(String bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+}
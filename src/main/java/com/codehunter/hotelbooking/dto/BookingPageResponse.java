@@ -0,0 +1,40 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.util.List;
+
+/**
+ * One page of bookings, newest check-in first.
+ * <p>
+ * Fields:
+ * <ul>
+ *   <li>items: The bookings on this page</li>
+ *   <li>nextCursor: Opaque cursor for the next page, or null if this is the last page</li>
+ * </ul>
+ */
+public class BookingPageResponse {
+    /** The bookings on this page */
+    private List<BookingResponse> items;
+    /** Opaque cursor to pass back for the next page; null on the last page */
+    private String nextCursor;
+
+    public BookingPageResponse() {
+    }
+
+    public BookingPageResponse(List<BookingResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookingResponse> getItems() {
+        return items;
+    }
+    public void setItems(List<BookingResponse> items) {
+        this.items = items;
+    }
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -1,13 +1,11 @@
 package com.codehunter.hotelbooking.dto;
 
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 import java.util.UUID;
 
-@AllArgsConstructor
 @NoArgsConstructor
 public class BookingRequest {
     @NotNull
@@ -16,6 +14,14 @@ public class BookingRequest {
     private Instant checkIn;
     @NotNull
     private Instant checkOut;
+    /** Optional hold on this room and stay to convert into the booking */
+    private UUID holdId;
+
+    public BookingRequest(UUID roomId, Instant checkIn, Instant checkOut) {
+        this.roomId = roomId;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
 
     public UUID getRoomId() {
         return roomId;
@@ -35,4 +41,10 @@ public class BookingRequest {
     public void setCheckOut(Instant checkOut) {
         this.checkOut = checkOut;
     }
+    public UUID getHoldId() {
+        return holdId;
+    }
+    public void setHoldId(UUID holdId) {
+        this.holdId = holdId;
+    }
 }
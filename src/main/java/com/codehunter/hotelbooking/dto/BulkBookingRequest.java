@@ -0,0 +1,41 @@
+package com.codehunter.hotelbooking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A group reservation: every listed room is booked for the same stay, or none is.
+ */
+public class BulkBookingRequest {
+    @NotEmpty
+    @Size(max = 200)
+    private List<@NotNull UUID> roomIds;
+    @NotNull
+    private Instant checkIn;
+    @NotNull
+    private Instant checkOut;
+
+    public List<UUID> getRoomIds() {
+        return roomIds;
+    }
+    public void setRoomIds(List<UUID> roomIds) {
+        this.roomIds = roomIds;
+    }
+    public Instant getCheckIn() {
+        return checkIn;
+    }
+    public void setCheckIn(Instant checkIn) {
+        this.checkIn = checkIn;
+    }
+    public Instant getCheckOut() {
+        return checkOut;
+    }
+    public void setCheckOut(Instant checkOut) {
+        this.checkOut = checkOut;
+    }
+}
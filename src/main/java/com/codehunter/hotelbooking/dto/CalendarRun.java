@@ -0,0 +1,44 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Consecutive nights of a room calendar that share the same state and price.
+ */
+public class CalendarRun {
+    public enum State {
+        FREE, BOOKED, HELD
+    }
+
+    private int nights;
+    private State state;
+    private BigDecimal price;
+
+    public CalendarRun() {
+    }
+
+    public CalendarRun(int nights, State state, BigDecimal price) {
+        this.nights = nights;
+        this.state = state;
+        this.price = price;
+    }
+
+    public int getNights() {
+        return nights;
+    }
+    public void setNights(int nights) {
+        this.nights = nights;
+    }
+    public State getState() {
+        return state;
+    }
+    public void setState(State state) {
+        this.state = state;
+    }
+    public BigDecimal getPrice() {
+        return price;
+    }
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+}
@@ -8,6 +8,8 @@ public class CancellationResponse {
     private BigDecimal refundAmount;
     private BigDecimal penaltyAmount;
     private String message;
+    /** PENDING while the refund is being paid out, COMPLETED when nothing is left to refund */
+    private String refundStatus;
 
     public UUID getBookingId() {
         return bookingId;
@@ -33,5 +35,10 @@ public class CancellationResponse {
     public void setMessage(String message) {
         this.message = message;
     }
+    public String getRefundStatus() {
+        return refundStatus;
+    }
+    public void setRefundStatus(String refundStatus) {
+        this.refundStatus = refundStatus;
+    }
 }
-
@@ -0,0 +1,57 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Alternative stays for one room, or for one room type when {@code roomId} and {@code roomNumber} are
+ * null, nearest to the requested check-in first.
+ */
+public class FlexibleAvailabilityResponse {
+    private UUID roomId;
+    private String roomNumber;
+    private String type;
+    private List<FlexibleDateOption> options;
+
+    public FlexibleAvailabilityResponse() {
+    }
+
+    public FlexibleAvailabilityResponse(UUID roomId, String roomNumber, String type, List<FlexibleDateOption> options) {
+        this.roomId = roomId;
+        this.roomNumber = roomNumber;
+        this.type = type;
+        this.options = options;
+    }
+
+    public UUID getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(UUID roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getRoomNumber() {
+        return roomNumber;
+    }
+
+    public void setRoomNumber(String roomNumber) {
+        this.roomNumber = roomNumber;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public List<FlexibleDateOption> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<FlexibleDateOption> options) {
+        this.options = options;
+    }
+}
@@ -0,0 +1,55 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One alternative stay found by a flexible-dates search, {@code shiftDays} away from the requested check-in.
+ */
+public class FlexibleDateOption {
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private int shiftDays;
+    private int availableRooms;
+
+    public FlexibleDateOption() {
+    }
+
+    public FlexibleDateOption(LocalDate checkIn, LocalDate checkOut, int shiftDays, int availableRooms) {
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.shiftDays = shiftDays;
+        this.availableRooms = availableRooms;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    public void setCheckIn(LocalDate checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    public void setCheckOut(LocalDate checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    public int getShiftDays() {
+        return shiftDays;
+    }
+
+    public void setShiftDays(int shiftDays) {
+        this.shiftDays = shiftDays;
+    }
+
+    public int getAvailableRooms() {
+        return availableRooms;
+    }
+
+    public void setAvailableRooms(int availableRooms) {
+        this.availableRooms = availableRooms;
+    }
+}
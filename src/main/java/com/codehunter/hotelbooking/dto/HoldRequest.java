@@ -0,0 +1,37 @@
+package com.codehunter.hotelbooking.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A room and stay to hold while the guest completes checkout.
+ */
+public class HoldRequest {
+    @NotNull
+    private UUID roomId;
+    @NotNull
+    private Instant checkIn;
+    @NotNull
+    private Instant checkOut;
+
+    public UUID getRoomId() {
+        return roomId;
+    }
+    public void setRoomId(UUID roomId) {
+        this.roomId = roomId;
+    }
+    public Instant getCheckIn() {
+        return checkIn;
+    }
+    public void setCheckIn(Instant checkIn) {
+        this.checkIn = checkIn;
+    }
+    public Instant getCheckOut() {
+        return checkOut;
+    }
+    public void setCheckOut(Instant checkOut) {
+        this.checkOut = checkOut;
+    }
+}
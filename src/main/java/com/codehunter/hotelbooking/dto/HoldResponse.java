@@ -0,0 +1,46 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A room hold; pass {@code holdId} with the booking request to convert it before {@code expiresAt}.
+ */
+public class HoldResponse {
+    private UUID holdId;
+    private UUID roomId;
+    private Instant checkIn;
+    private Instant checkOut;
+    private Instant expiresAt;
+
+    public UUID getHoldId() {
+        return holdId;
+    }
+    public void setHoldId(UUID holdId) {
+        this.holdId = holdId;
+    }
+    public UUID getRoomId() {
+        return roomId;
+    }
+    public void setRoomId(UUID roomId) {
+        this.roomId = roomId;
+    }
+    public Instant getCheckIn() {
+        return checkIn;
+    }
+    public void setCheckIn(Instant checkIn) {
+        this.checkIn = checkIn;
+    }
+    public Instant getCheckOut() {
+        return checkOut;
+    }
+    public void setCheckOut(Instant checkOut) {
+        this.checkOut = checkOut;
+    }
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
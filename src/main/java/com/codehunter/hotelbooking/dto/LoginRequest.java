@@ -0,0 +1,26 @@
+package com.codehunter.hotelbooking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Credentials exchanged once for a session token.
+ */
+public class LoginRequest {
+    @NotBlank
+    private String username;
+    @NotBlank
+    private String password;
+
+    public String getUsername() {
+        return username;
+    }
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    public String getPassword() {
+        return password;
+    }
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
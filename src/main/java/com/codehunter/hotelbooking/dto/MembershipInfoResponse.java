@@ -1,5 +1,6 @@
 package com.codehunter.hotelbooking.dto;
 
+import com.codehunter.hotelbooking.model.Money;
 import com.codehunter.hotelbooking.model.User;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -9,23 +10,22 @@ public class MembershipInfoResponse {
     private double discountRate;
     private Map<String, Double> allLevels;
 
-    public static MembershipInfoResponse fromUser(User user) {
+    /**
+     * @param discountBps membership discounts in basis points, as applied by the pricing engine
+     */
+    public static MembershipInfoResponse fromLevel(User.MembershipLevel level, Map<User.MembershipLevel, Integer> discountBps) {
         MembershipInfoResponse resp = new MembershipInfoResponse();
-        resp.membershipLevel = user.getMembershipLevel().name();
-        resp.discountRate = getDiscountForLevel(user.getMembershipLevel().name());
+        resp.membershipLevel = level.name();
+        resp.discountRate = toRate(discountBps.get(level));
         resp.allLevels = new LinkedHashMap<>();
-        resp.allLevels.put("CLASSIC", 0.0);
-        resp.allLevels.put("GOLD", 0.10);
-        resp.allLevels.put("DIAMOND", 0.20);
+        for (User.MembershipLevel each : User.MembershipLevel.values()) {
+            resp.allLevels.put(each.name(), toRate(discountBps.get(each)));
+        }
         return resp;
     }
 
-    private static double getDiscountForLevel(String level) {
-        switch (level) {
-            case "GOLD": return 0.10;
-            case "DIAMOND": return 0.20;
-            default: return 0.0;
-        }
+    private static double toRate(int bps) {
+        return bps / (double) Money.BPS_SCALE;
     }
 
     public String getMembershipLevel() { return membershipLevel; }
@@ -0,0 +1,24 @@
+package com.codehunter.hotelbooking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bookings to preview refunds for in one request.
+ */
+public class RefundPreviewBatchRequest {
+    @NotEmpty
+    @Size(max = 200)
+    private List<@NotNull UUID> bookingIds;
+
+    public List<UUID> getBookingIds() {
+        return bookingIds;
+    }
+    public void setBookingIds(List<UUID> bookingIds) {
+        this.bookingIds = bookingIds;
+    }
+}
@@ -0,0 +1,60 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-night occupancy and undiscounted price of one room from {@code from} (inclusive) to {@code to}
+ * (exclusive), run-length encoded: the runs cover the nights in order and their lengths add up to the
+ * number of nights.
+ */
+public class RoomCalendarResponse {
+    private UUID roomId;
+    private String roomNumber;
+    private LocalDate from;
+    private LocalDate to;
+    private List<CalendarRun> runs;
+
+    public RoomCalendarResponse() {
+    }
+
+    public RoomCalendarResponse(UUID roomId, String roomNumber, LocalDate from, LocalDate to, List<CalendarRun> runs) {
+        this.roomId = roomId;
+        this.roomNumber = roomNumber;
+        this.from = from;
+        this.to = to;
+        this.runs = runs;
+    }
+
+    public UUID getRoomId() {
+        return roomId;
+    }
+    public void setRoomId(UUID roomId) {
+        this.roomId = roomId;
+    }
+    public String getRoomNumber() {
+        return roomNumber;
+    }
+    public void setRoomNumber(String roomNumber) {
+        this.roomNumber = roomNumber;
+    }
+    public LocalDate getFrom() {
+        return from;
+    }
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+    public LocalDate getTo() {
+        return to;
+    }
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+    public List<CalendarRun> getRuns() {
+        return runs;
+    }
+    public void setRuns(List<CalendarRun> runs) {
+        this.runs = runs;
+    }
+}
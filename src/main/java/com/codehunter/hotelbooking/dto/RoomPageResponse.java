@@ -0,0 +1,40 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.util.List;
+
+/**
+ * One page of a room catalog search.
+ * <p>
+ * Fields:
+ * <ul>
+ *   <li>items: The rooms on this page</li>
+ *   <li>nextCursor: Opaque cursor for the next page, or null if this is the last page</li>
+ * </ul>
+ */
+public class RoomPageResponse {
+    /** The rooms on this page */
+    private List<RoomResponse> items;
+    /** Opaque cursor to pass back for the next page; null on the last page */
+    private String nextCursor;
+
+    public RoomPageResponse() {
+    }
+
+    public RoomPageResponse(List<RoomResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<RoomResponse> getItems() {
+        return items;
+    }
+    public void setItems(List<RoomResponse> items) {
+        this.items = items;
+    }
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
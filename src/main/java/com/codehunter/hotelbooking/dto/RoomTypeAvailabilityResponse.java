@@ -0,0 +1,33 @@
+package com.codehunter.hotelbooking.dto;
+
+/**
+ * Number of rooms of one type that are available for a searched date range.
+ */
+public class RoomTypeAvailabilityResponse {
+    private String type;
+    private int availableRooms;
+
+    public RoomTypeAvailabilityResponse() {
+    }
+
+    public RoomTypeAvailabilityResponse(String type, int availableRooms) {
+        this.type = type;
+        this.availableRooms = availableRooms;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getAvailableRooms() {
+        return availableRooms;
+    }
+
+    public void setAvailableRooms(int availableRooms) {
+        this.availableRooms = availableRooms;
+    }
+}
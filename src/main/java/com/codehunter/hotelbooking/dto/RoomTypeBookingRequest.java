@@ -0,0 +1,37 @@
+package com.codehunter.hotelbooking.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+/**
+ * A stay in any room of the given type; the room is assigned when the booking is made.
+ */
+public class RoomTypeBookingRequest {
+    @NotBlank
+    private String roomType;
+    @NotNull
+    private Instant checkIn;
+    @NotNull
+    private Instant checkOut;
+
+    public String getRoomType() {
+        return roomType;
+    }
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+    public Instant getCheckIn() {
+        return checkIn;
+    }
+    public void setCheckIn(Instant checkIn) {
+        this.checkIn = checkIn;
+    }
+    public Instant getCheckOut() {
+        return checkOut;
+    }
+    public void setCheckOut(Instant checkOut) {
+        this.checkOut = checkOut;
+    }
+}
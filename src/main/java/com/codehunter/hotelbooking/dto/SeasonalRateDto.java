@@ -0,0 +1,88 @@
+package com.codehunter.hotelbooking.dto;
+
+import com.codehunter.hotelbooking.model.Money;
+import com.codehunter.hotelbooking.model.RoomTypeRate;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A pricing season of a room type. Rates multiply the room's nightly price: {@code 1.25} charges 125% of
+ * {@code pricePerNight}. {@code endDate} is exclusive.
+ */
+public class SeasonalRateDto {
+    private String name;
+    @NotNull
+    private LocalDate startDate;
+    @NotNull
+    private LocalDate endDate;
+    @NotNull
+    @Positive
+    private BigDecimal weekdayRate;
+    @NotNull
+    @Positive
+    private BigDecimal weekendRate;
+
+    public static SeasonalRateDto from(RoomTypeRate rate) {
+        SeasonalRateDto dto = new SeasonalRateDto();
+        dto.name = rate.getName();
+        dto.startDate = rate.getStartDate();
+        dto.endDate = rate.getEndDate();
+        dto.weekdayRate = BigDecimal.valueOf(rate.getWeekdayBps(), 4).stripTrailingZeros();
+        dto.weekendRate = BigDecimal.valueOf(rate.getWeekendBps(), 4).stripTrailingZeros();
+        return dto;
+    }
+
+    public RoomTypeRate toEntity() {
+        RoomTypeRate rate = new RoomTypeRate();
+        rate.setName(name);
+        rate.setStartDate(startDate);
+        rate.setEndDate(endDate);
+        rate.setWeekdayBps(toBps(weekdayRate));
+        rate.setWeekendBps(toBps(weekendRate));
+        return rate;
+    }
+
+    private static int toBps(BigDecimal rate) {
+        // Rates are stored as whole basis points; finer rates are rejected rather than rounded
+        try {
+            return rate.movePointRight(4).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Rate must be a whole number of basis points (at most "
+                    + Money.BPS_SCALE + "ths): " + rate);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+    public void setName(String name) {
+        this.name = name;
+    }
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+    public BigDecimal getWeekdayRate() {
+        return weekdayRate;
+    }
+    public void setWeekdayRate(BigDecimal weekdayRate) {
+        this.weekdayRate = weekdayRate;
+    }
+    public BigDecimal getWeekendRate() {
+        return weekendRate;
+    }
+    public void setWeekendRate(BigDecimal weekendRate) {
+        this.weekendRate = weekendRate;
+    }
+}
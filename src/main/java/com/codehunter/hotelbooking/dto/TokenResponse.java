@@ -0,0 +1,46 @@
+package com.codehunter.hotelbooking.dto;
+
+import java.time.Instant;
+
+/**
+ * A session token to send as {@code Authorization: Bearer <token>}.
+ * <p>
+ * Fields:
+ * <ul>
+ *   <li>token: The signed token</li>
+ *   <li>tokenType: Always "Bearer"</li>
+ *   <li>expiresAt: When the token stops being accepted</li>
+ * </ul>
+ */
+public class TokenResponse {
+    private String token;
+    private String tokenType = "Bearer";
+    private Instant expiresAt;
+
+    public TokenResponse() {
+    }
+
+    public TokenResponse(String token, Instant expiresAt) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getToken() {
+        return token;
+    }
+    public void setToken(String token) {
+        this.token = token;
+    }
+    public String getTokenType() {
+        return tokenType;
+    }
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.codehunter.hotelbooking.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when a booking cannot be placed because the room is already occupied for (part of) the
+ * requested stay. Mapped to HTTP 409 by {@link GlobalExceptionHandler}.
+ */
+public class BookingConflictException extends RuntimeException {
+    /** Exclusion constraint rejecting overlapping ACTIVE bookings of one room (V3, V8). */
+    public static final String OVERLAP_CONSTRAINT = "bookings_no_overlapping_active_stay";
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+
+    /**
+     * Whether {@code ex} was raised by the booking overlap exclusion, as opposed to another constraint such
+     * as a unique username or a NOT NULL column. Covers both JPA writes, where Hibernate names the violated
+     * constraint, and plain JDBC writes, where only the driver message does.
+     */
+    public static boolean isOverlapViolation(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && OVERLAP_CONSTRAINT.equals(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getMessage() != null && sql.getMessage().contains(OVERLAP_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.codehunter.hotelbooking.exception;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Thrown when a group booking is rejected as a whole because some of its rooms cannot be booked. Carries
+ * the reason per failing room, in request order. Mapped to HTTP 409 by {@link GlobalExceptionHandler}.
+ */
+public class BulkBookingRejectedException extends RuntimeException {
+    private final Map<UUID, String> failures;
+
+    public BulkBookingRejectedException(Map<UUID, String> failures) {
+        super(failures.size() + " room(s) cannot be booked");
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public Map<UUID, String> getFailures() {
+        return failures;
+    }
+}
@@ -4,16 +4,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springdoc.api.ErrorMessage;
 import org.springdoc.api.OpenApiResourceNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestControllerAdvice
@@ -31,6 +35,57 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return error;
     }
 
+    @ExceptionHandler(BookingConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ResponseBody
+    public Map<String, Object> handleBookingConflict(BookingConflictException ex) {
+        logger.warn("Conflict: {}", ex.getMessage());
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "Conflict");
+        error.put("message", ex.getMessage());
+        return error;
+    }
+
+    @ExceptionHandler(BulkBookingRejectedException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ResponseBody
+    public Map<String, Object> handleBulkBookingRejected(BulkBookingRejectedException ex) {
+        logger.warn("Conflict: {}", ex.getMessage());
+        List<Map<String, Object>> failures = new ArrayList<>();
+        ex.getFailures().forEach((roomId, reason) -> failures.add(Map.of("roomId", roomId, "reason", reason)));
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "Conflict");
+        error.put("message", ex.getMessage());
+        error.put("failures", failures);
+        return error;
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        if (!BookingConflictException.isOverlapViolation(ex)) {
+            // Any other constraint (unique username, NOT NULL, CHECK) is not a client-resolvable conflict
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(handleGenericException(ex));
+        }
+        // Raised when the booking overlap exclusion rejects a write that slipped past the availability check
+        logger.warn("Booking overlap rejected by the database: {}", ex.getMostSpecificCause().getMessage());
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "Conflict");
+        error.put("message", "Room is already booked for the selected dates");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    @ResponseBody
+    public Map<String, Object> handleAuthentication(AuthenticationException ex) {
+        logger.warn("Unauthorized: {}", ex.getMessage());
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "Unauthorized");
+        error.put("message", ex.getMessage());
+        return error;
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ResponseBody
@@ -14,7 +14,7 @@ import java.util.UUID;
 @Getter
 public class Booking {
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID id;
 
     @ManyToOne(optional = false)
@@ -44,6 +44,10 @@ public class Booking {
     @Column(nullable = false)
     private Status status = Status.ACTIVE;
 
+    /** False for bookings made by room type, which the defragmentation job may move to another room. */
+    @Column(nullable = false)
+    private boolean roomPinned = true;
+
     private Instant createdAt;
     private Instant updatedAt;
 
@@ -1,18 +1,23 @@
 package com.codehunter.hotelbooking.model;
 
 import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "cancellations")
+@Setter
+@Getter
 public class Cancellation {
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID id;
 
-    @OneToOne(optional = false)
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id", nullable = false, unique = true)
     private Booking booking;
 
@@ -29,11 +34,19 @@ public class Cancellation {
     @Column(nullable = false)
     private RefundStatus refundStatus = RefundStatus.PENDING;
 
+    /** Refund attempts made so far */
+    @Column(nullable = false)
+    private int attempts;
+
+    /** When a PENDING refund is due next; while claimed by a worker, the end of its lease */
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant completedAt;
+
     public enum RefundStatus {
         PENDING, COMPLETED, FAILED
     }
-
-    // Getters and setters
-    // ...
 }
-
@@ -0,0 +1,117 @@
+package com.codehunter.hotelbooking.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * An immutable amount of money held as a {@code long} count of the currency's minor units (cents for USD).
+ * <p>
+ * All pricing, discount and refund math is done on these values; {@link BigDecimal} is only used at the
+ * edges, when reading amounts from entities or requests ({@link #of}) and when writing them back
+ * ({@link #toBigDecimal}). Rounding rules:
+ * <ul>
+ *   <li>converting a {@code BigDecimal} rounds half-even to the minor unit;</li>
+ *   <li>a share of an amount ({@link #percentBps}) rounds half-up to the minor unit;</li>
+ *   <li>the remainder of a split (final price after discount, penalty after refund) is computed by
+ *   {@link #minus}, so the parts always add up exactly to the whole.</li>
+ * </ul>
+ * Arithmetic overflow throws {@link ArithmeticException}; mixing currencies throws
+ * {@link IllegalArgumentException}.
+ */
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+    public static final Currency USD = Currency.getInstance("USD");
+    /** Basis points in a whole: 10_000 bps = 100%. */
+    public static final int BPS_SCALE = 10_000;
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    public Money {
+        if (currency == null) {
+            throw new IllegalArgumentException("currency must not be null");
+        }
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.HALF_EVEN).unscaledValue().longValueExact(),
+                currency);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    /**
+     * Returns {@code bps} basis points of this amount, rounded half-up (away from zero) to the minor unit.
+     * {@code bps} may exceed {@link #BPS_SCALE}, e.g. a sum of nightly rate factors.
+     */
+    public Money percentBps(long bps) {
+        if (bps == 0) {
+            return minorUnits == 0 ? this : zero(currency);
+        }
+        if (bps == BPS_SCALE) {
+            return this;
+        }
+        long product = Math.multiplyExact(minorUnits, bps);
+        long quotient = product / BPS_SCALE;
+        long remainder = product % BPS_SCALE;
+        if (Math.abs(remainder) * 2 >= BPS_SCALE) {
+            quotient += Long.signum(product);
+        }
+        return new Money(quotient, currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        int digits = currency.getDefaultFractionDigits();
+        if (digits <= 0) {
+            return minorUnits + " " + currency.getCurrencyCode();
+        }
+        long unit = POWERS_OF_TEN[digits];
+        String fraction = String.valueOf(Math.abs(minorUnits % unit));
+        return (minorUnits < 0 ? "-" : "") + Math.abs(minorUnits / unit) + "."
+                + "0".repeat(digits - fraction.length()) + fraction + " " + currency.getCurrencyCode();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+}
@@ -13,7 +13,7 @@ import java.util.UUID;
 @Setter
 public class Room {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false, unique = true)
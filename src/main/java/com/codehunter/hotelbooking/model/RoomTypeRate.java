@@ -0,0 +1,39 @@
+package com.codehunter.hotelbooking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A pricing season for one room type: nights from {@code startDate} up to, but excluding, {@code endDate}
+ * cost the room's nightly price scaled by {@code weekdayBps} or {@code weekendBps} basis points.
+ */
+@Entity
+@Table(name = "room_type_rates")
+@Getter
+@Setter
+public class RoomTypeRate {
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Column(nullable = false)
+    private String roomType;
+
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    private int weekdayBps;
+
+    @Column(nullable = false)
+    private int weekendBps;
+}
@@ -0,0 +1,11 @@
+package com.codehunter.hotelbooking.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight projection of an ACTIVE booking's occupancy, used where only the room and stay
+ * interval matter and hydrating {@code Booking} (with its eager user/room joins) would be wasteful.
+ */
+public record ActiveStay(UUID bookingId, UUID roomId, Instant checkIn, Instant checkOut) {
+}
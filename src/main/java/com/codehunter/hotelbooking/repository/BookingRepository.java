@@ -1,6 +1,7 @@
 package com.codehunter.hotelbooking.repository;
 
 import com.codehunter.hotelbooking.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,18 +10,128 @@ import org.springframework.stereotype.Repository;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, UUID> {
 
-    @Query("SELECT b FROM Booking b WHERE b.room.id = :roomId AND b.status = 'ACTIVE' AND " +
-           "((b.checkIn <= :endDate AND b.checkOut > :startDate))")
+    /**
+     * Finds ACTIVE bookings of a room with {@code checkIn <= endDate && checkOut > startDate}, probing the
+     * GiST index behind the {@code stay} range column.
+     */
+    @Query(value = "SELECT b.* FROM bookings b WHERE b.room_id = :roomId AND b.status = 'ACTIVE' " +
+                   "AND b.stay && tstzrange(CAST(:startDate AS timestamptz), CAST(:endDate AS timestamptz), '[]')",
+           nativeQuery = true)
     List<Booking> findActiveBookingsByRoomIdAndDateRange(
             @Param("roomId") UUID roomId,
             @Param("startDate") Instant startDate,
             @Param("endDate") Instant endDate
     );
-}
 
+    /**
+     * Returns true if an ACTIVE booking of the room overlaps the half-open stay {@code [checkIn, checkOut)}.
+     * Back-to-back stays, where one checks out exactly when the next checks in, do not conflict.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM bookings b WHERE b.room_id = :roomId AND b.status = 'ACTIVE' " +
+                   "AND b.stay && tstzrange(CAST(:checkIn AS timestamptz), CAST(:checkOut AS timestamptz), '[)'))",
+           nativeQuery = true)
+    boolean existsActiveOverlap(
+            @Param("roomId") UUID roomId,
+            @Param("checkIn") Instant checkIn,
+            @Param("checkOut") Instant checkOut
+    );
+
+    /** Returns those of {@code roomIds} that have an ACTIVE booking overlapping {@code [checkIn, checkOut)}. */
+    @Query(value = "SELECT DISTINCT b.room_id FROM bookings b WHERE b.room_id IN (:roomIds) AND b.status = 'ACTIVE' " +
+                   "AND b.stay && tstzrange(CAST(:checkIn AS timestamptz), CAST(:checkOut AS timestamptz), '[)')",
+           nativeQuery = true)
+    List<UUID> findRoomIdsWithActiveOverlap(
+            @Param("roomIds") Collection<UUID> roomIds,
+            @Param("checkIn") Instant checkIn,
+            @Param("checkOut") Instant checkOut
+    );
+
+    /**
+     * Cancels an ACTIVE booking owned by {@code userId} in a single conditional statement and returns the
+     * cancelled row, or nothing if the booking does not exist, belongs to another user, is no longer ACTIVE,
+     * or checks in at or before {@code checkInAfter}. Rows changed concurrently are re-checked by PostgreSQL,
+     * so at most one of several racing cancellations gets a row back.
+     */
+    @Query(value = "UPDATE bookings SET status = 'CANCELLED', updated_at = :cancelTime " +
+                   "WHERE id = :bookingId AND user_id = :userId " +
+                   "AND status = 'ACTIVE' AND check_in > :checkInAfter " +
+                   "RETURNING id AS bookingId, room_id AS roomId, check_in AS checkIn, check_out AS checkOut, " +
+                   "final_amount AS finalAmount",
+           nativeQuery = true)
+    Optional<CancelledBooking> cancelActiveBooking(
+            @Param("bookingId") UUID bookingId,
+            @Param("userId") UUID userId,
+            @Param("cancelTime") Instant cancelTime,
+            @Param("checkInAfter") Instant checkInAfter
+    );
+
+    /** Same as {@link #cancelActiveBooking} without the ownership check, for callers acting for any user. */
+    @Query(value = "UPDATE bookings SET status = 'CANCELLED', updated_at = :cancelTime " +
+                   "WHERE id = :bookingId AND status = 'ACTIVE' AND check_in > :checkInAfter " +
+                   "RETURNING id AS bookingId, room_id AS roomId, check_in AS checkIn, check_out AS checkOut, " +
+                   "final_amount AS finalAmount",
+           nativeQuery = true)
+    Optional<CancelledBooking> cancelActiveBookingOfAnyUser(
+            @Param("bookingId") UUID bookingId,
+            @Param("cancelTime") Instant cancelTime,
+            @Param("checkInAfter") Instant checkInAfter
+    );
+
+    @Query("SELECT b.room.id FROM Booking b WHERE b.id = :bookingId")
+    Optional<UUID> findRoomIdById(@Param("bookingId") UUID bookingId);
+
+    @Query("SELECT new com.codehunter.hotelbooking.repository.ActiveStay(b.id, b.room.id, b.checkIn, b.checkOut) " +
+           "FROM Booking b WHERE b.status = 'ACTIVE' AND b.checkOut > :after")
+    List<ActiveStay> findActiveStaysEndingAfter(@Param("after") Instant after);
+
+    @Query("SELECT new com.codehunter.hotelbooking.repository.ActiveStay(b.id, b.room.id, b.checkIn, b.checkOut) " +
+           "FROM Booking b WHERE b.status = 'ACTIVE' AND b.checkIn < :to AND b.checkOut > :from")
+    List<ActiveStay> findActiveStaysInRange(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT new com.codehunter.hotelbooking.repository.ActiveStay(b.id, b.room.id, b.checkIn, b.checkOut) " +
+           "FROM Booking b WHERE b.room.id IN :roomIds AND b.status = 'ACTIVE' AND b.checkIn < :to AND b.checkOut > :from")
+    List<ActiveStay> findActiveStaysForRoomsInRange(@Param("roomIds") Collection<UUID> roomIds,
+                                                    @Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT new com.codehunter.hotelbooking.repository.StayChange(b.id, b.room.id, b.checkIn, b.checkOut, b.status) " +
+           "FROM Booking b WHERE b.updatedAt >= :since")
+    List<StayChange> findStayChangesSince(@Param("since") Instant since);
+
+    /** Reads the current database state of a booking, bypassing any managed (possibly stale) entity. */
+    @Query("SELECT new com.codehunter.hotelbooking.repository.BookingRow(b.id, b.user.id, b.room.id, b.checkIn, b.checkOut, " +
+           "u.membershipLevel, b.totalAmount, b.discountAmount, b.finalAmount, b.status) " +
+           "FROM Booking b JOIN b.user u WHERE b.id = :bookingId")
+    Optional<BookingRow> findRowById(@Param("bookingId") UUID bookingId);
+
+    @Query("SELECT new com.codehunter.hotelbooking.repository.BookingRow(b.id, b.user.id, b.room.id, b.checkIn, b.checkOut, " +
+           "u.membershipLevel, b.totalAmount, b.discountAmount, b.finalAmount, b.status) " +
+           "FROM Booking b JOIN b.user u WHERE b.id IN :bookingIds")
+    List<BookingRow> findRowsByIdIn(@Param("bookingIds") Collection<UUID> bookingIds);
+
+    @Query("SELECT new com.codehunter.hotelbooking.repository.BookingRow(b.id, b.user.id, b.room.id, b.checkIn, b.checkOut, " +
+           "u.membershipLevel, b.totalAmount, b.discountAmount, b.finalAmount, b.status) " +
+           "FROM Booking b JOIN b.user u WHERE b.user.id = :userId AND b.status IN :statuses " +
+           "ORDER BY b.checkIn DESC, b.id DESC")
+    List<BookingRow> findFirstPageForUser(@Param("userId") UUID userId,
+                                          @Param("statuses") Collection<Booking.Status> statuses,
+                                          Pageable pageable);
+
+    @Query("SELECT new com.codehunter.hotelbooking.repository.BookingRow(b.id, b.user.id, b.room.id, b.checkIn, b.checkOut, " +
+           "u.membershipLevel, b.totalAmount, b.discountAmount, b.finalAmount, b.status) " +
+           "FROM Booking b JOIN b.user u WHERE b.user.id = :userId AND b.status IN :statuses " +
+           "AND (b.checkIn < :afterCheckIn OR (b.checkIn = :afterCheckIn AND b.id < :afterId)) " +
+           "ORDER BY b.checkIn DESC, b.id DESC")
+    List<BookingRow> findPageForUserAfter(@Param("userId") UUID userId,
+                                          @Param("statuses") Collection<Booking.Status> statuses,
+                                          @Param("afterCheckIn") Instant afterCheckIn,
+                                          @Param("afterId") UUID afterId,
+                                          Pageable pageable);
+}
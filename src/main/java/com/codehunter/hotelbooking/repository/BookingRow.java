@@ -0,0 +1,28 @@
+package com.codehunter.hotelbooking.repository;
+
+import com.codehunter.hotelbooking.model.Booking;
+import com.codehunter.hotelbooking.model.User;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flat, read-only projection of a booking as shown to its owner, selected column by column so listing
+ * queries never hydrate {@code Booking}, {@code User} or {@code Room} entities.
+ */
+public record BookingRow(UUID bookingId,
+                         UUID userId,
+                         UUID roomId,
+                         Instant checkIn,
+                         Instant checkOut,
+                         User.MembershipLevel membershipLevel,
+                         BigDecimal totalAmount,
+                         BigDecimal discountAmount,
+                         BigDecimal finalAmount,
+                         Booking.Status status) {
+
+    /** Keyset position of a row in the {@code (checkIn DESC, id DESC)} order. */
+    public record Cursor(Instant checkIn, UUID bookingId) {
+    }
+}
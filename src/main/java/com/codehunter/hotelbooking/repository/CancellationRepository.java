@@ -2,7 +2,52 @@ package com.codehunter.hotelbooking.repository;
 
 import com.codehunter.hotelbooking.model.Cancellation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface CancellationRepository extends JpaRepository<Cancellation, UUID> {
+
+    Optional<Cancellation> findByBookingId(UUID bookingId);
+
+    /**
+     * Claims up to {@code limit} due PENDING refunds: bumps their attempt counter and leases them until
+     * {@code leaseUntil}. Rows locked by another worker are skipped, and a claim whose worker dies becomes
+     * due again when its lease runs out.
+     */
+    @Transactional
+    @Query(value = "UPDATE cancellations SET attempts = attempts + 1, next_attempt_at = :leaseUntil " +
+                   "WHERE id IN (SELECT id FROM cancellations WHERE refund_status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING id AS id, booking_id AS bookingId, refund_amount AS refundAmount, attempts AS attempts",
+           nativeQuery = true)
+    List<RefundClaim> claimDueRefunds(@Param("now") Instant now,
+                                      @Param("leaseUntil") Instant leaseUntil,
+                                      @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Cancellation c SET c.refundStatus = com.codehunter.hotelbooking.model.Cancellation.RefundStatus.COMPLETED, " +
+           "c.completedAt = :now, c.nextAttemptAt = null, c.lastError = null " +
+           "WHERE c.id = :id AND c.refundStatus = com.codehunter.hotelbooking.model.Cancellation.RefundStatus.PENDING")
+    int markRefundCompleted(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Cancellation c SET c.nextAttemptAt = :nextAttemptAt, c.lastError = :error " +
+           "WHERE c.id = :id AND c.refundStatus = com.codehunter.hotelbooking.model.Cancellation.RefundStatus.PENDING")
+    int scheduleRefundRetry(@Param("id") UUID id, @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Cancellation c SET c.refundStatus = com.codehunter.hotelbooking.model.Cancellation.RefundStatus.FAILED, " +
+           "c.nextAttemptAt = null, c.lastError = :error " +
+           "WHERE c.id = :id AND c.refundStatus = com.codehunter.hotelbooking.model.Cancellation.RefundStatus.PENDING")
+    int markRefundFailed(@Param("id") UUID id, @Param("error") String error);
 }
@@ -0,0 +1,21 @@
+package com.codehunter.hotelbooking.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Row returned by the conditional cancellation update: just what the refund calculation and the
+ * {@code BookingChangedEvent} need.
+ */
+public interface CancelledBooking {
+    UUID getBookingId();
+
+    UUID getRoomId();
+
+    Instant getCheckIn();
+
+    Instant getCheckOut();
+
+    BigDecimal getFinalAmount();
+}
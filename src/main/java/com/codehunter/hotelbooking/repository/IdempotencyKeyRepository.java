@@ -0,0 +1,77 @@
+package com.codehunter.hotelbooking.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stored outcomes of idempotent booking requests, keyed by user and {@code Idempotency-Key}.
+ * <p>
+ * Plain JDBC rather than an entity: rows are only ever claimed, completed or deleted with single
+ * conditional statements, and the statements join whatever transaction is active on the caller.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+    public record StoredKey(String requestHash, boolean completed, String response) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Claims a key for a new attempt. Succeeds when the key is unknown, has expired, or is held by an
+     * attempt for the same request whose lock ran out without completing. The claim is stamped with
+     * {@code claimToken}, which {@link #complete} and {@link #release} must present, so an attempt whose key
+     * was taken over can neither complete nor release it.
+     *
+     * @return true if the caller now owns the key
+     */
+    public boolean tryClaim(UUID userId, String key, String requestHash, UUID claimToken,
+                            Instant now, Instant lockedUntil, Instant expiresAt) {
+        int updated = jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, status, claim_token, locked_until, created_at, expires_at) " +
+                "VALUES (?, ?, ?, 'IN_PROGRESS', ?, ?, ?, ?) " +
+                "ON CONFLICT (user_id, idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+                "status = 'IN_PROGRESS', response = NULL, claim_token = EXCLUDED.claim_token, locked_until = EXCLUDED.locked_until, " +
+                "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+                "WHERE idempotency_keys.expires_at <= ? OR (idempotency_keys.status = 'IN_PROGRESS' " +
+                "AND idempotency_keys.locked_until <= ? AND idempotency_keys.request_hash = EXCLUDED.request_hash)",
+                userId, key, requestHash, claimToken, Timestamp.from(lockedUntil), Timestamp.from(now), Timestamp.from(expiresAt),
+                Timestamp.from(now), Timestamp.from(now));
+        return updated == 1;
+    }
+
+    public Optional<StoredKey> find(UUID userId, String key) {
+        return jdbcTemplate.query(
+                "SELECT request_hash, status, response FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?",
+                (rs, rowNum) -> new StoredKey(rs.getString(1), "COMPLETED".equals(rs.getString(2)), rs.getString(3)),
+                userId, key).stream().findFirst();
+    }
+
+    /** Stores the response of the attempt holding {@code claimToken}; returns 0 if the claim was taken over. */
+    public int complete(UUID userId, String key, UUID claimToken, String response) {
+        return jdbcTemplate.update(
+                "UPDATE idempotency_keys SET status = 'COMPLETED', response = ?, locked_until = NULL " +
+                "WHERE user_id = ? AND idempotency_key = ? AND status = 'IN_PROGRESS' AND claim_token = ?",
+                response, userId, key, claimToken);
+    }
+
+    /** Gives up a claimed key after a failed attempt so the client can retry with it. */
+    public int release(UUID userId, String key, UUID claimToken) {
+        return jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND status = 'IN_PROGRESS' " +
+                "AND claim_token = ?",
+                userId, key, claimToken);
+    }
+
+    public int deleteExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", Timestamp.from(now));
+    }
+}
@@ -0,0 +1,17 @@
+package com.codehunter.hotelbooking.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A PENDING refund claimed by the refund worker, with the attempt number it is about to make.
+ */
+public interface RefundClaim {
+    UUID getId();
+
+    UUID getBookingId();
+
+    BigDecimal getRefundAmount();
+
+    int getAttempts();
+}
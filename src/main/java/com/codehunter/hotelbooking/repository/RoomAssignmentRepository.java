@@ -0,0 +1,74 @@
+package com.codehunter.hotelbooking.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads room assignments in bulk and moves bookings between rooms for the defragmentation job.
+ * <p>
+ * Plain JDBC rather than entities: the job works on a flat snapshot of every future stay, and its moves
+ * are sent as one JDBC batch of conditional updates inside the caller's transaction.
+ */
+@Repository
+public class RoomAssignmentRepository {
+    public record AssignedStay(UUID bookingId, UUID roomId, String roomType, Instant checkIn, Instant checkOut,
+                               boolean pinned) {
+    }
+
+    public record Move(UUID bookingId, UUID fromRoomId, UUID toRoomId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoomAssignmentRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Ids of all typed rooms grouped by type, each group in room number order. */
+    public Map<String, List<UUID>> findRoomIdsByType() {
+        Map<String, List<UUID>> rooms = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, type FROM rooms WHERE type IS NOT NULL ORDER BY type, room_number",
+                rs -> {
+                    rooms.computeIfAbsent(rs.getString(2), type -> new ArrayList<>()).add(rs.getObject(1, UUID.class));
+                });
+        return rooms;
+    }
+
+    /** ACTIVE stays in typed rooms that have not ended by {@code after}. */
+    public List<AssignedStay> findActiveStaysEndingAfter(Instant after) {
+        return jdbcTemplate.query(
+                "SELECT b.id, b.room_id, r.type, b.check_in, b.check_out, b.room_pinned FROM bookings b " +
+                "JOIN rooms r ON r.id = b.room_id " +
+                "WHERE b.status = 'ACTIVE' AND b.check_out > ? AND r.type IS NOT NULL",
+                (rs, rowNum) -> new AssignedStay(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getString(3),
+                        rs.getTimestamp(4).toInstant(), rs.getTimestamp(5).toInstant(), rs.getBoolean(6)),
+                Timestamp.from(after));
+    }
+
+    /**
+     * Moves each booking to its new room in one JDBC batch. The overlap exclusion is deferred to commit, so
+     * the moves may pass through states where two of them briefly share a room. A move only applies if the
+     * booking is still ACTIVE, unpinned and in the room it was planned from.
+     *
+     * @return per move, the number of rows updated (0 or 1)
+     */
+    public int[] moveBookings(List<Move> moves, Instant now) {
+        jdbcTemplate.execute("SET CONSTRAINTS bookings_no_overlapping_active_stay DEFERRED");
+        List<Object[]> args = new ArrayList<>(moves.size());
+        for (Move move : moves) {
+            args.add(new Object[]{move.toRoomId(), Timestamp.from(now), move.bookingId(), move.fromRoomId()});
+        }
+        return jdbcTemplate.batchUpdate(
+                "UPDATE bookings SET room_id = ?, updated_at = ? " +
+                "WHERE id = ? AND room_id = ? AND status = 'ACTIVE' AND NOT room_pinned",
+                args);
+    }
+}
@@ -2,6 +2,7 @@ package com.codehunter.hotelbooking.repository;
 
 import com.codehunter.hotelbooking.model.Room;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,14 +13,22 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface RoomRepository extends JpaRepository<Room, UUID> {
+public interface RoomRepository extends JpaRepository<Room, UUID>, JpaSpecificationExecutor<Room> {
     boolean existsByRoomNumber(String roomNumber);
 
     Optional<Room> findByRoomNumber(String roomNumber);
 
-    @Query("SELECT r FROM Room r WHERE r.id NOT IN " +
-           "(SELECT DISTINCT b.room.id FROM Booking b WHERE b.status = 'ACTIVE' AND " +
-           "(b.checkIn <= :endDate AND b.checkOut > :startDate))")
+    @Query("SELECT DISTINCT r.type FROM Room r WHERE r.type IS NOT NULL ORDER BY r.type")
+    List<String> findDistinctTypes();
+
+    /**
+     * Finds rooms without an ACTIVE booking where {@code checkIn <= endDate && checkOut > startDate}.
+     * Each room is a single probe of the GiST index behind the bookings {@code stay} range column.
+     */
+    @Query(value = "SELECT r.* FROM rooms r WHERE NOT EXISTS (SELECT 1 FROM bookings b " +
+                   "WHERE b.room_id = r.id AND b.status = 'ACTIVE' " +
+                   "AND b.stay && tstzrange(CAST(:startDate AS timestamptz), CAST(:endDate AS timestamptz), '[]'))",
+           nativeQuery = true)
     List<Room> findAvailableRoomsInDateRange(
             @Param("startDate") Instant startDate,
             @Param("endDate") Instant endDate
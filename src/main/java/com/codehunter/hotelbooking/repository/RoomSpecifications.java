@@ -0,0 +1,66 @@
+package com.codehunter.hotelbooking.repository;
+
+import com.codehunter.hotelbooking.model.Booking;
+import com.codehunter.hotelbooking.model.Room;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Filters and keyset bounds for the room catalog search, combined per request and run as one SQL query.
+ */
+public final class RoomSpecifications {
+    private RoomSpecifications() {
+    }
+
+    public static Specification<Room> hasType(String type) {
+        return (room, query, cb) -> cb.equal(room.get("type"), type);
+    }
+
+    public static Specification<Room> priceAtLeast(BigDecimal minPrice) {
+        return (room, query, cb) -> cb.greaterThanOrEqualTo(room.<BigDecimal>get("pricePerNight"), minPrice);
+    }
+
+    public static Specification<Room> priceAtMost(BigDecimal maxPrice) {
+        return (room, query, cb) -> cb.lessThanOrEqualTo(room.<BigDecimal>get("pricePerNight"), maxPrice);
+    }
+
+    public static Specification<Room> idNotIn(Collection<UUID> roomIds) {
+        return (room, query, cb) -> cb.not(room.get("id").in(roomIds));
+    }
+
+    /**
+     * Rooms without an ACTIVE booking where {@code checkIn <= end && checkOut > start}, the same rule as
+     * {@link RoomRepository#findAvailableRoomsInDateRange}.
+     */
+    public static Specification<Room> freeBetween(Instant start, Instant end) {
+        return (room, query, cb) -> {
+            Subquery<Integer> stays = query.subquery(Integer.class);
+            Root<Booking> booking = stays.from(Booking.class);
+            stays.select(cb.literal(1)).where(
+                    cb.equal(booking.get("room"), room),
+                    cb.equal(booking.get("status"), Booking.Status.ACTIVE),
+                    cb.lessThanOrEqualTo(booking.<Instant>get("checkIn"), end),
+                    cb.greaterThan(booking.<Instant>get("checkOut"), start));
+            return cb.not(cb.exists(stays));
+        };
+    }
+
+    /** Rooms after {@code (price, id)} in {@code (pricePerNight, id)} order, or before it if descending. */
+    public static Specification<Room> afterPrice(BigDecimal price, UUID id, boolean descending) {
+        return (room, query, cb) -> descending
+                ? cb.or(cb.lessThan(room.<BigDecimal>get("pricePerNight"), price),
+                        cb.and(cb.equal(room.get("pricePerNight"), price), cb.lessThan(room.<UUID>get("id"), id)))
+                : cb.or(cb.greaterThan(room.<BigDecimal>get("pricePerNight"), price),
+                        cb.and(cb.equal(room.get("pricePerNight"), price), cb.greaterThan(room.<UUID>get("id"), id)));
+    }
+
+    public static Specification<Room> afterRoomNumber(String roomNumber) {
+        return (room, query, cb) -> cb.greaterThan(room.<String>get("roomNumber"), roomNumber);
+    }
+}
@@ -0,0 +1,20 @@
+package com.codehunter.hotelbooking.repository;
+
+import com.codehunter.hotelbooking.model.RoomTypeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RoomTypeRateRepository extends JpaRepository<RoomTypeRate, UUID> {
+    List<RoomTypeRate> findByRoomTypeOrderByStartDate(String roomType);
+
+    @Modifying
+    @Query("DELETE FROM RoomTypeRate r WHERE r.roomType = :roomType")
+    int deleteByRoomType(@Param("roomType") String roomType);
+}
@@ -0,0 +1,13 @@
+package com.codehunter.hotelbooking.repository;
+
+import com.codehunter.hotelbooking.model.Booking;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of a booking's stay and current status, used to replay booking changes into derived
+ * occupancy structures without loading {@code Booking} entities.
+ */
+public record StayChange(UUID bookingId, UUID roomId, Instant checkIn, Instant checkOut, Booking.Status status) {
+}
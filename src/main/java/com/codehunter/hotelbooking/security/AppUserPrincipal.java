@@ -0,0 +1,100 @@
+package com.codehunter.hotelbooking.security;
+
+import com.codehunter.hotelbooking.model.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Authenticated principal carrying the domain user's id, role and membership level, so request handlers
+ * can act on the caller without loading the {@link User} again.
+ * <p>
+ * Controllers receive it as a plain {@code AppUserPrincipal} handler argument. The password is only present
+ * while HTTP Basic authentication is in progress and is erased afterwards.
+ */
+public class AppUserPrincipal implements UserDetails, CredentialsContainer {
+    private final UUID id;
+    private final String username;
+    private final String email;
+    private final User.Role role;
+    private final User.MembershipLevel membershipLevel;
+    private final List<GrantedAuthority> authorities;
+    private String password;
+
+    public AppUserPrincipal(UUID id, String username, String password, String email,
+                            User.Role role, User.MembershipLevel membershipLevel) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.email = email;
+        this.role = role;
+        this.membershipLevel = membershipLevel;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static AppUserPrincipal from(User user) {
+        return new AppUserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getEmail(),
+                user.getRole(), user.getMembershipLevel());
+    }
+
+    public static AppUserPrincipal from(SessionToken token) {
+        return new AppUserPrincipal(token.userId(), token.username(), null, token.email(),
+                token.role(), token.membershipLevel());
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public User.MembershipLevel getMembershipLevel() {
+        return membershipLevel;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AppUserPrincipal other && username.equals(other.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AppUserPrincipal[id=" + id + ", username=" + username + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,45 @@
+package com.codehunter.hotelbooking.security;
+
+import com.codehunter.hotelbooking.service.UserService;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link AppUserPrincipal} handler arguments from the current authentication.
+ * <p>
+ * Logins through {@code CustomUserDetailsService} and session tokens already carry an
+ * {@code AppUserPrincipal}. Any other principal (e.g. one set up by a test or another authentication
+ * mechanism) is resolved by username, which costs one lookup.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    private final UserService userService;
+
+    public CurrentUserArgumentResolver(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AppUserPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw new AuthenticationCredentialsNotFoundException("Authentication required");
+        }
+        if (authentication.getPrincipal() instanceof AppUserPrincipal principal) {
+            return principal;
+        }
+        return AppUserPrincipal.from(userService.findByUsername(authentication.getName()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.codehunter.hotelbooking.security;
+
+import com.codehunter.hotelbooking.model.User;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims carried by a signed session token. Everything needed to authorize a request is in the token
+ * itself, so validating it needs neither the database nor the password encoder.
+ *
+ * @param tokenId unique id of this token, used for revocation
+ */
+public record SessionToken(UUID userId,
+                           String username,
+                           String email,
+                           User.Role role,
+                           User.MembershipLevel membershipLevel,
+                           Instant issuedAt,
+                           Instant expiresAt,
+                           UUID tokenId) {
+}
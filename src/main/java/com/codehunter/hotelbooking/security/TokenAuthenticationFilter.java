@@ -0,0 +1,54 @@
+package com.codehunter.hotelbooking.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>} from the token's own claims.
+ * Requests without a valid token pass through unauthenticated and fall back to the other mechanisms.
+ * <p>
+ * If the user changed since the token was issued, the principal is rebuilt from the (cached) user
+ * details instead of the token claims.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final UserDetailsService userDetailsService;
+
+    public TokenAuthenticationFilter(TokenService tokenService, UserDetailsService userDetailsService) {
+        this.tokenService = tokenService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            tokenService.verify(header.substring(BEARER_PREFIX.length()).trim()).ifPresent(claims -> {
+                AppUserPrincipal principal = tokenService.isStale(claims)
+                        ? (AppUserPrincipal) userDetailsService.loadUserByUsername(claims.username())
+                        : AppUserPrincipal.from(claims);
+                principal.eraseCredentials();
+                UsernamePasswordAuthenticationToken authentication =
+                        UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+                authentication.setDetails(claims);
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            });
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,137 @@
+package com.codehunter.hotelbooking.security;
+
+import com.codehunter.hotelbooking.dto.TokenResponse;
+import com.codehunter.hotelbooking.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and validates HMAC-SHA256 signed session tokens of the form {@code base64url(claims).base64url(mac)}.
+ * <p>
+ * Tokens are short-lived. Logout and refresh revoke a token by id; revoked ids are remembered in memory on
+ * this node until the token would have expired anyway. When a user's profile changes, tokens issued before
+ * the change are flagged as stale so their claims are not trusted for the rest of their lifetime. The
+ * signing key comes from {@code app.security.token.secret}. If it is not set a random key is generated,
+ * which invalidates tokens on restart and does not work across several nodes.
+ */
+@Service
+@Slf4j
+public class TokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Cache<UUID, Boolean> revoked;
+    private final Cache<UUID, Instant> changedAt;
+    private final ThreadLocal<Mac> macs;
+
+    public TokenService(ObjectMapper objectMapper,
+                        @Value("${app.security.token.secret:}") String secret,
+                        @Value("${app.security.token.ttl-seconds:900}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warn("app.security.token.secret is not set; using a random key, tokens will not survive a restart");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.revoked = Caffeine.newBuilder().expireAfterWrite(ttl).build();
+        this.changedAt = Caffeine.newBuilder().expireAfterWrite(ttl).build();
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /** Issues a new token for {@code user}, valid for the configured TTL. */
+    public TokenResponse issue(User user) {
+        Instant now = Instant.now();
+        SessionToken claims = new SessionToken(user.getId(), user.getUsername(), user.getEmail(), user.getRole(),
+                user.getMembershipLevel(), now, now.plus(ttl), UUID.randomUUID());
+        return new TokenResponse(encode(claims), claims.expiresAt());
+    }
+
+    /**
+     * Returns the claims of {@code token} if its signature is valid, it has not expired and it was not revoked.
+     */
+    public Optional<SessionToken> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            SessionToken claims = objectMapper.readValue(payload, SessionToken.class);
+            if (!claims.expiresAt().isAfter(Instant.now()) || revoked.getIfPresent(claims.tokenId()) != null) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /** Rejects {@code claims} from now on, e.g. after logout or once it has been exchanged for a new token. */
+    public void revoke(SessionToken claims) {
+        revoked.put(claims.tokenId(), Boolean.TRUE);
+    }
+
+    /** Records that the user's role or membership changed, making the claims of existing tokens stale. */
+    public void markChanged(UUID userId) {
+        changedAt.put(userId, Instant.now());
+    }
+
+    /** Whether {@code claims} were issued before the last recorded change of their user. */
+    public boolean isStale(SessionToken claims) {
+        Instant changed = changedAt.getIfPresent(claims.userId());
+        return changed != null && !claims.issuedAt().isAfter(changed);
+    }
+
+    private String encode(SessionToken claims) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(claims);
+            return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize token claims", e);
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Room;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the rooms that {@link RoomService#getAvailableRooms} finds per searched date range, before checkout
+ * holds are applied; holds come and go without booking events and are cheap to filter per request.
+ * <p>
+ * The cache is bounded in size with least-recently-used eviction, and entries expire after a TTL as a
+ * backstop. When a booking change commits, only the entries whose range overlaps the changed stay are
+ * dropped. The invalidation is not a listener of its own: {@link RoomAvailabilityIndex} and
+ * {@link OccupancyCalendar} invalidate once they have applied the change, whichever of them runs first, so
+ * an entry cached from a source that had not yet seen the change is dropped by that source afterwards. A
+ * result computed while an invalidation ran is not kept.
+ * <p>
+ * Hit/miss, size and eviction statistics are published as the {@code cache.*} meters tagged
+ * {@code cache=roomAvailability}, alongside {@code availability.cache.hit.ratio} and
+ * {@code availability.cache.invalidations}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.availability.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class AvailabilityCache {
+    /** A searched range in the zone searches are run in. */
+    record Key(LocalDate fromDate, LocalDate toDate) {
+    }
+
+    private final Cache<Key, List<Room>> cache;
+    private final Counter invalidations;
+    private final AtomicLong generation = new AtomicLong();
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    public AvailabilityCache(MeterRegistry meterRegistry,
+                             @Value("${app.availability.cache.max-size:1000}") long maxSize,
+                             @Value("${app.availability.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "roomAvailability");
+        Gauge.builder("availability.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of availability searches answered from the cache")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("availability.cache.invalidations")
+                .description("Cached availability searches dropped because a booking changed in their range")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached rooms for the range, or computes them with {@code search} and caches them unless a
+     * booking change was applied in the meantime.
+     */
+    public List<Room> get(LocalDate fromDate, LocalDate toDate, Supplier<List<Room>> search) {
+        Key key = new Key(fromDate, toDate);
+        List<Room> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long before = generation.get();
+        List<Room> rooms = List.copyOf(search.get());
+        if (generation.get() == before) {
+            cache.put(key, rooms);
+            // An invalidation that started after the check above may have missed this entry
+            if (generation.get() != before) {
+                cache.asMap().remove(key, rooms);
+            }
+        }
+        return rooms;
+    }
+
+    /** Drops the cached ranges that overlap a stay {@code [checkIn, checkOut)} that was booked or cancelled. */
+    public void invalidate(Instant checkIn, Instant checkOut) {
+        generation.incrementAndGet();
+        long checkInMillis = checkIn.toEpochMilli();
+        long checkOutMillis = checkOut.toEpochMilli();
+        // Searches treat their end as inclusive, see RoomIntervals#overlaps
+        int removed = 0;
+        for (Key key : cache.asMap().keySet()) {
+            long start = key.fromDate().atStartOfDay(zoneId).toInstant().toEpochMilli();
+            long end = key.toDate().atStartOfDay(zoneId).toInstant().toEpochMilli();
+            if (checkInMillis <= end && checkOutMillis > start && cache.asMap().remove(key) != null) {
+                removed++;
+            }
+        }
+        invalidations.increment(removed);
+    }
+
+    long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,14 @@
+package com.codehunter.hotelbooking.service;
+
+/**
+ * Selects how {@link RoomService#getAvailableRooms} answers availability searches.
+ * Configured with {@code app.availability.mode}.
+ */
+public enum AvailabilityMode {
+    /** Anti-join query against the bookings table on every search. */
+    JPQL,
+    /** In-memory per-room interval index, see {@link RoomAvailabilityIndex}. */
+    INDEX,
+    /** Memory-mapped room x night bitsets, see {@link OccupancyCalendar}. */
+    BITSET
+}
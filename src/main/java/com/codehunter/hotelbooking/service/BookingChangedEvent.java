@@ -0,0 +1,25 @@
+package com.codehunter.hotelbooking.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by {@link BookingService} whenever a booking starts or stops occupying a room, and by
+ * {@link RoomDefragmentationJob} as a cancel/create pair when it moves a booking to another room.
+ * Listeners that keep derived occupancy state (e.g. {@link RoomAvailabilityIndex}) should consume it
+ * after the surrounding transaction commits.
+ */
+public record BookingChangedEvent(Type type, UUID bookingId, UUID roomId, Instant checkIn, Instant checkOut) {
+
+    public enum Type {
+        CREATED, CANCELLED
+    }
+
+    public static BookingChangedEvent created(UUID bookingId, UUID roomId, Instant checkIn, Instant checkOut) {
+        return new BookingChangedEvent(Type.CREATED, bookingId, roomId, checkIn, checkOut);
+    }
+
+    public static BookingChangedEvent cancelled(UUID bookingId, UUID roomId, Instant checkIn, Instant checkOut) {
+        return new BookingChangedEvent(Type.CANCELLED, bookingId, roomId, checkIn, checkOut);
+    }
+}
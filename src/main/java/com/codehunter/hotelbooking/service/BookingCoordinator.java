@@ -0,0 +1,186 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.dto.BookingRequest;
+import com.codehunter.hotelbooking.dto.BookingResponse;
+import com.codehunter.hotelbooking.dto.BulkBookingRequest;
+import com.codehunter.hotelbooking.dto.CancellationResponse;
+import com.codehunter.hotelbooking.dto.HoldRequest;
+import com.codehunter.hotelbooking.dto.HoldResponse;
+import com.codehunter.hotelbooking.dto.RoomTypeBookingRequest;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes booking writes per room so the overlap check in {@link BookingService} and the insert that
+ * follows it cannot interleave with another write for the same room on this node.
+ * <p>
+ * Rooms are hashed onto a fixed pool of striped locks, so unrelated rooms rarely contend and memory does
+ * not grow with the room count. Checkout holds and cancellations take the same lock as bookings, so the
+ * writes and change events of one room happen in a single order. The lock is held around the whole
+ * {@code BookingService} call, i.e. until its transaction has committed. Operations that touch several
+ * rooms take their stripes in ascending stripe order, which rules out lock-order deadlocks between
+ * overlapping groups. Across nodes the exclusion constraint on {@code bookings} remains the final guard.
+ * <p>
+ * Lock wait and hold times are recorded as {@code booking.lock.wait} and {@code booking.lock.hold}
+ * histograms; waits that time out are included in {@code booking.lock.wait} and also counted as
+ * {@code booking.lock.timeouts}.
+ */
+@Service
+@Slf4j
+public class BookingCoordinator {
+    // Rooms tried for a room-type booking before giving up when the best candidates are taken concurrently
+    private static final int MAX_ASSIGNMENT_ATTEMPTS = 3;
+
+    private final BookingService bookingService;
+    private final ReservationHoldService reservationHoldService;
+    private final RoomService roomService;
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMillis;
+    private final Timer lockWait;
+    private final Timer lockHold;
+    private final Counter lockTimeouts;
+
+    public BookingCoordinator(BookingService bookingService,
+                              ReservationHoldService reservationHoldService,
+                              RoomService roomService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.booking.lock.stripes:1024}") int stripeCount,
+                              @Value("${app.booking.lock.timeout-ms:5000}") long lockTimeoutMillis) {
+        this.bookingService = bookingService;
+        this.reservationHoldService = reservationHoldService;
+        this.roomService = roomService;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.lockWait = Timer.builder("booking.lock.wait")
+                .description("Time spent waiting for per-room booking locks")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lockHold = Timer.builder("booking.lock.hold")
+                .description("Time per-room booking locks are held")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lockTimeouts = Counter.builder("booking.lock.timeouts")
+                .description("Booking lock acquisitions that timed out")
+                .register(meterRegistry);
+    }
+
+    public BookingResponse createBooking(BookingRequest request, AppUserPrincipal principal) {
+        return withRoomLocks(List.of(request.getRoomId()), () -> bookingService.createBooking(request, principal));
+    }
+
+    /**
+     * Books a room of the requested type. Candidates come from {@link RoomService#findRoomsForStay}, best fit
+     * first; each is locked and booked in turn, and a candidate taken by a concurrent booking since the
+     * search, on this node or another, is skipped in favour of the next one.
+     *
+     * @throws BookingConflictException if no room of the type can be booked for the stay
+     */
+    public BookingResponse createBooking(RoomTypeBookingRequest request, AppUserPrincipal principal) {
+        List<UUID> candidates = roomService.findRoomsForStay(request.getRoomType(), request.getCheckIn(), request.getCheckOut());
+        for (UUID roomId : candidates.subList(0, Math.min(candidates.size(), MAX_ASSIGNMENT_ATTEMPTS))) {
+            BookingRequest roomRequest = new BookingRequest(roomId, request.getCheckIn(), request.getCheckOut());
+            try {
+                return withRoomLocks(List.of(roomId), () -> bookingService.createAssignedBooking(roomRequest, principal));
+            } catch (BookingConflictException e) {
+                log.debug("Room {} of type {} was taken concurrently: {}", roomId, request.getRoomType(), e.getMessage());
+            } catch (DataIntegrityViolationException e) {
+                // Taken on another node: the exclusion constraint rejected the insert
+                if (!BookingConflictException.isOverlapViolation(e)) {
+                    throw e;
+                }
+                log.debug("Room {} of type {} was taken on another node", roomId, request.getRoomType());
+            }
+        }
+        throw new BookingConflictException("No " + request.getRoomType() + " room is available for the selected dates");
+    }
+
+    public List<BookingResponse> createBookings(BulkBookingRequest request, AppUserPrincipal principal) {
+        return withRoomLocks(request.getRoomIds(), () ->
+                bookingService.createBookings(request.getRoomIds(), request.getCheckIn(), request.getCheckOut(), principal));
+    }
+
+    public HoldResponse createHold(HoldRequest request, AppUserPrincipal principal) {
+        return withRoomLocks(List.of(request.getRoomId()), () -> reservationHoldService.createHold(
+                request.getRoomId(), request.getCheckIn(), request.getCheckOut(), principal.getId()));
+    }
+
+    /**
+     * Cancels a booking owned by {@code userId} (any owner if null) under the lock of its room. A booking moved
+     * to another room between the lookup and the lock is looked up again.
+     *
+     * @see BookingService#cancelBooking(UUID, UUID, Instant)
+     */
+    public CancellationResponse cancelBooking(UUID bookingId, UUID userId, Instant cancelTime) {
+        for (int attempt = 0; attempt < MAX_ASSIGNMENT_ATTEMPTS; attempt++) {
+            UUID roomId = bookingService.getRoomIdOfBooking(bookingId);
+            CancellationResponse response = withRoomLocks(List.of(roomId), () ->
+                    roomId.equals(bookingService.getRoomIdOfBooking(bookingId))
+                            ? bookingService.cancelBooking(bookingId, userId, cancelTime)
+                            : null);
+            if (response != null) {
+                return response;
+            }
+            log.debug("Booking {} moved off room {} before it could be cancelled", bookingId, roomId);
+        }
+        throw new BookingConflictException("Booking is being moved, please retry");
+    }
+
+    /**
+     * Runs {@code action} while holding the stripes of all given rooms, acquired in ascending stripe order.
+     *
+     * @throws BookingConflictException if a stripe cannot be acquired within the configured timeout
+     */
+    public <T> T withRoomLocks(Collection<UUID> roomIds, Supplier<T> action) {
+        int[] order = roomIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int acquired = 0;
+        long waitStarted = System.nanoTime();
+        try {
+            for (int stripe : order) {
+                if (!stripes[stripe].tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    lockWait.record(System.nanoTime() - waitStarted, TimeUnit.NANOSECONDS);
+                    lockTimeouts.increment();
+                    log.warn("Timed out waiting for booking lock stripe {} (rooms {})", stripe, roomIds);
+                    throw new BookingConflictException("Room is busy, please retry");
+                }
+                acquired++;
+            }
+            long holdStarted = System.nanoTime();
+            lockWait.record(holdStarted - waitStarted, TimeUnit.NANOSECONDS);
+            try {
+                return action.get();
+            } finally {
+                lockHold.record(System.nanoTime() - holdStarted, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for booking lock", e);
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    int stripeOf(UUID roomId) {
+        int h = roomId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+}
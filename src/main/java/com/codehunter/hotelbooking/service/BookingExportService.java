@@ -0,0 +1,206 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Booking;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams bookings for the admin export straight from a JDBC cursor to the response body.
+ * <p>
+ * The query runs inside a read-only transaction with a fetch size, which makes the PostgreSQL driver use a
+ * server-side cursor instead of materializing the whole result. Each row is written out as it is read and
+ * no entities or DTOs are created, so heap use stays flat regardless of how many bookings are exported.
+ */
+@Service
+@Slf4j
+public class BookingExportService {
+    public enum Format {NDJSON, CSV}
+
+    private static final String CSV_HEADER =
+            "bookingId,userId,username,roomId,roomNumber,checkIn,checkOut,totalAmount,discountAmount,finalAmount,status,createdAt";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public BookingExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${app.booking.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes all bookings matching the filters to {@code out}, ordered by check-in. Every filter is optional.
+     *
+     * @param from   only bookings checking in at or after this instant
+     * @param to     only bookings checking in before this instant
+     * @param status only bookings with this status
+     * @param roomId only bookings of this room
+     * @return the number of rows written
+     */
+    public long export(Instant from, Instant to, Booking.Status status, UUID roomId, Format format, OutputStream out) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT b.id, b.user_id, u.username, b.room_id, r.room_number, b.check_in, b.check_out, " +
+                "b.total_amount, b.discount_amount, b.final_amount, b.status, b.created_at " +
+                "FROM bookings b JOIN users u ON u.id = b.user_id JOIN rooms r ON r.id = b.room_id WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND b.check_in >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND b.check_in < ?");
+            args.add(Timestamp.from(to));
+        }
+        if (status != null) {
+            sql.append(" AND b.status = ?");
+            args.add(status.name());
+        }
+        if (roomId != null) {
+            sql.append(" AND b.room_id = ?");
+            args.add(roomId);
+        }
+        sql.append(" ORDER BY b.check_in, b.id");
+
+        Long rows = readOnlyTransaction.execute(tx -> {
+            try {
+                RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(objectMapper, out);
+                jdbcTemplate.query(sql.toString(), writer, args.toArray());
+                writer.finish();
+                return writer.count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported {} bookings as {} (from {}, to {}, status {}, room {})", rows, format, from, to, status, roomId);
+        return rows == null ? 0 : rows;
+    }
+
+    private abstract static class RowWriter implements RowCallbackHandler {
+        long count;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are root-level values; the default separator would put a space before every line but the first
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeStringField("bookingId", rs.getString(1));
+            json.writeStringField("userId", rs.getString(2));
+            json.writeStringField("username", rs.getString(3));
+            json.writeStringField("roomId", rs.getString(4));
+            json.writeStringField("roomNumber", rs.getString(5));
+            json.writeStringField("checkIn", instant(rs, 6));
+            json.writeStringField("checkOut", instant(rs, 7));
+            json.writeNumberField("totalAmount", rs.getBigDecimal(8));
+            json.writeNumberField("discountAmount", rs.getBigDecimal(9));
+            json.writeNumberField("finalAmount", rs.getBigDecimal(10));
+            json.writeStringField("status", rs.getString(11));
+            json.writeStringField("createdAt", instant(rs, 12));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write(CSV_HEADER);
+            this.writer.write('\n');
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            for (int column = 1; column <= 12; column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                String value = switch (column) {
+                    case 6, 7, 12 -> instant(rs, column);
+                    case 3, 5 -> quote(rs.getString(column));
+                    default -> rs.getString(column);
+                };
+                if (value != null) {
+                    writer.write(value);
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        /** Quotes free-text columns (usernames, room numbers) per RFC 4180 when they need it. */
+        private static String quote(String value) {
+            if (value == null || value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String instant(ResultSet rs, int column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp == null ? null : timestamp.toInstant().toString();
+    }
+}
@@ -0,0 +1,247 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.dto.BookingRequest;
+import com.codehunter.hotelbooking.dto.BookingResponse;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.repository.IdempotencyKeyRepository;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes {@code POST /api/v1/bookings} safe to retry when the client sends an {@code Idempotency-Key}.
+ * <p>
+ * A key belongs to the user that sent it and is bound to a hash of the request body; reusing it for a
+ * different request is rejected. The outcome is looked up in three places, cheapest first:
+ * <ol>
+ *   <li>a bounded in-memory cache of completed responses, replayed without any database access;</li>
+ *   <li>the in-flight attempts on this node, so a concurrent duplicate waits for the first attempt
+ *   instead of racing it;</li>
+ *   <li>the {@code idempotency_keys} table, which is shared across nodes and survives restarts.</li>
+ * </ol>
+ * A new attempt first claims the key in the table, then creates the booking and marks the key completed
+ * in one transaction, under the same room lock {@link BookingCoordinator} uses. A booking therefore never
+ * commits without its stored response, and an attempt that dies before committing leaves only a claim that
+ * another attempt can take over once its lock time has passed. Each claim carries its own token: an attempt
+ * that outlived its lock and lost the key rolls its booking back instead of completing someone else's claim.
+ * Failed attempts release the key only if they still hold it.
+ */
+@Service
+@Slf4j
+public class BookingIdempotencyService {
+    static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private record Key(UUID userId, String idempotencyKey) {
+    }
+
+    private record Outcome(String requestHash, BookingResponse response) {
+    }
+
+    private final BookingService bookingService;
+    private final BookingCoordinator bookingCoordinator;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lockDuration;
+    private final long waitTimeoutMillis;
+    private final Cache<Key, Outcome> completed;
+    private final ConcurrentHashMap<Key, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+
+    public BookingIdempotencyService(BookingService bookingService,
+                                     BookingCoordinator bookingCoordinator,
+                                     IdempotencyKeyRepository idempotencyKeyRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                     @Value("${app.idempotency.lock-seconds:30}") long lockSeconds,
+                                     @Value("${app.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis,
+                                     @Value("${app.idempotency.cache.max-size:10000}") long cacheMaxSize) {
+        this.bookingService = bookingService;
+        this.bookingCoordinator = bookingCoordinator;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.lockDuration = Duration.ofSeconds(lockSeconds);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Creates a booking for {@code principal}, or replays the response of an earlier request sent with the
+     * same key.
+     *
+     * @throws IllegalArgumentException if the key is malformed or was used for a different request
+     * @throws BookingConflictException if an attempt with the same key is still running elsewhere
+     */
+    public BookingResponse createBooking(BookingRequest request, AppUserPrincipal principal, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(principal.getId(), idempotencyKey);
+        String requestHash = hash(request);
+        Outcome outcome = completed.getIfPresent(key);
+        if (outcome != null) {
+            log.info("Replaying cached booking {} for Idempotency-Key {}", outcome.response().getBookingId(), idempotencyKey);
+            return replay(outcome, requestHash);
+        }
+        CompletableFuture<Outcome> attempt = new CompletableFuture<>();
+        CompletableFuture<Outcome> running = inFlight.putIfAbsent(key, attempt);
+        if (running != null) {
+            log.info("Waiting for in-flight request with Idempotency-Key {}", idempotencyKey);
+            return replay(await(running), requestHash);
+        }
+        try {
+            outcome = execute(key, requestHash, request, principal);
+            completed.put(key, outcome);
+            attempt.complete(outcome);
+            return replay(outcome, requestHash);
+        } catch (RuntimeException e) {
+            attempt.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, attempt);
+        }
+    }
+
+    private Outcome execute(Key key, String requestHash, BookingRequest request, AppUserPrincipal principal) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        UUID claimToken = UUID.randomUUID();
+        while (true) {
+            Instant now = Instant.now();
+            if (idempotencyKeyRepository.tryClaim(key.userId(), key.idempotencyKey(), requestHash, claimToken,
+                    now, now.plus(lockDuration), now.plus(ttl))) {
+                break;
+            }
+            IdempotencyKeyRepository.StoredKey stored = idempotencyKeyRepository.find(key.userId(), key.idempotencyKey()).orElse(null);
+            if (stored != null) {
+                if (!stored.requestHash().equals(requestHash)) {
+                    throw keyReused();
+                }
+                if (stored.completed()) {
+                    log.info("Replaying stored booking for Idempotency-Key {}", key.idempotencyKey());
+                    return new Outcome(requestHash, read(stored.response()));
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new BookingConflictException("A request with this Idempotency-Key is still in progress");
+                }
+                sleep();
+            }
+            // A missing row was released by a failed attempt in between; claim it again
+        }
+        try {
+            BookingResponse response = bookingCoordinator.withRoomLocks(List.of(request.getRoomId()), () ->
+                    transactionTemplate.execute(status -> {
+                        BookingResponse created = bookingService.createBooking(request, principal);
+                        if (idempotencyKeyRepository.complete(key.userId(), key.idempotencyKey(), claimToken, write(created)) == 0) {
+                            // The lock ran out and another attempt re-claimed the key; it owns the outcome now
+                            throw new BookingConflictException("A request with this Idempotency-Key is still in progress");
+                        }
+                        return created;
+                    }));
+            return new Outcome(requestHash, response);
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(key.userId(), key.idempotencyKey(), claimToken);
+            throw e;
+        }
+    }
+
+    private Outcome await(CompletableFuture<Outcome> running) {
+        try {
+            return running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // The same request would fail the same way; surface the original failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new BookingConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        }
+    }
+
+    private static BookingResponse replay(Outcome outcome, String requestHash) {
+        if (!outcome.requestHash().equals(requestHash)) {
+            throw keyReused();
+        }
+        return outcome.response();
+    }
+
+    private static IllegalArgumentException keyReused() {
+        return new IllegalArgumentException("Idempotency-Key was already used for a different request");
+    }
+
+    /** Purges keys past their retention; expired keys are also reclaimed lazily on reuse. */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    static String hash(BookingRequest request) {
+        String canonical = request.getRoomId() + "|" + request.getCheckIn() + "|" + request.getCheckOut() + "|" + request.getHoldId();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(BookingResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize booking response", e);
+        }
+    }
+
+    private BookingResponse read(String json) {
+        try {
+            return objectMapper.readValue(json, BookingResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored booking response", e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        }
+    }
+}
@@ -1,130 +1,280 @@
 package com.codehunter.hotelbooking.service;
 
+import com.codehunter.hotelbooking.dto.BookingPageResponse;
 import com.codehunter.hotelbooking.dto.BookingRequest;
 import com.codehunter.hotelbooking.dto.BookingResponse;
 import com.codehunter.hotelbooking.dto.CancellationResponse;
 import com.codehunter.hotelbooking.dto.RefundPreviewResponse;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.exception.BulkBookingRejectedException;
 import com.codehunter.hotelbooking.model.Booking;
+import com.codehunter.hotelbooking.model.Cancellation;
+import com.codehunter.hotelbooking.model.Money;
 import com.codehunter.hotelbooking.model.Room;
 import com.codehunter.hotelbooking.model.User;
 import com.codehunter.hotelbooking.model.User.MembershipLevel;
 import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.BookingRow;
+import com.codehunter.hotelbooking.repository.CancellationRepository;
+import com.codehunter.hotelbooking.repository.CancelledBooking;
 import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.UserRepository;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class BookingService {
+    /** Room prices and booking amounts are all in this currency. */
+    static final Currency CURRENCY = Money.USD;
+
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
     private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CancellationRepository cancellationRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private RefundPolicy refundPolicy;
+    @Autowired
+    private ReservationHoldService reservationHoldService;
+    @Autowired
+    private PricingEngine pricingEngine;
 
     @Transactional
     public BookingResponse createBooking(BookingRequest request, User user) {
-        log.info("Creating booking for user {}: room {}, check-in {}, check-out {}", user.getUsername(), request.getRoomId(), request.getCheckIn(), request.getCheckOut());
+        return createBooking(request, user, user.getMembershipLevel(), true);
+    }
+
+    /**
+     * Creates a booking for the authenticated caller without loading the caller's {@link User}: the booking
+     * references the user by id and the discount comes from the principal's membership level.
+     */
+    @Transactional
+    public BookingResponse createBooking(BookingRequest request, AppUserPrincipal principal) {
+        return createBooking(request, userRepository.getReferenceById(principal.getId()), principal.getMembershipLevel(), true);
+    }
+
+    /**
+     * Like {@link #createBooking(BookingRequest, AppUserPrincipal)} for a room the system picked for a
+     * room-type booking. The booking is not pinned, so {@link RoomDefragmentationJob} may later move it to
+     * another room of the same type.
+     */
+    @Transactional
+    public BookingResponse createAssignedBooking(BookingRequest request, AppUserPrincipal principal) {
+        return createBooking(request, userRepository.getReferenceById(principal.getId()), principal.getMembershipLevel(), false);
+    }
+
+    private BookingResponse createBooking(BookingRequest request, User user, MembershipLevel membershipLevel, boolean roomPinned) {
+        log.info("Creating booking for user {}: room {}, check-in {}, check-out {}", user.getId(), request.getRoomId(), request.getCheckIn(), request.getCheckOut());
         Room room = roomRepository.findById(request.getRoomId())
                 .orElseThrow(() -> new IllegalArgumentException("Room not found"));
+        long nights = nights(request.getCheckIn(), request.getCheckOut());
+        if (request.getHoldId() != null) {
+            reservationHoldService.verifyHold(request.getHoldId(), user.getId(), room.getId(), request.getCheckIn(), request.getCheckOut());
+        }
+        if (reservationHoldService.isHeld(room.getId(), request.getCheckIn(), request.getCheckOut(), request.getHoldId())) {
+            throw new BookingConflictException("Room is on hold for the selected dates");
+        }
+        // Fast path; the exclusion constraint on bookings still rejects a concurrent overlapping insert at commit
+        if (bookingRepository.existsActiveOverlap(room.getId(), request.getCheckIn(), request.getCheckOut())) {
+            throw new BookingConflictException("Room is already booked for the selected dates");
+        }
+        Booking booking = newBooking(user, room, request.getCheckIn(), request.getCheckOut(), nights, membershipLevel);
+        booking.setRoomPinned(roomPinned);
+        booking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.created(booking.getId(), room.getId(), booking.getCheckIn(), booking.getCheckOut()));
+        if (request.getHoldId() != null) {
+            reservationHoldService.releaseAfterCommit(request.getHoldId());
+        }
+        return toBookingResponse(booking, user.getId(), membershipLevel);
+    }
+
+    /**
+     * Books every room in {@code roomIds} for the same stay, all or nothing. Rooms are loaded with one query
+     * and checked for overlaps with another; the bookings are then inserted together, which Hibernate sends
+     * as JDBC batches. Callers serialize this against other writes to the same rooms through
+     * {@link BookingCoordinator}.
+     *
+     * @throws BulkBookingRejectedException listing every room that cannot be booked, if any
+     */
+    @Transactional
+    public List<BookingResponse> createBookings(List<UUID> roomIds, Instant checkIn, Instant checkOut, AppUserPrincipal principal) {
+        log.info("Creating {} bookings for user {}: check-in {}, check-out {}", roomIds.size(), principal.getId(), checkIn, checkOut);
+        long nights = nights(checkIn, checkOut);
+        Map<UUID, Room> rooms = roomRepository.findAllById(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, room -> room));
+        Set<UUID> occupied = rooms.isEmpty()
+                ? Set.of()
+                : new HashSet<>(bookingRepository.findRoomIdsWithActiveOverlap(rooms.keySet(), checkIn, checkOut));
+        Map<UUID, String> failures = new LinkedHashMap<>();
+        Set<UUID> seen = new HashSet<>();
+        for (UUID roomId : roomIds) {
+            if (!seen.add(roomId)) {
+                failures.put(roomId, "Room is listed more than once");
+            } else if (!rooms.containsKey(roomId)) {
+                failures.put(roomId, "Room not found");
+            } else if (occupied.contains(roomId)) {
+                failures.put(roomId, "Room is already booked for the selected dates");
+            } else if (reservationHoldService.isHeld(roomId, checkIn, checkOut, null)) {
+                failures.put(roomId, "Room is on hold for the selected dates");
+            }
+        }
+        if (!failures.isEmpty()) {
+            log.info("Rejected group booking of {} rooms: {} cannot be booked", roomIds.size(), failures.size());
+            throw new BulkBookingRejectedException(failures);
+        }
+        User user = userRepository.getReferenceById(principal.getId());
+        List<Booking> bookings = new ArrayList<>(roomIds.size());
+        for (UUID roomId : roomIds) {
+            bookings.add(newBooking(user, rooms.get(roomId), checkIn, checkOut, nights, principal.getMembershipLevel()));
+        }
+        bookings = bookingRepository.saveAll(bookings);
+        List<BookingResponse> responses = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            eventPublisher.publishEvent(BookingChangedEvent.created(booking.getId(), booking.getRoom().getId(), checkIn, checkOut));
+            responses.add(toBookingResponse(booking, principal.getId(), principal.getMembershipLevel()));
+        }
+        return responses;
+    }
+
+    private static long nights(Instant checkIn, Instant checkOut) {
         // Calculate nights (calendar days, ignore time)
-        long nights = ChronoUnit.DAYS.between(request.getCheckIn().truncatedTo(ChronoUnit.DAYS), request.getCheckOut().truncatedTo(ChronoUnit.DAYS));
+        long nights = ChronoUnit.DAYS.between(checkIn.truncatedTo(ChronoUnit.DAYS), checkOut.truncatedTo(ChronoUnit.DAYS));
         if (nights <= 0) throw new IllegalArgumentException("Check-out must be after check-in");
-        BigDecimal totalAmount = room.getPricePerNight().multiply(BigDecimal.valueOf(nights));
-        BigDecimal discountPercent = getDiscountPercent(user.getMembershipLevel());
-        BigDecimal discountAmount = totalAmount.multiply(discountPercent);
-        BigDecimal finalAmount = totalAmount.subtract(discountAmount);
+        return nights;
+    }
+
+    private Booking newBooking(User user, Room room, Instant checkIn, Instant checkOut, long nights, MembershipLevel membershipLevel) {
+        PricingEngine.Quote quote = pricingEngine.quote(room, checkIn, nights, membershipLevel);
+        Instant now = Instant.now();
         Booking booking = new Booking();
         booking.setUser(user);
         booking.setRoom(room);
-        booking.setCheckIn(request.getCheckIn());
-        booking.setCheckOut(request.getCheckOut());
-        booking.setTotalAmount(totalAmount);
-        booking.setDiscountAmount(discountAmount);
-        booking.setFinalAmount(finalAmount);
+        booking.setCheckIn(checkIn);
+        booking.setCheckOut(checkOut);
+        booking.setTotalAmount(quote.total().toBigDecimal());
+        booking.setDiscountAmount(quote.discount().toBigDecimal());
+        booking.setFinalAmount(quote.finalAmount().toBigDecimal());
         booking.setStatus(Booking.Status.ACTIVE);
-        booking.setCreatedAt(Instant.now());
-        booking.setUpdatedAt(Instant.now());
-        booking = bookingRepository.save(booking);
-        // Build response
+        booking.setCreatedAt(now);
+        booking.setUpdatedAt(now);
+        return booking;
+    }
+
+    private BookingResponse toBookingResponse(Booking booking, UUID userId, MembershipLevel membershipLevel) {
         BookingResponse response = new BookingResponse();
         response.setBookingId(booking.getId());
-        response.setUserId(user.getId());
-        response.setRoomId(room.getId());
-        response.setCheckIn(request.getCheckIn());
-        response.setCheckOut(request.getCheckOut());
-        response.setMembershipLevel(BookingResponse.MembershipLevel.valueOf(user.getMembershipLevel().name()));
-        response.setTotalAmount(totalAmount);
-        response.setDiscountAmount(discountAmount);
-        response.setFinalAmount(finalAmount);
+        response.setUserId(userId);
+        response.setRoomId(booking.getRoom().getId());
+        response.setCheckIn(booking.getCheckIn());
+        response.setCheckOut(booking.getCheckOut());
+        response.setMembershipLevel(BookingResponse.MembershipLevel.valueOf(membershipLevel.name()));
+        response.setTotalAmount(booking.getTotalAmount());
+        response.setDiscountAmount(booking.getDiscountAmount());
+        response.setFinalAmount(booking.getFinalAmount());
         response.setStatus(BookingResponse.Status.ACTIVE);
         return response;
     }
 
-    private BigDecimal getDiscountPercent(MembershipLevel level) {
-        switch (level) {
-            case GOLD:
-                return BigDecimal.valueOf(0.10);
-            case DIAMOND:
-                return BigDecimal.valueOf(0.20);
-            default:
-                return BigDecimal.ZERO;
-        }
+    @Transactional
+    public CancellationResponse cancelBooking(UUID bookingId, Instant cancelTime) {
+        return cancelBooking(bookingId, null, cancelTime);
     }
 
-    public CancellationResponse cancelBooking(UUID bookingId, Instant cancelTime) {
+    /**
+     * Cancels a booking owned by {@code userId} (any owner if null). Ownership, status and the check-in
+     * deadline are enforced by a single conditional UPDATE; the booking is only read again to explain why
+     * nothing was updated.
+     *
+     * @throws AccessDeniedException if the booking belongs to another user
+     * @throws IllegalArgumentException if the booking does not exist, is already cancelled or has checked in
+     */
+    @Transactional
+    public CancellationResponse cancelBooking(UUID bookingId, UUID userId, Instant cancelTime) {
         log.info("Cancel booking {}", bookingId);
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingId));
-        if (booking.getStatus() == Booking.Status.CANCELLED) {
-            throw new IllegalArgumentException("Booking is already cancelled");
-        }
         if (cancelTime == null) {
             cancelTime = Instant.now();
         }
-        long hoursBeforeCheckIn = Duration.between(cancelTime, booking.getCheckIn()).toHours();
-        BigDecimal refund;
-        BigDecimal penalty;
-        String message;
-        if (hoursBeforeCheckIn > 48) {
-            refund = booking.getFinalAmount();
-            penalty = BigDecimal.ZERO;
-            message = "Full refund (cancelled more than 48h before check-in)";
-        } else if (hoursBeforeCheckIn >= 24) {
-            refund = booking.getFinalAmount().multiply(BigDecimal.valueOf(0.5));
-            penalty = booking.getFinalAmount().subtract(refund);
-            message = "50% refund (cancelled 24-48h before check-in)";
-        } else if (hoursBeforeCheckIn >= 0) {
-            refund = BigDecimal.ZERO;
-            penalty = booking.getFinalAmount();
-            message = "No refund (cancelled less than 24h before check-in)";
+        Instant checkInAfter = refundPolicy.cancellableCheckInAfter(cancelTime);
+        Optional<CancelledBooking> updated = userId == null
+                ? bookingRepository.cancelActiveBookingOfAnyUser(bookingId, cancelTime, checkInAfter)
+                : bookingRepository.cancelActiveBooking(bookingId, userId, cancelTime, checkInAfter);
+        CancelledBooking cancelled = updated.orElseThrow(() -> cancellationRejected(bookingId, userId));
+        Money finalAmount = Money.of(cancelled.getFinalAmount(), CURRENCY);
+        // The UPDATE only matches bookings some tier still applies to
+        RefundPolicy.Tier tier = refundPolicy.tierFor(cancelTime, cancelled.getCheckIn());
+        Money refund = tier.refund(finalAmount);
+        Money penalty = tier.penalty(finalAmount);
+        String message = tier.message();
+        // The refund itself is paid out asynchronously by RefundProcessor once this transaction commits
+        Cancellation cancellation = new Cancellation();
+        cancellation.setBooking(bookingRepository.getReferenceById(cancelled.getBookingId()));
+        cancellation.setCancelledAt(cancelTime);
+        cancellation.setRefundAmount(refund.toBigDecimal());
+        cancellation.setPenaltyAmount(penalty.toBigDecimal());
+        if (refund.isPositive()) {
+            cancellation.setRefundStatus(Cancellation.RefundStatus.PENDING);
+            cancellation.setNextAttemptAt(cancelTime);
         } else {
-            throw new IllegalArgumentException("Cannot cancel after check-in time");
-        }
-        // Simulate refund processing if refund > 0
-        if (refund.compareTo(BigDecimal.ZERO) > 0) {
-            simulateRefundProcessing(booking, refund);
+            cancellation.setRefundStatus(Cancellation.RefundStatus.COMPLETED);
+            cancellation.setCompletedAt(cancelTime);
         }
-        booking.setStatus(Booking.Status.CANCELLED);
-        booking.setUpdatedAt(cancelTime);
-        bookingRepository.save(booking);
+        cancellationRepository.save(cancellation);
+        eventPublisher.publishEvent(BookingChangedEvent.cancelled(cancelled.getBookingId(), cancelled.getRoomId(), cancelled.getCheckIn(), cancelled.getCheckOut()));
         CancellationResponse response = new CancellationResponse();
-        response.setBookingId(booking.getId());
-        response.setRefundAmount(refund);
-        response.setPenaltyAmount(penalty);
+        response.setBookingId(cancelled.getBookingId());
+        response.setRefundAmount(refund.toBigDecimal());
+        response.setPenaltyAmount(penalty.toBigDecimal());
         response.setMessage(message);
+        response.setRefundStatus(cancellation.getRefundStatus().name());
         return response;
     }
 
+    private RuntimeException cancellationRejected(UUID bookingId, UUID userId) {
+        BookingRow booking = bookingRepository.findRowById(bookingId).orElse(null);
+        if (booking == null) {
+            return new IllegalArgumentException("Booking not found: " + bookingId);
+        }
+        if (userId != null && !booking.userId().equals(userId)) {
+            log.warn("User {} attempted to cancel booking {} not owned by them", userId, bookingId);
+            return new AccessDeniedException("Booking does not belong to the current user");
+        }
+        if (booking.status() == Booking.Status.CANCELLED) {
+            return new IllegalArgumentException("Booking is already cancelled");
+        }
+        return new IllegalArgumentException("Cannot cancel after check-in time");
+    }
+
     public RefundPreviewResponse previewRefund(UUID bookingId, Instant previewTime) {
         log.info("Previewing refund for booking {} at {}", bookingId, previewTime);
         Booking booking = bookingRepository.findById(bookingId)
@@ -135,59 +285,103 @@ public class BookingService {
         if (previewTime == null) {
             previewTime = Instant.now();
         }
-        long hoursBeforeCheckIn = Duration.between(previewTime, booking.getCheckIn()).toHours();
-        BigDecimal refund;
-        BigDecimal penalty;
-        String message;
-        if (hoursBeforeCheckIn > 48) {
-            refund = booking.getFinalAmount();
-            penalty = BigDecimal.ZERO;
-            message = "Full refund (cancelled more than 48h before check-in)";
-        } else if (hoursBeforeCheckIn >= 24) {
-            refund = booking.getFinalAmount().multiply(BigDecimal.valueOf(0.5));
-            penalty = booking.getFinalAmount().subtract(refund);
-            message = "50% refund (cancelled 24-48h before check-in)";
-        } else if (hoursBeforeCheckIn >= 0) {
-            refund = BigDecimal.ZERO;
-            penalty = booking.getFinalAmount();
-            message = "No refund (cancelled less than 24h before check-in)";
-        } else {
+        RefundPolicy.Tier tier = refundPolicy.tierFor(previewTime, booking.getCheckIn());
+        if (tier == null) {
             throw new IllegalArgumentException("Cannot preview refund after check-in time");
         }
         RefundPreviewResponse response = new RefundPreviewResponse();
         response.setBookingId(booking.getId());
-        response.setRefundAmount(refund);
-        response.setPenaltyAmount(penalty);
-        response.setMessage(message);
+        Money paid = Money.of(booking.getFinalAmount(), CURRENCY);
+        response.setRefundAmount(tier.refund(paid).toBigDecimal());
+        response.setPenaltyAmount(tier.penalty(paid).toBigDecimal());
+        response.setMessage(tier.message());
         return response;
     }
 
-    private void simulateRefundProcessing(Booking booking, BigDecimal refundAmount) {
-        // Simulate calling a payment gateway API for refund
-        // In a real system, this would be an HTTP call or SDK integration
-        // Here, we just log the action
-        System.out.printf("Simulating refund of %s to user %s for booking %s\n", refundAmount, booking.getUser().getUsername(), booking.getId());
-    }
-
-    public List<BookingResponse> getBookingsForUser(UUID userId) {
-        log.info("Getting bookings for user {}", userId);
-        List<Booking> bookings = bookingRepository.findAll().stream()
-                .filter(b -> b.getUser().getId().equals(userId))
-                .collect(Collectors.toList());
-        return bookings.stream().map(b -> {
-            BookingResponse r = new BookingResponse();
-            r.setBookingId(b.getId());
-            r.setUserId(b.getUser().getId());
-            r.setRoomId(b.getRoom().getId());
-            r.setCheckIn(b.getCheckIn());
-            r.setCheckOut(b.getCheckOut());
-            r.setMembershipLevel(BookingResponse.MembershipLevel.valueOf(b.getUser().getMembershipLevel().name()));
-            r.setTotalAmount(b.getTotalAmount());
-            r.setDiscountAmount(b.getDiscountAmount());
-            r.setFinalAmount(b.getFinalAmount());
-            r.setStatus(BookingResponse.Status.valueOf(b.getStatus().name()));
-            return r;
-        }).collect(Collectors.toList());
+    /**
+     * Previews refunds for many bookings at once, reading them all with a single query. Results follow the
+     * order of {@code bookingIds}; bookings that cannot be previewed carry no amounts and the reason as
+     * their message. Bookings not owned by {@code userId} (unless null) are reported as not found.
+     */
+    public List<RefundPreviewResponse> previewRefunds(List<UUID> bookingIds, UUID userId, Instant previewTime) {
+        log.info("Previewing refunds for {} bookings at {}", bookingIds.size(), previewTime);
+        if (previewTime == null) {
+            previewTime = Instant.now();
+        }
+        Map<UUID, BookingRow> rows = new HashMap<>();
+        for (BookingRow row : bookingRepository.findRowsByIdIn(new HashSet<>(bookingIds))) {
+            if (userId == null || row.userId().equals(userId)) {
+                rows.put(row.bookingId(), row);
+            }
+        }
+        List<RefundPreviewResponse> responses = new ArrayList<>(bookingIds.size());
+        for (UUID bookingId : bookingIds) {
+            RefundPreviewResponse response = new RefundPreviewResponse();
+            response.setBookingId(bookingId);
+            BookingRow row = rows.get(bookingId);
+            RefundPolicy.Tier tier = row == null ? null : refundPolicy.tierFor(previewTime, row.checkIn());
+            if (row == null) {
+                response.setMessage("Booking not found: " + bookingId);
+            } else if (row.status() == Booking.Status.CANCELLED) {
+                response.setMessage("Booking is already cancelled");
+            } else if (tier == null) {
+                response.setMessage("Cannot preview refund after check-in time");
+            } else {
+                Money paid = Money.of(row.finalAmount(), CURRENCY);
+                response.setRefundAmount(tier.refund(paid).toBigDecimal());
+                response.setPenaltyAmount(tier.penalty(paid).toBigDecimal());
+                response.setMessage(tier.message());
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * Returns one page of a user's bookings, newest check-in first, optionally restricted to one status.
+     * <p>
+     * Pages are keyset-paginated on {@code (checkIn, id)}: the cursor encodes the last row of the previous
+     * page, so each page is a single range scan of the {@code (user_id, check_in DESC, id DESC)} index no
+     * matter how deep the caller pages.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public BookingPageResponse getBookingsForUser(UUID userId, Booking.Status status, String cursor, int limit) {
+        log.info("Getting bookings for user {} (status {}, cursor {}, limit {})", userId, status, cursor, limit);
+        Collection<Booking.Status> statuses = status == null ? EnumSet.allOf(Booking.Status.class) : EnumSet.of(status);
+        // Fetch one extra row to learn whether another page exists
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        List<BookingRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookingRepository.findFirstPageForUser(userId, statuses, pageable);
+        } else {
+            BookingRow.Cursor after = decodeCursor(cursor);
+            rows = bookingRepository.findPageForUserAfter(userId, statuses, after.checkIn(), after.bookingId(), pageable);
+        }
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            BookingRow last = rows.get(limit - 1);
+            nextCursor = encodeCursor(last.checkIn(), last.bookingId());
+        }
+        List<BookingResponse> items = rows.stream().map(this::toBookingResponse).collect(Collectors.toList());
+        return new BookingPageResponse(items, nextCursor);
+    }
+
+    private static String encodeCursor(Instant checkIn, UUID bookingId) {
+        String raw = checkIn.toString() + "|" + bookingId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BookingRow.Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new BookingRow.Cursor(Instant.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     public List<BookingResponse> getAllBookings() {
@@ -211,6 +405,27 @@ public class BookingService {
         return response;
     }
 
+    private BookingResponse toBookingResponse(BookingRow row) {
+        BookingResponse response = new BookingResponse();
+        response.setBookingId(row.bookingId());
+        response.setUserId(row.userId());
+        response.setRoomId(row.roomId());
+        response.setCheckIn(row.checkIn());
+        response.setCheckOut(row.checkOut());
+        response.setMembershipLevel(BookingResponse.MembershipLevel.valueOf(row.membershipLevel().name()));
+        response.setTotalAmount(row.totalAmount());
+        response.setDiscountAmount(row.discountAmount());
+        response.setFinalAmount(row.finalAmount());
+        response.setStatus(BookingResponse.Status.valueOf(row.status().name()));
+        return response;
+    }
+
+    /** Returns the room a booking is currently assigned to. */
+    public UUID getRoomIdOfBooking(UUID bookingId) {
+        return bookingRepository.findRoomIdById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingId));
+    }
+
     public com.codehunter.hotelbooking.model.Booking getBookingById(UUID bookingId) {
         log.info("Getting booking by id {}", bookingId);
         return bookingRepository.findById(bookingId)
@@ -1,27 +1,67 @@
 package com.codehunter.hotelbooking.service;
 
-import com.codehunter.hotelbooking.model.User;
 import com.codehunter.hotelbooking.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
+/**
+ * Resolves HTTP Basic credentials through the unique username index, caching the result per username.
+ * <p>
+ * The cache is bounded in size and entries expire after a TTL, so changes made on another node are picked
+ * up within that window; changes made through {@link UserService} evict the entry immediately. The result is
+ * an {@link AppUserPrincipal}, so authenticated requests carry the domain user's id and membership level.
+ * A fresh copy is returned per call, because Spring Security erases the credentials of the returned object
+ * after authentication. Hit/miss statistics are published as the {@code cache.*} meters tagged
+ * {@code cache=userDetails}.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
-    @Autowired
-    private UserRepository userRepository;
+    private final UserRepository userRepository;
+    private final Cache<String, AppUserPrincipal> cache;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.security.user-cache.ttl-seconds:60}") long ttlSeconds,
+                                    @Value("${app.security.user-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findAll().stream()
-            .filter(u -> u.getUsername().equals(username))
-            .findFirst()
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
-            .password(user.getPassword())
-            .roles(user.getRole().name())
-            .build();
+        AppUserPrincipal cached = cache.get(username, this::load);
+        if (cached == null) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        // Hand out a copy: the caller erases the credentials of the returned principal
+        return new AppUserPrincipal(cached.getId(), cached.getUsername(), cached.getPassword(), cached.getEmail(),
+                cached.getRole(), cached.getMembershipLevel());
+    }
+
+    /** Drops the cached entry of {@code username}; call after the user's credentials or profile change. */
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    private AppUserPrincipal load(String username) {
+        // A null result is not cached, so unknown usernames always hit the database
+        return userRepository.findByUsername(username)
+                .map(AppUserPrincipal::from)
+                .orElse(null);
     }
 }
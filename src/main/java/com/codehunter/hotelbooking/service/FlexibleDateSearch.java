@@ -0,0 +1,76 @@
+package com.codehunter.hotelbooking.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Finds, for one room at a time, every start night in a window on which a stay of a fixed length fits.
+ * <p>
+ * The window is given as the start instants of consecutive nights. A room's stays are first projected onto
+ * those nights, using the same overlap rule as {@link RoomAvailabilityIndex#findAvailableRooms} for a
+ * search from one night start to the next, so a stay fits exactly when a plain search for its dates would
+ * return the room. The free nights are then scanned once as runs: a run of {@code r} free nights admits
+ * the {@code r - nights + 1} starts at its front. One pass per room replaces one search per shifted date.
+ */
+final class FlexibleDateSearch {
+    private final long[] nightStarts;
+    private final int nights;
+    private final int startNights;
+
+    /**
+     * @param nightStarts start instants (epoch millis) of the nights in the window, followed by the end of
+     *                    the last night
+     * @param nights      length of the stay
+     * @param startNights number of leading nights on which a stay may start
+     */
+    FlexibleDateSearch(long[] nightStarts, int nights, int startNights) {
+        if (nightStarts.length != startNights + nights) {
+            throw new IllegalArgumentException("Window must cover the last start night plus the stay");
+        }
+        this.nightStarts = nightStarts;
+        this.nights = nights;
+        this.startNights = startNights;
+    }
+
+    /** Start night offsets on which the stay fits in a room with {@code stays}. */
+    BitSet feasibleStarts(RoomIntervals stays) {
+        int windowNights = nightStarts.length - 1;
+        BitSet occupied = occupiedNights(nightStarts, stays);
+        BitSet starts = new BitSet(startNights);
+        int runStart = occupied.nextClearBit(0);
+        while (runStart < startNights) {
+            int nextTaken = occupied.nextSetBit(runStart);
+            int runEnd = nextTaken < 0 ? windowNights : nextTaken;
+            int lastFit = Math.min(runEnd - nights, startNights - 1);
+            if (lastFit >= runStart) {
+                starts.set(runStart, lastFit + 1);
+            }
+            runStart = occupied.nextClearBit(runEnd);
+        }
+        return starts;
+    }
+
+    /**
+     * Nights of the window, given by their start instants followed by the end of the last night, that
+     * {@code stays} make unavailable to a search for just that night.
+     */
+    static BitSet occupiedNights(long[] nightStarts, RoomIntervals stays) {
+        int windowNights = nightStarts.length - 1;
+        BitSet occupied = new BitSet(windowNights);
+        for (int i = 0; i < stays.size(); i++) {
+            // Night d is taken if the stay meets the closed range [nightStarts[d], nightStarts[d + 1]]
+            int first = Math.max(lowerBound(nightStarts, stays.startAt(i)) - 1, 0);
+            int last = Math.min(lowerBound(nightStarts, stays.endAt(i)) - 1, windowNights - 1);
+            if (first <= last) {
+                occupied.set(first, last + 1);
+            }
+        }
+        return occupied;
+    }
+
+    /** Index of the first night start at or after {@code millis}. */
+    private static int lowerBound(long[] nightStarts, long millis) {
+        int idx = Arrays.binarySearch(nightStarts, millis);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+}
@@ -0,0 +1,11 @@
+package com.codehunter.hotelbooking.service;
+
+/**
+ * How {@link RoomService#findFlexibleDates} groups the alternative dates it returns.
+ */
+public enum FlexibleGrouping {
+    /** Best start dates for each room. */
+    ROOM,
+    /** Best start dates for each room type, with the number of rooms free on each. */
+    TYPE
+}
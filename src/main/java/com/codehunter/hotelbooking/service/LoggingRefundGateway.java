@@ -0,0 +1,17 @@
+package com.codehunter.hotelbooking.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Local stand-in for a payment provider: accepts every refund and only logs it.
+ */
+@Slf4j
+public class LoggingRefundGateway implements RefundGateway {
+    @Override
+    public void refund(UUID refundId, UUID bookingId, BigDecimal amount) {
+        log.info("Simulating refund {} of {} for booking {}", refundId, amount, bookingId);
+    }
+}
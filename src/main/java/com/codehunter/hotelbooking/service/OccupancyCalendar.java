@@ -0,0 +1,395 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.ActiveStay;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.StayChange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Room &times; night occupancy matrix stored off-heap in a memory-mapped file.
+ * <p>
+ * Every night inside the rolling horizon owns one bitset with a bit per room slot; a set bit means the
+ * room is occupied by an ACTIVE booking that night. Availability for a stay is the complement of the
+ * word-wise OR of the bitsets of its nights. Nights live in a ring (slot = epoch day mod horizon) tagged
+ * with the epoch day they currently hold, so the window rolls forward by recycling past nights.
+ * <p>
+ * File layout: a fixed header, the room slot table (one UUID per slot), the night tags and the bitsets.
+ * On restart the file is remapped and only bookings changed since the persisted watermark are replayed;
+ * the matrix is rebuilt from the {@code bookings} table only if the file is missing or its geometry no
+ * longer matches the configuration.
+ * <p>
+ * Cancellations and replayed changes never clear bits directly: the affected rooms' nights are re-derived
+ * from their ACTIVE stays, so a cancellation applied after a rebooking of the same nights, or a booking
+ * moved to another room while the application was down, cannot leave the matrix wrong. The
+ * {@link AvailabilityCache} is invalidated after every applied change.
+ * <p>
+ * Nights are calendar dates in the system time zone: a stay occupies the nights from its check-in date
+ * up to, but excluding, its check-out date.
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression("'${app.availability.mode:INDEX}' == 'BITSET' or ${app.availability.bitset.enabled:false}")
+public class OccupancyCalendar {
+    private static final int MAGIC = 0x4F434331; // "OCC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int ROOM_COUNT_OFFSET = 16;
+    private static final int WATERMARK_OFFSET = 24;
+    private static final long NO_NIGHT = Long.MIN_VALUE;
+    // Replay overlap on restart, covering transactions that were in flight when the watermark was taken
+    private static final Duration REPLAY_MARGIN = Duration.ofMinutes(5);
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final Path file;
+    private final int roomCapacity;
+    private final int horizonNights;
+    private final int wordsPerNight;
+    private final long roomTableOffset;
+    private final long nightTagOffset;
+    private final long bitsetOffset;
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    private final Map<UUID, Integer> slotsByRoom = new HashMap<>();
+    private UUID[] roomsBySlot;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private volatile boolean ready;
+    private long windowStartDay = NO_NIGHT;
+    private List<BookingChangedEvent> pendingEvents;
+    private AvailabilityCache availabilityCache;
+
+    public OccupancyCalendar(BookingRepository bookingRepository,
+                             RoomRepository roomRepository,
+                             @Value("${app.availability.bitset.file:data/occupancy.bin}") String file,
+                             @Value("${app.availability.bitset.room-capacity:65536}") int roomCapacity,
+                             @Value("${app.availability.bitset.horizon-days:730}") int horizonNights) {
+        this.bookingRepository = bookingRepository;
+        this.roomRepository = roomRepository;
+        this.file = Path.of(file);
+        this.wordsPerNight = (roomCapacity + 63) / 64;
+        this.roomCapacity = wordsPerNight * 64;
+        this.horizonNights = horizonNights;
+        this.roomTableOffset = HEADER_BYTES;
+        this.nightTagOffset = roomTableOffset + (long) this.roomCapacity * 16;
+        this.bitsetOffset = nightTagOffset + (long) horizonNights * 8;
+    }
+
+    @Autowired(required = false)
+    void setAvailabilityCache(AvailabilityCache availabilityCache) {
+        this.availabilityCache = availabilityCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void open() throws IOException {
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+        }
+        Instant loadStarted = Instant.now();
+        long fileSize = bitsetOffset + (long) horizonNights * wordsPerNight * 8;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        boolean reuse = Files.exists(file) && Files.size(file) == fileSize;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        roomsBySlot = new UUID[roomCapacity];
+        synchronized (this) {
+            if (reuse && headerMatches()) {
+                readRoomTable();
+                roomRepository.findAll().forEach(room -> slotFor(room.getId()));
+                Instant since = Instant.ofEpochMilli(buffer.getLong(WATERMARK_OFFSET)).minus(REPLAY_MARGIN);
+                List<StayChange> changes = bookingRepository.findStayChangesSince(since);
+                replay(changes);
+                log.info("Occupancy calendar remapped from {}, replayed {} booking changes since {}", file, changes.size(), since);
+            } else {
+                rebuild();
+            }
+            rollWindow(LocalDate.now(zoneId).toEpochDay());
+            buffer.putLong(WATERMARK_OFFSET, loadStarted.toEpochMilli());
+            pendingEvents.forEach(this::apply);
+            pendingEvents = null;
+            ready = true;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        ready = false;
+        if (buffer != null) {
+            buffer.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        } else if (buffer != null) {
+            apply(event);
+            buffer.putLong(WATERMARK_OFFSET, Instant.now().toEpochMilli());
+        }
+        if (availabilityCache != null) {
+            availabilityCache.invalidate(event.checkIn(), event.checkOut());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the ids of rooms with no occupied night in {@code [fromDate, toDate)} (at least one night),
+     * or empty if any of those nights falls outside the calendar horizon and the caller must fall back to
+     * another source.
+     */
+    public Optional<List<UUID>> findAvailableRoomIds(LocalDate fromDate, LocalDate toDate) {
+        long first = fromDate.toEpochDay();
+        long last = Math.max(toDate.toEpochDay(), first + 1);
+        long[] occupied = new long[wordsPerNight];
+        int roomCount;
+        synchronized (this) {
+            rollWindow(LocalDate.now(zoneId).toEpochDay());
+            if (first < windowStartDay || last > windowStartDay + horizonNights) {
+                return Optional.empty();
+            }
+            roomCount = slotsByRoom.size();
+            int usedWords = (roomCount + 63) / 64;
+            for (long day = first; day < last; day++) {
+                long base = bitsetOffset + (long) slotOf(day) * wordsPerNight * 8;
+                for (int w = 0; w < usedWords; w++) {
+                    occupied[w] |= buffer.getLong((int) (base + w * 8L));
+                }
+            }
+        }
+        List<UUID> available = new ArrayList<>();
+        for (int slot = 0; slot < roomCount; slot++) {
+            if ((occupied[slot >>> 6] & (1L << slot)) == 0) {
+                available.add(roomsBySlot[slot]);
+            }
+        }
+        return Optional.of(available);
+    }
+
+    private boolean headerMatches() {
+        return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+                && buffer.getInt(8) == roomCapacity && buffer.getInt(12) == horizonNights;
+    }
+
+    private void readRoomTable() {
+        int roomCount = buffer.getInt(ROOM_COUNT_OFFSET);
+        for (int slot = 0; slot < roomCount; slot++) {
+            int pos = (int) (roomTableOffset + slot * 16L);
+            UUID roomId = new UUID(buffer.getLong(pos), buffer.getLong(pos + 8));
+            roomsBySlot[slot] = roomId;
+            slotsByRoom.put(roomId, slot);
+        }
+        for (int slot = 0; slot < horizonNights; slot++) {
+            long day = buffer.getLong((int) (nightTagOffset + slot * 8L));
+            if (day != NO_NIGHT && (windowStartDay == NO_NIGHT || day < windowStartDay)) {
+                windowStartDay = day;
+            }
+        }
+    }
+
+    private void rebuild() {
+        log.info("Building occupancy calendar {} ({} room slots x {} nights)", file, roomCapacity, horizonNights);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, roomCapacity);
+        buffer.putInt(12, horizonNights);
+        buffer.putInt(ROOM_COUNT_OFFSET, 0);
+        slotsByRoom.clear();
+        for (int slot = 0; slot < horizonNights; slot++) {
+            buffer.putLong((int) (nightTagOffset + slot * 8L), NO_NIGHT);
+        }
+        for (Room room : roomRepository.findAll()) {
+            slotFor(room.getId());
+        }
+        windowStartDay = NO_NIGHT;
+    }
+
+    /**
+     * Moves the window so it starts at {@code today}, recycling the slots of past nights and filling
+     * newly exposed nights from the bookings table.
+     */
+    private void rollWindow(long today) {
+        if (windowStartDay == today) {
+            return;
+        }
+        long firstNew = Long.MAX_VALUE;
+        for (long day = today; day < today + horizonNights; day++) {
+            int slot = slotOf(day);
+            int tagPos = (int) (nightTagOffset + slot * 8L);
+            if (buffer.getLong(tagPos) != day) {
+                clearNight(slot);
+                buffer.putLong(tagPos, day);
+                firstNew = Math.min(firstNew, day);
+            }
+        }
+        windowStartDay = today;
+        if (firstNew != Long.MAX_VALUE) {
+            Instant from = LocalDate.ofEpochDay(firstNew).atStartOfDay(zoneId).toInstant();
+            Instant to = LocalDate.ofEpochDay(today + horizonNights).atStartOfDay(zoneId).toInstant();
+            for (ActiveStay stay : bookingRepository.findActiveStaysInRange(from, to)) {
+                mark(stay.roomId(), stay.checkIn(), stay.checkOut());
+            }
+        }
+    }
+
+    /**
+     * Recomputes every night touched by the changes for the changes' rooms and for any room occupying one
+     * of those nights, which covers the old room of a booking that has since been moved.
+     */
+    private void replay(List<StayChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Set<UUID> roomIds = new HashSet<>();
+        BitSet nights = new BitSet(horizonNights);
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (StayChange change : changes) {
+            roomIds.add(change.roomId());
+            long checkInDay = epochDay(change.checkIn());
+            long checkOutDay = epochDay(change.checkOut());
+            for (long day = checkInDay; day < checkOutDay; day++) {
+                int nightSlot = slotOf(day);
+                if (buffer.getLong((int) (nightTagOffset + nightSlot * 8L)) == day) {
+                    nights.set(nightSlot);
+                }
+            }
+            first = Math.min(first, checkInDay);
+            last = Math.max(last, checkOutDay);
+        }
+        int usedWords = (slotsByRoom.size() + 63) / 64;
+        long[] occupied = new long[usedWords];
+        for (int nightSlot = nights.nextSetBit(0); nightSlot >= 0; nightSlot = nights.nextSetBit(nightSlot + 1)) {
+            long base = bitsetOffset + (long) nightSlot * wordsPerNight * 8;
+            for (int w = 0; w < usedWords; w++) {
+                occupied[w] |= buffer.getLong((int) (base + w * 8L));
+            }
+        }
+        for (int slot = 0; slot < slotsByRoom.size(); slot++) {
+            if ((occupied[slot >>> 6] & (1L << slot)) != 0) {
+                roomIds.add(roomsBySlot[slot]);
+            }
+        }
+        recompute(roomIds, first, last);
+    }
+
+    private void apply(BookingChangedEvent event) {
+        if (event.type() == BookingChangedEvent.Type.CREATED) {
+            mark(event.roomId(), event.checkIn(), event.checkOut());
+        } else {
+            // Another ACTIVE stay may hold these nights already if the listeners ran out of commit order
+            recompute(Set.of(event.roomId()), epochDay(event.checkIn()), epochDay(event.checkOut()));
+        }
+    }
+
+    /** Re-derives the rooms' nights in {@code [firstDay, lastDay)} from the ACTIVE stays in the database. */
+    private void recompute(Set<UUID> roomIds, long firstDay, long lastDay) {
+        if (roomIds.isEmpty() || firstDay >= lastDay) {
+            return;
+        }
+        for (UUID roomId : roomIds) {
+            int slot = slotFor(roomId);
+            if (slot >= 0) {
+                setNights(slot, firstDay, lastDay, false);
+            }
+        }
+        Instant from = LocalDate.ofEpochDay(firstDay).atStartOfDay(zoneId).toInstant();
+        Instant to = LocalDate.ofEpochDay(lastDay).atStartOfDay(zoneId).toInstant();
+        for (ActiveStay stay : bookingRepository.findActiveStaysForRoomsInRange(roomIds, from, to)) {
+            mark(stay.roomId(), stay.checkIn(), stay.checkOut());
+        }
+    }
+
+    private void mark(UUID roomId, Instant checkIn, Instant checkOut) {
+        int slot = slotFor(roomId);
+        if (slot >= 0) {
+            setNights(slot, epochDay(checkIn), epochDay(checkOut), true);
+        }
+    }
+
+    private void setNights(int slot, long first, long last, boolean occupied) {
+        int wordOffset = (slot >>> 6) * 8;
+        long bit = 1L << slot;
+        for (long day = first; day < last; day++) {
+            int nightSlot = slotOf(day);
+            if (buffer.getLong((int) (nightTagOffset + nightSlot * 8L)) != day) {
+                continue; // outside the window; picked up when the night rolls in
+            }
+            int pos = (int) (bitsetOffset + (long) nightSlot * wordsPerNight * 8 + wordOffset);
+            long word = buffer.getLong(pos);
+            buffer.putLong(pos, occupied ? word | bit : word & ~bit);
+        }
+    }
+
+    private int slotFor(UUID roomId) {
+        Integer slot = slotsByRoom.get(roomId);
+        if (slot != null) {
+            return slot;
+        }
+        int next = slotsByRoom.size();
+        if (next >= roomCapacity) {
+            log.error("Occupancy calendar is full ({} rooms); room {} is not tracked", roomCapacity, roomId);
+            return -1;
+        }
+        int pos = (int) (roomTableOffset + next * 16L);
+        buffer.putLong(pos, roomId.getMostSignificantBits());
+        buffer.putLong(pos + 8, roomId.getLeastSignificantBits());
+        buffer.putInt(ROOM_COUNT_OFFSET, next + 1);
+        roomsBySlot[next] = roomId;
+        slotsByRoom.put(roomId, next);
+        return next;
+    }
+
+    private void clearNight(int nightSlot) {
+        int base = (int) (bitsetOffset + (long) nightSlot * wordsPerNight * 8);
+        for (int w = 0; w < wordsPerNight; w++) {
+            buffer.putLong(base + w * 8, 0L);
+        }
+    }
+
+    private long epochDay(Instant instant) {
+        return LocalDate.ofInstant(instant, zoneId).toEpochDay();
+    }
+
+    private int slotOf(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) horizonNights);
+    }
+}
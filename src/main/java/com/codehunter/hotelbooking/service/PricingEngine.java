@@ -0,0 +1,250 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Money;
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.model.RoomTypeRate;
+import com.codehunter.hotelbooking.model.User.MembershipLevel;
+import com.codehunter.hotelbooking.repository.RoomTypeRateRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prices stays from the room's nightly price, the seasonal rates of its room type and the guest's
+ * membership discount.
+ * <p>
+ * Every room type has a {@link RateTable}: the rate factor of each night in a rolling horizon, in basis
+ * points of {@code pricePerNight}, stored as a prefix sum indexed by epoch day. The price of a stay inside
+ * the horizon is one subtraction, {@code pricePerNight * (prefix[checkOut] - prefix[checkIn])}, whatever
+ * its length; stays reaching outside the horizon fall back to summing their nights from the seasons.
+ * <p>
+ * Tables are built on first use. Replacing the seasons of a room type drops only that type's table once
+ * the change has committed, and the next quote rebuilds it. A table is also rebuilt once half of its
+ * horizon has passed, so the window keeps rolling forward. Nights are UTC calendar dates, matching the
+ * night count used by {@link BookingService}; Friday and Saturday nights are weekend nights.
+ */
+@Service
+@Slf4j
+public class PricingEngine {
+    private final RoomTypeRateRepository rateRepository;
+    private final int horizonDays;
+    private final Map<MembershipLevel, Integer> discountBps = new EnumMap<>(MembershipLevel.class);
+    private final Map<String, RateTable> tables = new ConcurrentHashMap<>();
+    // Bumped by every invalidation, so a table built from seasons read before it is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public PricingEngine(RoomTypeRateRepository rateRepository,
+                         @Value("${app.pricing.horizon-days:730}") int horizonDays,
+                         @Value("${app.pricing.discount-bps.classic:0}") int classicDiscountBps,
+                         @Value("${app.pricing.discount-bps.gold:1000}") int goldDiscountBps,
+                         @Value("${app.pricing.discount-bps.diamond:2000}") int diamondDiscountBps) {
+        if (horizonDays < 1) {
+            throw new IllegalArgumentException("app.pricing.horizon-days must be positive");
+        }
+        this.rateRepository = rateRepository;
+        this.horizonDays = horizonDays;
+        discountBps.put(MembershipLevel.CLASSIC, requireBps(classicDiscountBps));
+        discountBps.put(MembershipLevel.GOLD, requireBps(goldDiscountBps));
+        discountBps.put(MembershipLevel.DIAMOND, requireBps(diamondDiscountBps));
+    }
+
+    public record Quote(Money total, Money discount, Money finalAmount) {
+    }
+
+    /**
+     * Prices {@code nights} nights starting on the UTC date of {@code checkIn}.
+     */
+    public Quote quote(Room room, Instant checkIn, long nights, MembershipLevel level) {
+        Money nightly = Money.of(room.getPricePerNight(), BookingService.CURRENCY);
+        long firstNight = LocalDate.ofInstant(checkIn, ZoneOffset.UTC).toEpochDay();
+        long factorBps = room.getType() == null
+                ? Math.multiplyExact(nights, (long) Money.BPS_SCALE)
+                : table(room.getType()).sumBps(firstNight, nights);
+        Money total = nightly.percentBps(factorBps);
+        Money discount = total.percentBps(discountBps(level));
+        return new Quote(total, discount, total.minus(discount));
+    }
+
+    /**
+     * Undiscounted price of each of {@code nights} nights starting on {@code firstNight}, each rounded on
+     * its own; a quote for the same stay rounds only its total.
+     */
+    public Money[] nightlyPrices(Room room, LocalDate firstNight, int nights) {
+        Money nightly = Money.of(room.getPricePerNight(), BookingService.CURRENCY);
+        RateTable rates = room.getType() == null ? null : table(room.getType());
+        Money[] prices = new Money[nights];
+        long day = firstNight.toEpochDay();
+        for (int i = 0; i < nights; i++) {
+            prices[i] = rates == null ? nightly : nightly.percentBps(rates.bpsOn(day + i));
+        }
+        return prices;
+    }
+
+    /** Membership discount in basis points. */
+    public int discountBps(MembershipLevel level) {
+        return discountBps.get(level);
+    }
+
+    public Map<MembershipLevel, Integer> discountsByLevel() {
+        return Collections.unmodifiableMap(discountBps);
+    }
+
+    public List<RoomTypeRate> getRates(String roomType) {
+        return rateRepository.findByRoomTypeOrderByStartDate(roomType);
+    }
+
+    /**
+     * Replaces all seasons of {@code roomType}. Seasons must not overlap; the type's price table is rebuilt
+     * on the next quote after this transaction commits.
+     */
+    @Transactional
+    public List<RoomTypeRate> replaceRates(String roomType, List<RoomTypeRate> rates) {
+        List<RoomTypeRate> sorted = new ArrayList<>(rates);
+        sorted.sort(Comparator.comparing(RoomTypeRate::getStartDate));
+        for (int i = 0; i < sorted.size(); i++) {
+            RoomTypeRate rate = sorted.get(i);
+            if (!rate.getEndDate().isAfter(rate.getStartDate())) {
+                throw new IllegalArgumentException("Season end date must be after its start date: " + rate.getStartDate());
+            }
+            if (rate.getWeekdayBps() <= 0 || rate.getWeekendBps() <= 0) {
+                throw new IllegalArgumentException("Season rates must be positive: " + rate.getStartDate());
+            }
+            if (i > 0 && rate.getStartDate().isBefore(sorted.get(i - 1).getEndDate())) {
+                throw new IllegalArgumentException("Seasons overlap: " + sorted.get(i - 1).getStartDate() + " and " + rate.getStartDate());
+            }
+            rate.setRoomType(roomType);
+        }
+        rateRepository.deleteByRoomType(roomType);
+        List<RoomTypeRate> saved = rateRepository.saveAll(sorted);
+        log.info("Replaced rates of room type {} with {} seasons", roomType, saved.size());
+        invalidateAfterCommit(roomType);
+        return saved;
+    }
+
+    private void invalidateAfterCommit(String roomType) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(roomType);
+                }
+            });
+        } else {
+            invalidate(roomType);
+        }
+    }
+
+    private void invalidate(String roomType) {
+        generation.incrementAndGet();
+        tables.remove(roomType);
+    }
+
+    RateTable table(String roomType) {
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        RateTable existing = tables.get(roomType);
+        if (existing != null && today - existing.firstDay <= horizonDays / 2) {
+            return existing;
+        }
+        // Loaded outside the map so the query does not block other room types; racing builds are harmless
+        long before = generation.get();
+        log.debug("Building {}-night price table for room type {}", horizonDays, roomType);
+        RateTable built = new RateTable(rateRepository.findByRoomTypeOrderByStartDate(roomType), today - 1, horizonDays);
+        if (generation.get() == before) {
+            tables.put(roomType, built);
+            // An invalidation that started after the check above may have missed this table
+            if (generation.get() != before) {
+                tables.remove(roomType, built);
+            }
+        }
+        return built;
+    }
+
+    private static int requireBps(int bps) {
+        if (bps < 0 || bps > Money.BPS_SCALE) {
+            throw new IllegalArgumentException("Discount must be between 0 and " + Money.BPS_SCALE + " bps: " + bps);
+        }
+        return bps;
+    }
+
+    /**
+     * Nightly rate factors of one room type. {@code prefix[i]} is the sum of the factors of the nights
+     * {@code firstDay} to {@code firstDay + i - 1}.
+     */
+    static final class RateTable {
+        private final long[] seasonStarts;
+        private final long[] seasonEnds;
+        private final int[] weekdayBps;
+        private final int[] weekendBps;
+        private final long firstDay;
+        private final long[] prefix;
+
+        RateTable(List<RoomTypeRate> seasons, long firstDay, int days) {
+            int n = seasons.size();
+            seasonStarts = new long[n];
+            seasonEnds = new long[n];
+            weekdayBps = new int[n];
+            weekendBps = new int[n];
+            for (int i = 0; i < n; i++) {
+                RoomTypeRate season = seasons.get(i);
+                seasonStarts[i] = season.getStartDate().toEpochDay();
+                seasonEnds[i] = season.getEndDate().toEpochDay();
+                weekdayBps[i] = season.getWeekdayBps();
+                weekendBps[i] = season.getWeekendBps();
+            }
+            this.firstDay = firstDay;
+            prefix = new long[days + 1];
+            for (int i = 0; i < days; i++) {
+                prefix[i + 1] = prefix[i] + bpsOn(firstDay + i);
+            }
+        }
+
+        long sumBps(long fromDay, long nights) {
+            if (seasonStarts.length == 0) {
+                return Math.multiplyExact(nights, (long) Money.BPS_SCALE);
+            }
+            long from = fromDay - firstDay;
+            long to = from + nights;
+            if (from >= 0 && to < prefix.length) {
+                return prefix[(int) to] - prefix[(int) from];
+            }
+            long sum = 0;
+            for (long day = fromDay; day < fromDay + nights; day++) {
+                sum += bpsOn(day);
+            }
+            return sum;
+        }
+
+        int bpsOn(long day) {
+            int i = Arrays.binarySearch(seasonStarts, day);
+            if (i < 0) {
+                i = -i - 2; // last season starting before this night
+            }
+            if (i < 0 || day >= seasonEnds[i]) {
+                return Money.BPS_SCALE;
+            }
+            return isWeekendNight(day) ? weekendBps[i] : weekdayBps[i];
+        }
+
+        static boolean isWeekendNight(long epochDay) {
+            // Epoch day 0 was a Thursday; Monday = 0 ... Friday = 4, Saturday = 5
+            long dayOfWeek = Math.floorMod(epochDay + 3, 7L);
+            return dayOfWeek == 4 || dayOfWeek == 5;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.codehunter.hotelbooking.service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Payment provider that pays refunds back to the guest. Implementations may block; they are called from the
+ * refund worker, never from a request thread.
+ */
+public interface RefundGateway {
+    /**
+     * Refunds {@code amount} for {@code bookingId}. Retried calls carry the same {@code refundId}, which
+     * implementations should pass on as the provider's idempotency key.
+     *
+     * @throws RuntimeException if the refund was not accepted; the attempt will be retried
+     */
+    void refund(UUID refundId, UUID bookingId, BigDecimal amount);
+}
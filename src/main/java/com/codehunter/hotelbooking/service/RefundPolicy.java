@@ -0,0 +1,109 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cancellation refund tiers, shared by cancellation and refund preview.
+ * <p>
+ * Tiers come from {@code app.refund.policy.tiers} as {@code minHours|refundRate|message} entries separated by
+ * {@code ;}. A tier applies when the whole hours left before check-in ({@link Duration#toHours()}) are at
+ * least its {@code minHours}. They are compiled once into an ascending threshold array plus preallocated
+ * {@link Tier} objects, so a lookup is a binary search that allocates nothing.
+ */
+@Component
+public class RefundPolicy {
+    static final String DEFAULT_TIERS =
+            "49|1|Full refund (cancelled more than 48h before check-in);" +
+            "24|0.5|50% refund (cancelled 24-48h before check-in);" +
+            "0|0|No refund (cancelled less than 24h before check-in)";
+
+    private final long[] thresholds;
+    private final Tier[] tiers;
+
+    public RefundPolicy(@Value("${app.refund.policy.tiers:}") String spec) {
+        List<Tier> parsed = new ArrayList<>();
+        for (String entry : (spec == null || spec.isBlank() ? DEFAULT_TIERS : spec).split(";")) {
+            String[] parts = entry.trim().split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid refund tier '" + entry + "', expected minHours|refundRate|message");
+            }
+            BigDecimal rate = new BigDecimal(parts[1].trim());
+            if (rate.signum() < 0 || rate.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("Refund rate must be between 0 and 1: " + entry);
+            }
+            // Rates are compiled to whole basis points; finer rates are rejected rather than rounded
+            int refundBps;
+            try {
+                refundBps = rate.movePointRight(4).intValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Refund rate must be a whole number of basis points: " + entry);
+            }
+            parsed.add(new Tier(Long.parseLong(parts[0].trim()), refundBps, parts[2].trim()));
+        }
+        parsed.sort(Comparator.comparingLong(Tier::minHours));
+        this.tiers = parsed.toArray(new Tier[0]);
+        this.thresholds = new long[tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+            if (i > 0 && tiers[i].minHours() == tiers[i - 1].minHours()) {
+                throw new IllegalArgumentException("Duplicate refund tier for " + tiers[i].minHours() + "h");
+            }
+            thresholds[i] = tiers[i].minHours();
+        }
+    }
+
+    /**
+     * Returns the tier for a booking checking in at {@code checkIn} when cancelled at {@code at}, or null if
+     * it can no longer be cancelled.
+     */
+    public Tier tierFor(Instant at, Instant checkIn) {
+        return tierFor(Duration.between(at, checkIn).toHours());
+    }
+
+    public Tier tierFor(long hoursBeforeCheckIn) {
+        int i = Arrays.binarySearch(thresholds, hoursBeforeCheckIn);
+        if (i < 0) {
+            // Insertion point - 1 is the highest threshold below the value
+            i = -i - 2;
+        }
+        return i < 0 ? null : tiers[i];
+    }
+
+    /**
+     * Returns the instant a check-in must be strictly after for a booking to still be cancellable at
+     * {@code at}, i.e. for some tier to apply.
+     */
+    public Instant cancellableCheckInAfter(Instant at) {
+        long lowest = thresholds[0];
+        // toHours() truncates toward zero: for h > 0 it needs a full h hours, for h <= 0 anything above h - 1 hours
+        return lowest > 0
+                ? at.plus(Duration.ofHours(lowest)).minusNanos(1_000)
+                : at.plus(Duration.ofHours(lowest - 1));
+    }
+
+    /**
+     * One refund tier.
+     *
+     * @param refundBps share of the paid amount refunded, in basis points (10_000 = full refund)
+     */
+    public record Tier(long minHours, int refundBps, String message) {
+        /** The refunded share of {@code paid}, rounded half-up to the minor unit. */
+        public Money refund(Money paid) {
+            return paid.percentBps(refundBps);
+        }
+
+        /** What is kept: {@code paid} minus the refund, so the two always add up to {@code paid}. */
+        public Money penalty(Money paid) {
+            return paid.minus(refund(paid));
+        }
+    }
+}
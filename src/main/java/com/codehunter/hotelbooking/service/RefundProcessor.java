@@ -0,0 +1,116 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.repository.CancellationRepository;
+import com.codehunter.hotelbooking.repository.RefundClaim;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drains PENDING refunds written by {@link BookingService#cancelBooking} against the {@link RefundGateway},
+ * so cancel latency does not depend on the payment provider.
+ * <p>
+ * Each poll claims a batch of due refunds with {@code FOR UPDATE SKIP LOCKED}, which lets several nodes
+ * share the queue, and calls the gateway for all of them concurrently on virtual threads. A successful
+ * refund becomes COMPLETED. A failed one is retried with exponential backoff and becomes FAILED after
+ * {@code app.refund.max-attempts} attempts.
+ */
+@Service
+@Slf4j
+public class RefundProcessor {
+    private final CancellationRepository cancellationRepository;
+    private final RefundGateway refundGateway;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RefundProcessor(CancellationRepository cancellationRepository,
+                           RefundGateway refundGateway,
+                           @Value("${app.refund.batch-size:50}") int batchSize,
+                           @Value("${app.refund.lease-seconds:120}") long leaseSeconds,
+                           @Value("${app.refund.max-attempts:6}") int maxAttempts,
+                           @Value("${app.refund.backoff-base-seconds:30}") long backoffBaseSeconds,
+                           @Value("${app.refund.backoff-max-seconds:3600}") long backoffMaxSeconds) {
+        this.cancellationRepository = cancellationRepository;
+        this.refundGateway = refundGateway;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+    }
+
+    @Scheduled(fixedDelayString = "${app.refund.poll-interval-ms:5000}")
+    public void processDueRefunds() {
+        List<RefundClaim> claims;
+        do {
+            Instant now = Instant.now();
+            claims = cancellationRepository.claimDueRefunds(now, now.plus(lease), batchSize);
+            if (claims.isEmpty()) {
+                return;
+            }
+            log.info("Processing {} due refunds", claims.size());
+            List<Callable<Void>> tasks = new ArrayList<>(claims.size());
+            for (RefundClaim claim : claims) {
+                tasks.add(() -> {
+                    process(claim);
+                    return null;
+                });
+            }
+            try {
+                workers.invokeAll(tasks);
+            } catch (InterruptedException e) {
+                // Unfinished claims become due again when their lease runs out
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } while (claims.size() == batchSize);
+    }
+
+    void process(RefundClaim claim) {
+        try {
+            refundGateway.refund(claim.getId(), claim.getBookingId(), claim.getRefundAmount());
+            cancellationRepository.markRefundCompleted(claim.getId(), Instant.now());
+            log.info("Refund {} for booking {} completed", claim.getId(), claim.getBookingId());
+        } catch (RuntimeException e) {
+            String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+            if (claim.getAttempts() >= maxAttempts) {
+                cancellationRepository.markRefundFailed(claim.getId(), error);
+                log.error("Refund {} for booking {} failed after {} attempts: {}", claim.getId(), claim.getBookingId(), claim.getAttempts(), error);
+            } else {
+                Instant retryAt = Instant.now().plus(backoff(claim.getAttempts()));
+                cancellationRepository.scheduleRefundRetry(claim.getId(), retryAt, error);
+                log.warn("Refund {} for booking {} failed (attempt {}), retrying at {}: {}", claim.getId(), claim.getBookingId(), claim.getAttempts(), retryAt, error);
+            }
+        }
+    }
+
+    /** backoffBase * 2^(attempt - 1), capped at backoffMax */
+    Duration backoff(int attempt) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        Duration delay = backoffBase.multipliedBy(1L << shift);
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
@@ -0,0 +1,254 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.dto.HoldResponse;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived holds on a room for a stay, taken while the guest completes checkout.
+ * <p>
+ * A hold counts as occupancy for searches and for everyone else's bookings until it is converted into a
+ * booking, released, or expires. Holds live in memory: a map by hold id makes conversion a single lookup,
+ * per-room {@link RoomIntervals} answer overlap probes with one binary search, and a {@link DelayQueue}
+ * orders holds by expiry so one periodic sweep drains every expired hold in a batch. Converted or
+ * released holds are left in the queue and skipped when they surface.
+ * <p>
+ * Holds are local to this node and do not survive a restart; the exclusion constraint on bookings
+ * remains the guard against double-selling across nodes. Creating a hold must happen under the room's
+ * {@link BookingCoordinator} lock, like a booking.
+ * <p>
+ * So that one user cannot take rooms off the market, each user may have a limited number of holds at a
+ * time, and a hold may neither start in the past nor start or last beyond the configured limits. An
+ * expired hold keeps counting against its user until the next sweep removes it.
+ */
+@Service
+@Slf4j
+public class ReservationHoldService {
+    record Hold(UUID holdId, UUID userId, UUID roomId, Instant checkIn, Instant checkOut, Instant expiresAt)
+            implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt.toEpochMilli() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final Duration ttl;
+    private final int maxHoldsPerUser;
+    private final Duration maxStay;
+    private final Duration horizon;
+    private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<UUID, RoomIntervals> heldStays = new ConcurrentHashMap<>();
+    private final DelayQueue<Hold> expiries = new DelayQueue<>();
+    private final Map<UUID, Integer> holdsPerUser = new ConcurrentHashMap<>();
+
+    public ReservationHoldService(BookingRepository bookingRepository,
+                                  RoomRepository roomRepository,
+                                  @Value("${app.holds.ttl-seconds:600}") long ttlSeconds,
+                                  @Value("${app.holds.max-per-user:3}") int maxHoldsPerUser,
+                                  @Value("${app.holds.max-nights:30}") int maxNights,
+                                  @Value("${app.holds.horizon-days:365}") int horizonDays) {
+        this.bookingRepository = bookingRepository;
+        this.roomRepository = roomRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxHoldsPerUser = maxHoldsPerUser;
+        this.maxStay = Duration.ofDays(maxNights);
+        this.horizon = Duration.ofDays(horizonDays);
+    }
+
+    /**
+     * Holds a room for {@code [checkIn, checkOut)} on behalf of {@code userId}.
+     *
+     * @throws IllegalArgumentException if the room does not exist or the dates are invalid, in the past, too
+     *         far ahead or too long
+     * @throws BookingConflictException if the room is booked or held for an overlapping stay, or the user
+     *         already has the maximum number of holds
+     */
+    public HoldResponse createHold(UUID roomId, Instant checkIn, Instant checkOut, UUID userId) {
+        Instant now = Instant.now();
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+        if (checkIn.isBefore(now)) {
+            throw new IllegalArgumentException("Check-in cannot be in the past");
+        }
+        if (checkIn.isAfter(now.plus(horizon))) {
+            throw new IllegalArgumentException("Check-in cannot be more than " + horizon.toDays() + " days ahead");
+        }
+        if (Duration.between(checkIn, checkOut).compareTo(maxStay) > 0) {
+            throw new IllegalArgumentException("A hold cannot be longer than " + maxStay.toDays() + " nights");
+        }
+        if (!roomRepository.existsById(roomId)) {
+            throw new IllegalArgumentException("Room not found");
+        }
+        if (isHeld(roomId, checkIn, checkOut, null)) {
+            throw new BookingConflictException("Room is on hold for the selected dates");
+        }
+        if (bookingRepository.existsActiveOverlap(roomId, checkIn, checkOut)) {
+            throw new BookingConflictException("Room is already booked for the selected dates");
+        }
+        // Counted atomically: the room locks do not serialize one user's holds on different rooms
+        holdsPerUser.compute(userId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= maxHoldsPerUser) {
+                throw new BookingConflictException("You already hold " + current + " rooms; release one or complete checkout first");
+            }
+            return current + 1;
+        });
+        Hold hold = new Hold(UUID.randomUUID(), userId, roomId, checkIn, checkOut, now.plus(ttl));
+        holds.put(hold.holdId(), hold);
+        heldStays.compute(roomId, (id, current) -> (current == null ? RoomIntervals.EMPTY : current)
+                .with(hold.holdId(), checkIn.toEpochMilli(), checkOut.toEpochMilli()));
+        expiries.add(hold);
+        log.info("Room {} held for user {} from {} to {} until {}", roomId, userId, checkIn, checkOut, hold.expiresAt());
+        return toResponse(hold);
+    }
+
+    /**
+     * Returns true if another hold than {@code exceptHoldId} covers part of {@code [checkIn, checkOut)}.
+     */
+    public boolean isHeld(UUID roomId, Instant checkIn, Instant checkOut, UUID exceptHoldId) {
+        RoomIntervals stays = heldStays.get(roomId);
+        if (stays == null) {
+            return false;
+        }
+        if (exceptHoldId != null) {
+            stays = stays.without(exceptHoldId);
+        }
+        // RoomIntervals treats the query end as inclusive; the stay is half-open
+        return stays.overlaps(checkIn.toEpochMilli(), checkOut.toEpochMilli() - 1);
+    }
+
+    /** Rooms with a hold covering part of {@code [checkIn, checkOut)}; holds are few, so this walks all of them. */
+    public Set<UUID> findHeldRoomIds(Instant checkIn, Instant checkOut) {
+        Set<UUID> held = new HashSet<>();
+        heldStays.forEach((roomId, stays) -> {
+            if (stays.overlaps(checkIn.toEpochMilli(), checkOut.toEpochMilli() - 1)) {
+                held.add(roomId);
+            }
+        });
+        return held;
+    }
+
+    /**
+     * Checks that {@code holdId} is a live hold of {@code userId} covering the stay about to be booked.
+     *
+     * @throws IllegalArgumentException if the hold is unknown, expired or does not cover the stay
+     * @throws AccessDeniedException if the hold belongs to another user
+     */
+    public void verifyHold(UUID holdId, UUID userId, UUID roomId, Instant checkIn, Instant checkOut) {
+        Hold hold = holds.get(holdId);
+        if (hold == null || !hold.expiresAt().isAfter(Instant.now())) {
+            throw new IllegalArgumentException("Hold not found or expired");
+        }
+        if (!hold.userId().equals(userId)) {
+            throw new AccessDeniedException("Hold does not belong to the current user");
+        }
+        if (!hold.roomId().equals(roomId) || checkIn.isBefore(hold.checkIn()) || checkOut.isAfter(hold.checkOut())) {
+            throw new IllegalArgumentException("Booking does not match the hold");
+        }
+    }
+
+    /**
+     * Releases a hold once the surrounding transaction commits, e.g. after its booking was inserted; outside
+     * a transaction it is released immediately.
+     */
+    public void releaseAfterCommit(UUID holdId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(holdId);
+                }
+            });
+        } else {
+            release(holdId);
+        }
+    }
+
+    /**
+     * Releases a hold of {@code userId} before it expires.
+     *
+     * @throws IllegalArgumentException if the hold is unknown or expired
+     * @throws AccessDeniedException if the hold belongs to another user
+     */
+    public void release(UUID holdId, UUID userId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null) {
+            throw new IllegalArgumentException("Hold not found or expired");
+        }
+        if (!hold.userId().equals(userId)) {
+            throw new AccessDeniedException("Hold does not belong to the current user");
+        }
+        release(holdId);
+    }
+
+    /** Drains every hold that has expired since the last sweep. */
+    @Scheduled(fixedDelayString = "${app.holds.sweep-interval-ms:1000}")
+    public void sweepExpired() {
+        List<Hold> expired = new ArrayList<>();
+        expiries.drainTo(expired);
+        int removed = 0;
+        for (Hold hold : expired) {
+            if (holds.remove(hold.holdId(), hold)) {
+                removeStay(hold);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.info("Expired {} room holds", removed);
+        }
+    }
+
+    private void release(UUID holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold != null) {
+            removeStay(hold);
+        }
+    }
+
+    private void removeStay(Hold hold) {
+        heldStays.computeIfPresent(hold.roomId(), (id, current) -> {
+            RoomIntervals remaining = current.without(hold.holdId());
+            return remaining.size() == 0 ? null : remaining;
+        });
+        holdsPerUser.computeIfPresent(hold.userId(), (id, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private static HoldResponse toResponse(Hold hold) {
+        HoldResponse response = new HoldResponse();
+        response.setHoldId(hold.holdId());
+        response.setRoomId(hold.roomId());
+        response.setCheckIn(hold.checkIn());
+        response.setCheckOut(hold.checkOut());
+        response.setExpiresAt(hold.expiresAt());
+        return response;
+    }
+}
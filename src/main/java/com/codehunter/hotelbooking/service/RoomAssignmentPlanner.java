@@ -0,0 +1,162 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository.AssignedStay;
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository.Move;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+/**
+ * Re-packs the future stays of one room type into its rooms so that free time forms fewer, longer runs.
+ * <p>
+ * Pinned stays and stays that have already started keep their rooms. The remaining stays are placed in
+ * check-in order, each into the room where it fits best by the same rule used at booking time (see
+ * {@link RoomAvailabilityIndex#findRoomsForStay}), preferring its current room on ties so that only
+ * stays that gain something move. A plan is produced only if every stay finds a room and the number of
+ * sellable room-nights goes up.
+ * <p>
+ * Sellable room-nights are counted over the UTC nights {@code [firstNight, endNight)}: a free run
+ * between two stays counts if it is at least {@code minSellableNights} long, and the open run up to the
+ * end of the window always counts.
+ */
+final class RoomAssignmentPlanner {
+    private final long firstNight;
+    private final long endNight;
+    private final int minSellableNights;
+
+    record Plan(String roomType, List<Move> moves, long sellableNightsBefore, long sellableNightsAfter) {
+        long recoveredNights() {
+            return sellableNightsAfter - sellableNightsBefore;
+        }
+    }
+
+    RoomAssignmentPlanner(long firstNight, long endNight, int minSellableNights) {
+        this.firstNight = firstNight;
+        this.endNight = endNight;
+        this.minSellableNights = minSellableNights;
+    }
+
+    /**
+     * @param blocked rejects moving a stay into a room, e.g. because the room is held for those dates
+     */
+    Plan plan(String roomType, List<UUID> roomIds, List<AssignedStay> stays, Instant now,
+              BiPredicate<UUID, AssignedStay> blocked) {
+        long before = sellableNights(schedule(roomIds, stays));
+        Map<UUID, TreeMap<Long, AssignedStay>> schedule = schedule(roomIds, List.of());
+        List<AssignedStay> movable = new ArrayList<>();
+        for (AssignedStay stay : stays) {
+            if (stay.pinned() || !stay.checkIn().isAfter(now)) {
+                place(schedule, stay.roomId(), stay);
+            } else {
+                movable.add(stay);
+            }
+        }
+        movable.sort(Comparator.comparing(AssignedStay::checkIn).thenComparing(AssignedStay::checkOut, Comparator.reverseOrder()));
+        Map<UUID, UUID> targets = new LinkedHashMap<>();
+        for (AssignedStay stay : movable) {
+            UUID target = bestRoom(schedule, stay, blocked);
+            if (target == null) {
+                return new Plan(roomType, List.of(), before, before);
+            }
+            place(schedule, target, stay);
+            targets.put(stay.bookingId(), target);
+        }
+        long after = sellableNights(schedule);
+        if (after <= before) {
+            return new Plan(roomType, List.of(), before, before);
+        }
+        List<Move> moves = new ArrayList<>();
+        for (AssignedStay stay : movable) {
+            UUID target = targets.get(stay.bookingId());
+            if (!target.equals(stay.roomId())) {
+                moves.add(new Move(stay.bookingId(), stay.roomId(), target));
+            }
+        }
+        return new Plan(roomType, moves, before, after);
+    }
+
+    long sellableNights(Map<UUID, TreeMap<Long, AssignedStay>> schedule) {
+        long total = 0;
+        for (TreeMap<Long, AssignedStay> room : schedule.values()) {
+            long cursor = firstNight;
+            for (AssignedStay stay : room.values()) {
+                long from = Math.max(night(stay.checkIn()), firstNight);
+                long to = Math.min(night(stay.checkOut()), endNight);
+                if (to <= from) {
+                    continue;
+                }
+                if (from - cursor >= minSellableNights) {
+                    total += from - cursor;
+                }
+                cursor = Math.max(cursor, to);
+            }
+            total += Math.max(0, endNight - cursor);
+        }
+        return total;
+    }
+
+    private UUID bestRoom(Map<UUID, TreeMap<Long, AssignedStay>> schedule, AssignedStay stay,
+                          BiPredicate<UUID, AssignedStay> blocked) {
+        long start = stay.checkIn().toEpochMilli();
+        long end = stay.checkOut().toEpochMilli();
+        UUID best = null;
+        long bestFreeRun = 0;
+        long bestNearest = 0;
+        boolean bestIsCurrent = false;
+        for (Map.Entry<UUID, TreeMap<Long, AssignedStay>> entry : schedule.entrySet()) {
+            UUID roomId = entry.getKey();
+            TreeMap<Long, AssignedStay> room = entry.getValue();
+            Map.Entry<Long, AssignedStay> previous = room.lowerEntry(end);
+            if (previous != null && previous.getValue().checkOut().toEpochMilli() > start) {
+                continue;
+            }
+            boolean current = roomId.equals(stay.roomId());
+            if (!current && blocked.test(roomId, stay)) {
+                continue;
+            }
+            Map.Entry<Long, AssignedStay> next = room.ceilingEntry(end);
+            long gapBefore = previous == null ? Long.MAX_VALUE : start - previous.getValue().checkOut().toEpochMilli();
+            long gapAfter = next == null ? Long.MAX_VALUE : next.getKey() - end;
+            long freeRun = gapBefore > Long.MAX_VALUE - gapAfter ? Long.MAX_VALUE : gapBefore + gapAfter;
+            long nearest = Math.min(gapBefore, gapAfter);
+            boolean better = best == null
+                    || freeRun < bestFreeRun
+                    || freeRun == bestFreeRun && (nearest < bestNearest || nearest == bestNearest && current && !bestIsCurrent);
+            if (better) {
+                best = roomId;
+                bestFreeRun = freeRun;
+                bestNearest = nearest;
+                bestIsCurrent = current;
+            }
+        }
+        return best;
+    }
+
+    private static Map<UUID, TreeMap<Long, AssignedStay>> schedule(List<UUID> roomIds, List<AssignedStay> stays) {
+        Map<UUID, TreeMap<Long, AssignedStay>> schedule = new LinkedHashMap<>();
+        for (UUID roomId : roomIds) {
+            schedule.put(roomId, new TreeMap<>());
+        }
+        for (AssignedStay stay : stays) {
+            place(schedule, stay.roomId(), stay);
+        }
+        return schedule;
+    }
+
+    private static void place(Map<UUID, TreeMap<Long, AssignedStay>> schedule, UUID roomId, AssignedStay stay) {
+        schedule.computeIfAbsent(roomId, id -> new TreeMap<>()).put(stay.checkIn().toEpochMilli(), stay);
+    }
+
+    private static long night(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC).toEpochDay();
+    }
+}
@@ -0,0 +1,219 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.ActiveStay;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-process availability index: the room catalog plus, per room, the sorted set of ACTIVE stays that
+ * have not ended yet.
+ * <p>
+ * The index is loaded once the application is ready and afterwards kept current from
+ * {@link BookingChangedEvent}s, which are applied only after the booking transaction commits; the
+ * {@link AvailabilityCache} is invalidated after each one. Searches are answered from memory without
+ * touching the database. Rooms are also grouped by type, so per-type
+ * counts and room assignment for a type only walk the rooms of that type.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RoomAvailabilityIndex {
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+
+    private final Map<UUID, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<UUID, RoomIntervals> intervals = new ConcurrentHashMap<>();
+    private volatile List<Room> roomsInOrder = List.of();
+    private volatile Map<String, List<Room>> roomsByType = Map.of();
+    private volatile boolean ready;
+    // Events that arrive while the initial snapshot is being read; replayed once it is installed
+    private List<BookingChangedEvent> pendingEvents;
+    private AvailabilityCache availabilityCache;
+
+    @Autowired(required = false)
+    void setAvailabilityCache(AvailabilityCache availabilityCache) {
+        this.availabilityCache = availabilityCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+        }
+        long started = System.nanoTime();
+        List<Room> allRooms = roomRepository.findAll();
+        List<ActiveStay> stays = bookingRepository.findActiveStaysEndingAfter(Instant.now());
+        Map<UUID, RoomIntervals> loaded = new HashMap<>();
+        for (ActiveStay stay : stays) {
+            loaded.put(stay.roomId(), loaded.getOrDefault(stay.roomId(), RoomIntervals.EMPTY)
+                    .with(stay.bookingId(), stay.checkIn().toEpochMilli(), stay.checkOut().toEpochMilli()));
+        }
+        synchronized (this) {
+            rooms.clear();
+            allRooms.forEach(room -> rooms.put(room.getId(), room));
+            intervals.clear();
+            intervals.putAll(loaded);
+            pendingEvents.forEach(this::apply);
+            pendingEvents = null;
+            refreshRoomOrder();
+            ready = true;
+        }
+        log.info("Availability index loaded {} rooms and {} active stays in {} ms",
+                allRooms.size(), stays.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Room unknownRoom = rooms.containsKey(event.roomId()) ? null
+                : roomRepository.findById(event.roomId()).orElse(null);
+        synchronized (this) {
+            if (unknownRoom != null && rooms.putIfAbsent(unknownRoom.getId(), unknownRoom) == null) {
+                refreshRoomOrder();
+            }
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            } else {
+                apply(event);
+            }
+        }
+        // Searches still falling back to the database see the committed change as well
+        if (availabilityCache != null) {
+            availabilityCache.invalidate(event.checkIn(), event.checkOut());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the rooms that have no ACTIVE stay with {@code checkIn <= end && checkOut > start},
+     * ordered by room number.
+     */
+    public List<Room> findAvailableRooms(Instant start, Instant end) {
+        long startMillis = start.toEpochMilli();
+        long endMillis = end.toEpochMilli();
+        List<Room> snapshot = roomsInOrder;
+        List<Room> available = new ArrayList<>(snapshot.size());
+        for (Room room : snapshot) {
+            RoomIntervals stays = intervals.getOrDefault(room.getId(), RoomIntervals.EMPTY);
+            if (!stays.overlaps(startMillis, endMillis)) {
+                available.add(room);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Counts, per room type, the rooms that {@link #findAvailableRooms} would return and {@code blocked}
+     * does not reject. Types are in name order and include those with no available room; rooms without a
+     * type are not counted.
+     */
+    public Map<String, Integer> countAvailableRoomsByType(Instant start, Instant end, Predicate<UUID> blocked) {
+        long startMillis = start.toEpochMilli();
+        long endMillis = end.toEpochMilli();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        roomsByType.forEach((type, rooms) -> {
+            int available = 0;
+            for (Room room : rooms) {
+                if (!intervals.getOrDefault(room.getId(), RoomIntervals.EMPTY).overlaps(startMillis, endMillis)
+                        && !blocked.test(room.getId())) {
+                    available++;
+                }
+            }
+            counts.put(type, available);
+        });
+        return counts;
+    }
+
+    /**
+     * Returns the rooms of {@code type} that are free for the stay {@code [checkIn, checkOut)}, best fit
+     * first: the room whose free run around the stay is shortest, so the stay fills a hole in the calendar
+     * instead of cutting a long free run into short, hard-to-sell pieces. Among rooms with open-ended free
+     * runs, one whose existing stay ends or starts closest to this stay comes first; remaining ties keep
+     * room number order. Unlike {@link #findAvailableRooms}, a stay may start exactly when another ends.
+     */
+    public List<Room> findRoomsForStay(String type, Instant checkIn, Instant checkOut) {
+        long startMillis = checkIn.toEpochMilli();
+        long lastMillis = checkOut.toEpochMilli() - 1;
+        List<RankedRoom> free = new ArrayList<>();
+        for (Room room : roomsByType.getOrDefault(type, List.of())) {
+            RoomIntervals stays = intervals.getOrDefault(room.getId(), RoomIntervals.EMPTY);
+            if (!stays.overlaps(startMillis, lastMillis)) {
+                long before = stays.gapBefore(startMillis, lastMillis);
+                long after = stays.gapAfter(lastMillis);
+                long freeRun = before > Long.MAX_VALUE - after ? Long.MAX_VALUE : before + after;
+                free.add(new RankedRoom(room, freeRun, Math.min(before, after)));
+            }
+        }
+        free.sort(Comparator.comparingLong(RankedRoom::freeRun).thenComparingLong(RankedRoom::nearestStay));
+        return free.stream().map(RankedRoom::room).toList();
+    }
+
+    private record RankedRoom(Room room, long freeRun, long nearestStay) {
+    }
+
+    /**
+     * Current stays of every room of {@code type}, or of every room if {@code type} is null, in room
+     * number order.
+     */
+    Map<Room, RoomIntervals> findStaysByRoom(String type) {
+        List<Room> selected = type == null ? roomsInOrder : roomsByType.getOrDefault(type, List.of());
+        Map<Room, RoomIntervals> stays = new LinkedHashMap<>();
+        for (Room room : selected) {
+            stays.put(room, intervals.getOrDefault(room.getId(), RoomIntervals.EMPTY));
+        }
+        return stays;
+    }
+
+    public Optional<Room> findRoom(UUID roomId) {
+        return Optional.ofNullable(rooms.get(roomId));
+    }
+
+    private void apply(BookingChangedEvent event) {
+        long now = Instant.now().toEpochMilli();
+        intervals.compute(event.roomId(), (roomId, current) -> {
+            RoomIntervals base = current == null ? RoomIntervals.EMPTY : current.withoutEndedBefore(now);
+            return switch (event.type()) {
+                case CREATED -> base.with(event.bookingId(),
+                        event.checkIn().toEpochMilli(), event.checkOut().toEpochMilli());
+                case CANCELLED -> base.without(event.bookingId());
+            };
+        });
+    }
+
+    private void refreshRoomOrder() {
+        List<Room> ordered = new ArrayList<>(rooms.values());
+        ordered.sort(Comparator.comparing(Room::getRoomNumber));
+        roomsInOrder = List.copyOf(ordered);
+        Map<String, List<Room>> byType = new TreeMap<>();
+        for (Room room : ordered) {
+            if (room.getType() != null) {
+                byType.computeIfAbsent(room.getType(), type -> new ArrayList<>()).add(room);
+            }
+        }
+        byType.replaceAll((type, rooms) -> List.copyOf(rooms));
+        roomsByType = byType;
+    }
+}
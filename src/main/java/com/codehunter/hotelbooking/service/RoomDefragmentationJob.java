@@ -0,0 +1,191 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository;
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository.AssignedStay;
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository.Move;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nightly optimizer that moves unpinned future bookings between rooms of the same type to close the
+ * short, unsellable gaps left behind by cancellations.
+ * <p>
+ * A run reads one snapshot of all typed rooms and future ACTIVE stays, plans every room type in parallel
+ * on a dedicated {@link ForkJoinPool} with {@link RoomAssignmentPlanner}, and then applies each type's
+ * moves as one batched update in its own transaction. While a type is applied its rooms are locked through
+ * {@link BookingCoordinator}, targets are re-checked against checkout holds, and the overlap exclusion is
+ * deferred to commit; a type whose bookings changed since the snapshot is rolled back and left for the
+ * next run. Moves are published as {@link BookingChangedEvent}s so in-memory availability follows them.
+ * <p>
+ * Each run logs the bookings moved, the sellable room-nights recovered and its duration, and records them
+ * as {@code room.defrag.moves}, {@code room.defrag.recovered.nights} and {@code room.defrag.duration}.
+ */
+@Service
+@Slf4j
+public class RoomDefragmentationJob {
+    private final RoomAssignmentRepository roomAssignmentRepository;
+    private final BookingCoordinator bookingCoordinator;
+    private final ReservationHoldService reservationHoldService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool planners;
+    private final int horizonDays;
+    private final int minSellableNights;
+    private final Counter movesCounter;
+    private final Counter recoveredCounter;
+    private final Timer runTimer;
+
+    public record Report(int roomTypes, int bookingsMoved, long recoveredRoomNights, Duration elapsed) {
+    }
+
+    public RoomDefragmentationJob(RoomAssignmentRepository roomAssignmentRepository,
+                                  BookingCoordinator bookingCoordinator,
+                                  ReservationHoldService reservationHoldService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.defrag.parallelism:0}") int parallelism,
+                                  @Value("${app.defrag.horizon-days:365}") int horizonDays,
+                                  @Value("${app.defrag.min-sellable-nights:2}") int minSellableNights) {
+        this.roomAssignmentRepository = roomAssignmentRepository;
+        this.bookingCoordinator = bookingCoordinator;
+        this.reservationHoldService = reservationHoldService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.planners = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.horizonDays = horizonDays;
+        this.minSellableNights = minSellableNights;
+        this.movesCounter = Counter.builder("room.defrag.moves")
+                .description("Bookings moved to another room by the defragmentation job")
+                .register(meterRegistry);
+        this.recoveredCounter = Counter.builder("room.defrag.recovered.nights")
+                .description("Sellable room-nights recovered by the defragmentation job")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("room.defrag.duration")
+                .description("Duration of defragmentation runs")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.defrag.cron:0 30 3 * * *}", zone = "UTC")
+    public void runNightly() {
+        run();
+    }
+
+    public Report run() {
+        long started = System.nanoTime();
+        Instant now = Instant.now();
+        long today = LocalDate.ofInstant(now, ZoneOffset.UTC).toEpochDay();
+        RoomAssignmentPlanner planner = new RoomAssignmentPlanner(today, today + horizonDays, minSellableNights);
+
+        Map<String, List<UUID>> roomsByType = roomAssignmentRepository.findRoomIdsByType();
+        Map<String, List<AssignedStay>> staysByType = new HashMap<>();
+        for (AssignedStay stay : roomAssignmentRepository.findActiveStaysEndingAfter(now)) {
+            staysByType.computeIfAbsent(stay.roomType(), type -> new ArrayList<>()).add(stay);
+        }
+        // Planning is pure computation over the snapshot, one task per room type
+        List<ForkJoinTask<RoomAssignmentPlanner.Plan>> plans = new ArrayList<>();
+        roomsByType.forEach((type, roomIds) -> plans.add(planners.submit(() -> planner.plan(type, roomIds,
+                staysByType.getOrDefault(type, List.of()), now,
+                (roomId, stay) -> reservationHoldService.isHeld(roomId, stay.checkIn(), stay.checkOut(), null)))));
+
+        int moved = 0;
+        long recovered = 0;
+        for (ForkJoinTask<RoomAssignmentPlanner.Plan> future : plans) {
+            RoomAssignmentPlanner.Plan plan;
+            try {
+                plan = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.warn("Planning a room type failed", e.getCause());
+                continue;
+            }
+            if (!plan.moves().isEmpty()
+                    && apply(plan, roomsByType.get(plan.roomType()), staysByType.get(plan.roomType()), now)) {
+                moved += plan.moves().size();
+                recovered += plan.recoveredNights();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        movesCounter.increment(moved);
+        recoveredCounter.increment(recovered);
+        Report report = new Report(roomsByType.size(), moved, recovered, Duration.ofNanos(elapsedNanos));
+        log.info("Room defragmentation moved {} bookings across {} room types and recovered {} sellable room-nights in {} ms",
+                moved, report.roomTypes(), recovered, report.elapsed().toMillis());
+        return report;
+    }
+
+    private boolean apply(RoomAssignmentPlanner.Plan plan, List<UUID> roomIds, List<AssignedStay> stays, Instant now) {
+        Map<UUID, AssignedStay> staysById = new HashMap<>();
+        for (AssignedStay stay : stays) {
+            staysById.put(stay.bookingId(), stay);
+        }
+        try {
+            return bookingCoordinator.withRoomLocks(roomIds, () -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                for (Move move : plan.moves()) {
+                    AssignedStay stay = staysById.get(move.bookingId());
+                    if (reservationHoldService.isHeld(move.toRoomId(), stay.checkIn(), stay.checkOut(), null)) {
+                        log.info("Skipping room type {}: room {} was held since planning", plan.roomType(), move.toRoomId());
+                        return false;
+                    }
+                }
+                int[] updated = roomAssignmentRepository.moveBookings(plan.moves(), now);
+                for (int count : updated) {
+                    if (count != 1) {
+                        log.info("Skipping room type {}: bookings changed since the snapshot", plan.roomType());
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                }
+                // All departures first: in a swap, a booking's arrival must not be followed by the other
+                // booking's departure from the same room and nights
+                for (Move move : plan.moves()) {
+                    AssignedStay stay = staysById.get(move.bookingId());
+                    eventPublisher.publishEvent(BookingChangedEvent.cancelled(move.bookingId(), move.fromRoomId(), stay.checkIn(), stay.checkOut()));
+                }
+                for (Move move : plan.moves()) {
+                    AssignedStay stay = staysById.get(move.bookingId());
+                    eventPublisher.publishEvent(BookingChangedEvent.created(move.bookingId(), move.toRoomId(), stay.checkIn(), stay.checkOut()));
+                }
+                return true;
+            })));
+        } catch (DataAccessException | BookingConflictException e) {
+            // A booking written on another node since the snapshot collides with a move; retried next run
+            log.warn("Could not apply {} moves for room type {}: {}", plan.moves().size(), plan.roomType(), e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        planners.shutdownNow();
+    }
+}
@@ -0,0 +1,174 @@
+package com.codehunter.hotelbooking.service;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Immutable, start-sorted set of ACTIVE stay intervals for a single room.
+ * <p>
+ * Alongside the sorted starts it keeps a running maximum of the end times, so an overlap probe is a
+ * single binary search: the last interval starting at or before the query end is found, and the room is
+ * occupied iff the largest end seen up to that point lies after the query start. Updates copy the arrays,
+ * which keeps reads lock-free; a room only ever holds its current and future stays, so copies stay small.
+ */
+final class RoomIntervals {
+    static final RoomIntervals EMPTY = new RoomIntervals(new UUID[0], new long[0], new long[0], new long[0]);
+
+    private final UUID[] bookingIds;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private RoomIntervals(UUID[] bookingIds, long[] starts, long[] ends, long[] maxEnds) {
+        this.bookingIds = bookingIds;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = maxEnds;
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    long startAt(int i) {
+        return starts[i];
+    }
+
+    long endAt(int i) {
+        return ends[i];
+    }
+
+    UUID bookingIdAt(int i) {
+        return bookingIds[i];
+    }
+
+    boolean contains(UUID bookingId) {
+        return indexOf(bookingId) >= 0;
+    }
+
+    /**
+     * Returns true if any interval satisfies {@code start <= queryEnd && end > queryStart}, the same
+     * overlap rule used by {@code RoomRepository.findAvailableRoomsInDateRange}.
+     */
+    boolean overlaps(long queryStart, long queryEnd) {
+        int count = upperBound(queryEnd);
+        return count > 0 && maxEnds[count - 1] > queryStart;
+    }
+
+    /**
+     * For a query that does not overlap any interval, the free time between the end of the last stay
+     * before it and {@code queryStart}; {@link Long#MAX_VALUE} if no stay precedes it.
+     */
+    long gapBefore(long queryStart, long queryEnd) {
+        int count = upperBound(queryEnd);
+        return count == 0 ? Long.MAX_VALUE : queryStart - maxEnds[count - 1];
+    }
+
+    /**
+     * For a query that does not overlap any interval, the free time between {@code queryEnd} and the
+     * start of the first stay after it; {@link Long#MAX_VALUE} if no stay follows it.
+     */
+    long gapAfter(long queryEnd) {
+        int count = upperBound(queryEnd);
+        return count == starts.length ? Long.MAX_VALUE : starts[count] - queryEnd;
+    }
+
+    RoomIntervals with(UUID bookingId, long start, long end) {
+        if (contains(bookingId)) {
+            return this;
+        }
+        int n = starts.length;
+        int pos = upperBound(start);
+        UUID[] ids = new UUID[n + 1];
+        long[] s = new long[n + 1];
+        long[] e = new long[n + 1];
+        System.arraycopy(bookingIds, 0, ids, 0, pos);
+        System.arraycopy(starts, 0, s, 0, pos);
+        System.arraycopy(ends, 0, e, 0, pos);
+        ids[pos] = bookingId;
+        s[pos] = start;
+        e[pos] = end;
+        System.arraycopy(bookingIds, pos, ids, pos + 1, n - pos);
+        System.arraycopy(starts, pos, s, pos + 1, n - pos);
+        System.arraycopy(ends, pos, e, pos + 1, n - pos);
+        return new RoomIntervals(ids, s, e, prefixMax(e));
+    }
+
+    RoomIntervals without(UUID bookingId) {
+        int idx = indexOf(bookingId);
+        if (idx < 0) {
+            return this;
+        }
+        int n = starts.length;
+        UUID[] ids = new UUID[n - 1];
+        long[] s = new long[n - 1];
+        long[] e = new long[n - 1];
+        System.arraycopy(bookingIds, 0, ids, 0, idx);
+        System.arraycopy(starts, 0, s, 0, idx);
+        System.arraycopy(ends, 0, e, 0, idx);
+        System.arraycopy(bookingIds, idx + 1, ids, idx, n - idx - 1);
+        System.arraycopy(starts, idx + 1, s, idx, n - idx - 1);
+        System.arraycopy(ends, idx + 1, e, idx, n - idx - 1);
+        return new RoomIntervals(ids, s, e, prefixMax(e));
+    }
+
+    /**
+     * Drops intervals that ended at or before {@code cutoff}; they can no longer affect a search.
+     */
+    RoomIntervals withoutEndedBefore(long cutoff) {
+        int keep = 0;
+        for (long end : ends) {
+            if (end > cutoff) {
+                keep++;
+            }
+        }
+        if (keep == ends.length) {
+            return this;
+        }
+        UUID[] ids = new UUID[keep];
+        long[] s = new long[keep];
+        long[] e = new long[keep];
+        int j = 0;
+        for (int i = 0; i < ends.length; i++) {
+            if (ends[i] > cutoff) {
+                ids[j] = bookingIds[i];
+                s[j] = starts[i];
+                e[j] = ends[i];
+                j++;
+            }
+        }
+        return new RoomIntervals(ids, s, e, prefixMax(e));
+    }
+
+    private int indexOf(UUID bookingId) {
+        for (int i = 0; i < bookingIds.length; i++) {
+            if (bookingIds[i].equals(bookingId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Number of intervals whose start is {@code <= value}. */
+    private int upperBound(long value) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static long[] prefixMax(long[] ends) {
+        long[] max = Arrays.copyOf(ends, ends.length);
+        for (int i = 1; i < max.length; i++) {
+            max[i] = Math.max(max[i - 1], max[i]);
+        }
+        return max;
+    }
+}
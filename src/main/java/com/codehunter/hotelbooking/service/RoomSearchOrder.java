@@ -0,0 +1,23 @@
+package com.codehunter.hotelbooking.service;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Sort orders of {@link RoomService#searchRooms}. Each ends in a unique key, so keyset pages never skip or
+ * repeat a room.
+ */
+public enum RoomSearchOrder {
+    PRICE_ASC(Sort.by(Sort.Direction.ASC, "pricePerNight", "id")),
+    PRICE_DESC(Sort.by(Sort.Direction.DESC, "pricePerNight", "id")),
+    ROOM_NUMBER(Sort.by(Sort.Direction.ASC, "roomNumber"));
+
+    private final Sort sort;
+
+    RoomSearchOrder(Sort sort) {
+        this.sort = sort;
+    }
+
+    public Sort sort() {
+        return sort;
+    }
+}
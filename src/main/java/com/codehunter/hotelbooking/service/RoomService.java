@@ -1,23 +1,73 @@
 package com.codehunter.hotelbooking.service;
 
+import com.codehunter.hotelbooking.dto.AvailabilityBatchRequest;
+import com.codehunter.hotelbooking.dto.AvailabilityBatchResponse;
+import com.codehunter.hotelbooking.dto.CalendarRun;
+import com.codehunter.hotelbooking.dto.FlexibleAvailabilityResponse;
+import com.codehunter.hotelbooking.dto.FlexibleDateOption;
+import com.codehunter.hotelbooking.dto.RoomCalendarResponse;
+import com.codehunter.hotelbooking.dto.RoomPageResponse;
 import com.codehunter.hotelbooking.dto.RoomResponse;
+import com.codehunter.hotelbooking.dto.RoomTypeAvailabilityResponse;
+import com.codehunter.hotelbooking.model.Money;
 import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.ActiveStay;
+import com.codehunter.hotelbooking.repository.BookingRepository;
 import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.RoomSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class RoomService {
+    static final int MAX_FLEX_DAYS = 30;
+    static final int MAX_FLEX_NIGHTS = 60;
+    static final int MAX_FLEX_OPTIONS = 20;
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+    static final int MAX_CALENDAR_NIGHTS = 366;
+    static final int MAX_CALENDAR_ROOMS = 200;
+    private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
     @Autowired
     private RoomRepository roomRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired(required = false)
+    private OccupancyCalendar occupancyCalendar;
+    @Autowired(required = false)
+    private AvailabilityCache availabilityCache;
+    @Autowired
+    private ReservationHoldService reservationHoldService;
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Value("${app.availability.mode:INDEX}")
+    private AvailabilityMode availabilityMode;
 
     public List<Room> getAllRooms() {
         return roomRepository.findAll();
@@ -25,23 +75,18 @@ public class RoomService {
 
     /**
      * Gets available rooms for the specified date range.
-     * A room is considered available if it has no ACTIVE bookings that overlap with the requested dates.
+     * A room is considered available if it has no ACTIVE bookings or holds that overlap with the requested dates.
+     * In {@link AvailabilityMode#INDEX} mode the search is answered from the {@link RoomAvailabilityIndex}
+     * once it is loaded, and in {@link AvailabilityMode#BITSET} mode from the {@link OccupancyCalendar};
+     * otherwise, or while the selected structure cannot answer, the bookings table is queried. Results are
+     * cached per range by the {@link AvailabilityCache} when it is enabled.
      *
      * @param fromDate The start date (inclusive)
      * @param toDate   The end date (exclusive)
      * @return List of available rooms
      */
     public List<RoomResponse> getAvailableRooms(LocalDate fromDate, LocalDate toDate) {
-        // Validate dates
-        if (fromDate == null || toDate == null) {
-            throw new IllegalArgumentException("Both fromDate and toDate must be provided");
-        }
-        if (fromDate.isAfter(toDate)) {
-            throw new IllegalArgumentException("fromDate must be before or equal to toDate");
-        }
-        if (fromDate.isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("fromDate cannot be in the past");
-        }
+        validateSearchDates(fromDate, toDate);
 
         // Convert LocalDate to Instant at the start/end of day in system timezone
         ZoneId zoneId = ZoneId.systemDefault();
@@ -51,15 +96,434 @@ public class RoomService {
         Instant startDate = startDateTime.toInstant();
         Instant endDate = endDateTime.toInstant();
 
-        // Get available rooms from repository
-        List<Room> availableRooms = roomRepository.findAvailableRoomsInDateRange(startDate, endDate);
+        List<Room> availableRooms = availabilityCache == null
+                ? findAvailableRooms(fromDate, toDate, startDate, endDate)
+                : availabilityCache.get(fromDate, toDate, () -> findAvailableRooms(fromDate, toDate, startDate, endDate));
 
-        // Convert to DTOs
+        // Rooms held during checkout are not available to anyone else; convert the rest to DTOs
         return availableRooms.stream()
+                .filter(room -> !reservationHoldService.isHeld(room.getId(), startDate, endDate, null))
                 .map(this::convertToRoomResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns one page of the room catalog, filtered and sorted in the database.
+     * <p>
+     * Every filter is optional. With {@code fromDate} and {@code toDate} only rooms available for that range
+     * are returned, by the same rules as {@link #getAvailableRooms}: the ACTIVE booking check is an
+     * anti-join in the same query and rooms held during checkout are excluded by id. Pages are
+     * keyset-paginated on the sort key: the cursor encodes the last room of the previous page, so each page
+     * is a single index range scan no matter how deep the caller pages.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @throws IllegalArgumentException if a filter is invalid or the cursor is malformed or was issued for
+     *                                  another sort order
+     */
+    public RoomPageResponse searchRooms(String type, BigDecimal minPrice, BigDecimal maxPrice, LocalDate fromDate,
+                                        LocalDate toDate, RoomSearchOrder order, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        List<Specification<Room>> filters = new ArrayList<>();
+        if (type != null && !type.isBlank()) {
+            filters.add(RoomSpecifications.hasType(type));
+        }
+        if (minPrice != null) {
+            filters.add(RoomSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            filters.add(RoomSpecifications.priceAtMost(maxPrice));
+        }
+        if (fromDate != null || toDate != null) {
+            validateSearchDates(fromDate, toDate);
+            ZoneId zoneId = ZoneId.systemDefault();
+            Instant startDate = fromDate.atStartOfDay(zoneId).toInstant();
+            Instant endDate = toDate.atStartOfDay(zoneId).toInstant();
+            filters.add(RoomSpecifications.freeBetween(startDate, endDate));
+            Set<UUID> held = reservationHoldService.findHeldRoomIds(startDate, endDate);
+            if (!held.isEmpty()) {
+                filters.add(RoomSpecifications.idNotIn(held));
+            }
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            filters.add(afterCursor(order, cursor));
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<Room> rooms = roomRepository.findBy(Specification.allOf(filters),
+                query -> query.sortBy(order.sort()).limit(limit + 1).all());
+        String nextCursor = null;
+        if (rooms.size() > limit) {
+            rooms = rooms.subList(0, limit);
+            nextCursor = encodeCursor(order, rooms.get(limit - 1));
+        }
+        return new RoomPageResponse(convertToRoomResponses(rooms), nextCursor);
+    }
+
+    private static String encodeCursor(RoomSearchOrder order, Room last) {
+        String key = order == RoomSearchOrder.ROOM_NUMBER ? last.getRoomNumber() : last.getPricePerNight().toPlainString();
+        String raw = order.name() + "|" + last.getId() + "|" + key;
+        return URL_ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Specification<Room> afterCursor(RoomSearchOrder order, String cursor) {
+        String[] parts;
+        UUID id;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            id = UUID.fromString(parts[1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(order.name())) {
+            throw new IllegalArgumentException("Cursor does not match the sort order");
+        }
+        return switch (order) {
+            case ROOM_NUMBER -> RoomSpecifications.afterRoomNumber(parts[2]);
+            case PRICE_ASC, PRICE_DESC -> {
+                BigDecimal price;
+                try {
+                    price = new BigDecimal(parts[2]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                yield RoomSpecifications.afterPrice(price, id, order == RoomSearchOrder.PRICE_DESC);
+            }
+        };
+    }
+
+    /**
+     * Counts available rooms per room type for the specified date range, using the same availability rules
+     * as {@link #getAvailableRooms}. Every room type is listed, in name order, even if none of its rooms is
+     * available. Once the {@link RoomAvailabilityIndex} is loaded the counts are taken from its per-type
+     * room groups without building room lists.
+     */
+    public List<RoomTypeAvailabilityResponse> getAvailabilityByType(LocalDate fromDate, LocalDate toDate) {
+        validateSearchDates(fromDate, toDate);
+        ZoneId zoneId = ZoneId.systemDefault();
+        Instant startDate = fromDate.atStartOfDay(zoneId).toInstant();
+        Instant endDate = toDate.atStartOfDay(zoneId).toInstant();
+
+        Map<String, Integer> counts;
+        if (availabilityMode != AvailabilityMode.JPQL && availabilityIndex.isReady()) {
+            counts = availabilityIndex.countAvailableRoomsByType(startDate, endDate,
+                    roomId -> reservationHoldService.isHeld(roomId, startDate, endDate, null));
+        } else {
+            counts = new LinkedHashMap<>();
+            for (String type : roomRepository.findDistinctTypes()) {
+                counts.put(type, 0);
+            }
+            for (Room room : roomRepository.findAvailableRoomsInDateRange(startDate, endDate)) {
+                if (room.getType() != null && !reservationHoldService.isHeld(room.getId(), startDate, endDate, null)) {
+                    counts.merge(room.getType(), 1, Integer::sum);
+                }
+            }
+        }
+        List<RoomTypeAvailabilityResponse> responses = new ArrayList<>(counts.size());
+        counts.forEach((type, available) -> responses.add(new RoomTypeAvailabilityResponse(type, available)));
+        return responses;
+    }
+
+    /**
+     * Returns the ids of the rooms of {@code type} that can take the stay {@code [checkIn, checkOut)}, in the
+     * order they should be tried: best fit first when the {@link RoomAvailabilityIndex} is loaded (see
+     * {@link RoomAvailabilityIndex#findRoomsForStay}), otherwise room number order. Held rooms are skipped.
+     */
+    public List<UUID> findRoomsForStay(String type, Instant checkIn, Instant checkOut) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+        List<Room> candidates;
+        if (availabilityMode != AvailabilityMode.JPQL && availabilityIndex.isReady()) {
+            candidates = availabilityIndex.findRoomsForStay(type, checkIn, checkOut);
+        } else {
+            candidates = roomRepository.findAvailableRoomsInDateRange(checkIn, checkOut).stream()
+                    .filter(room -> type.equals(room.getType()))
+                    .sorted(Comparator.comparing(Room::getRoomNumber))
+                    .toList();
+        }
+        return candidates.stream()
+                .map(Room::getId)
+                .filter(roomId -> !reservationHoldService.isHeld(roomId, checkIn, checkOut, null))
+                .toList();
+    }
+
+    /**
+     * Finds stays of {@code nights} nights that start within {@code flexDays} days of {@code fromDate}, for
+     * guests who can shift their dates. Instead of one availability search per shifted date, every room's
+     * calendar over the whole window is scanned once (see {@link FlexibleDateSearch}), from the
+     * {@link RoomAvailabilityIndex} once it is loaded or otherwise from a single bookings query.
+     * <p>
+     * Per room or per room type, at most {@code limit} start dates are returned, nearest to {@code fromDate}
+     * first and earlier first on ties. A room held for a stay does not count for it, start dates before today
+     * are not considered, and rooms or types without any option are left out.
+     *
+     * @param type if not null, only rooms of this type are considered
+     */
+    public List<FlexibleAvailabilityResponse> findFlexibleDates(LocalDate fromDate, int nights, int flexDays,
+                                                                String type, FlexibleGrouping grouping, int limit) {
+        LocalDate today = LocalDate.now();
+        if (fromDate == null) {
+            throw new IllegalArgumentException("fromDate must be provided");
+        }
+        if (fromDate.isBefore(today)) {
+            throw new IllegalArgumentException("fromDate cannot be in the past");
+        }
+        if (nights < 1 || nights > MAX_FLEX_NIGHTS) {
+            throw new IllegalArgumentException("nights must be between 1 and " + MAX_FLEX_NIGHTS);
+        }
+        if (flexDays < 0 || flexDays > MAX_FLEX_DAYS) {
+            throw new IllegalArgumentException("flexDays must be between 0 and " + MAX_FLEX_DAYS);
+        }
+        if (limit < 1 || limit > MAX_FLEX_OPTIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_FLEX_OPTIONS);
+        }
+
+        LocalDate firstStart = fromDate.minusDays(flexDays).isBefore(today) ? today : fromDate.minusDays(flexDays);
+        int requested = (int) ChronoUnit.DAYS.between(firstStart, fromDate);
+        int startNights = requested + flexDays + 1;
+        ZoneId zoneId = ZoneId.systemDefault();
+        long[] nightStarts = new long[startNights + nights];
+        for (int i = 0; i < nightStarts.length; i++) {
+            nightStarts[i] = firstStart.plusDays(i).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        }
+        FlexibleDateSearch search = new FlexibleDateSearch(nightStarts, nights, startNights);
+        int[] preference = nearestFirst(startNights, requested);
+
+        List<FlexibleAvailabilityResponse> responses = new ArrayList<>();
+        Map<String, int[]> roomsFreeByType = new TreeMap<>();
+        findStaysByRoom(type, Instant.ofEpochMilli(nightStarts[0]),
+                Instant.ofEpochMilli(nightStarts[nightStarts.length - 1])).forEach((room, stays) -> {
+            BitSet starts = search.feasibleStarts(stays);
+            if (grouping == FlexibleGrouping.ROOM) {
+                List<FlexibleDateOption> options = new ArrayList<>();
+                for (int i = 0; i < preference.length && options.size() < limit; i++) {
+                    int start = preference[i];
+                    if (starts.get(start) && !isHeld(room, nightStarts, start, nights)) {
+                        options.add(new FlexibleDateOption(firstStart.plusDays(start),
+                                firstStart.plusDays(start + nights), start - requested, 1));
+                    }
+                }
+                if (!options.isEmpty()) {
+                    responses.add(new FlexibleAvailabilityResponse(room.getId(), room.getRoomNumber(), room.getType(), options));
+                }
+            } else if (room.getType() != null) {
+                int[] free = roomsFreeByType.computeIfAbsent(room.getType(), t -> new int[startNights]);
+                for (int start = starts.nextSetBit(0); start >= 0; start = starts.nextSetBit(start + 1)) {
+                    if (!isHeld(room, nightStarts, start, nights)) {
+                        free[start]++;
+                    }
+                }
+            }
+        });
+        roomsFreeByType.forEach((roomType, free) -> {
+            List<FlexibleDateOption> options = new ArrayList<>();
+            for (int i = 0; i < preference.length && options.size() < limit; i++) {
+                int start = preference[i];
+                if (free[start] > 0) {
+                    options.add(new FlexibleDateOption(firstStart.plusDays(start),
+                            firstStart.plusDays(start + nights), start - requested, free[start]));
+                }
+            }
+            if (!options.isEmpty()) {
+                responses.add(new FlexibleAvailabilityResponse(null, null, roomType, options));
+            }
+        });
+        return responses;
+    }
+
+    /**
+     * Answers every range of a batch from one snapshot of the room stays: the {@link RoomAvailabilityIndex}
+     * once it is loaded, otherwise a single bookings query spanning all ranges. Each range applies the
+     * same rules as {@link #getAvailableRooms}, including checkout holds, and rooms are in room number order.
+     */
+    public AvailabilityBatchResponse getAvailabilityBatch(List<AvailabilityBatchRequest.Range> ranges,
+                                                          AvailabilityBatchRequest.Format format) {
+        ZoneId zoneId = ZoneId.systemDefault();
+        Instant[] starts = new Instant[ranges.size()];
+        Instant[] ends = new Instant[ranges.size()];
+        Instant earliest = null;
+        Instant latest = null;
+        for (int i = 0; i < ranges.size(); i++) {
+            AvailabilityBatchRequest.Range range = ranges.get(i);
+            validateSearchDates(range.getFromDate(), range.getToDate());
+            starts[i] = range.getFromDate().atStartOfDay(zoneId).toInstant();
+            ends[i] = range.getToDate().atStartOfDay(zoneId).toInstant();
+            earliest = earliest == null || starts[i].isBefore(earliest) ? starts[i] : earliest;
+            latest = latest == null || ends[i].isAfter(latest) ? ends[i] : latest;
+        }
+
+        Map<Room, RoomIntervals> snapshot = findStaysByRoom(null, earliest, latest);
+        List<Room> rooms = new ArrayList<>(snapshot.keySet());
+        RoomIntervals[] stays = snapshot.values().toArray(new RoomIntervals[0]);
+        boolean bitmap = format == AvailabilityBatchRequest.Format.BITMAP;
+        List<AvailabilityBatchResponse.RangeAvailability> results = new ArrayList<>(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            long startMillis = starts[i].toEpochMilli();
+            long endMillis = ends[i].toEpochMilli();
+            BitSet available = new BitSet(rooms.size());
+            for (int r = 0; r < rooms.size(); r++) {
+                if (!stays[r].overlaps(startMillis, endMillis)
+                        && !reservationHoldService.isHeld(rooms.get(r).getId(), starts[i], ends[i], null)) {
+                    available.set(r);
+                }
+            }
+            AvailabilityBatchRequest.Range range = ranges.get(i);
+            if (bitmap) {
+                results.add(new AvailabilityBatchResponse.RangeAvailability(range.getFromDate(), range.getToDate(),
+                        available.cardinality(), null, URL_ENCODER.encodeToString(available.toByteArray())));
+            } else {
+                List<UUID> roomIds = available.stream().mapToObj(r -> rooms.get(r).getId()).toList();
+                results.add(new AvailabilityBatchResponse.RangeAvailability(range.getFromDate(), range.getToDate(),
+                        roomIds.size(), roomIds, null));
+            }
+        }
+        return new AvailabilityBatchResponse(bitmap ? rooms.stream().map(Room::getId).toList() : null, results);
+    }
+
+    /**
+     * Builds the night-by-night calendar of each room from {@code from} (inclusive) to {@code to} (exclusive),
+     * in the order the rooms were requested. All rooms are served by one range query over their ACTIVE
+     * bookings plus the room rows; nights are projected as in {@link FlexibleDateSearch}, so a night is
+     * BOOKED exactly when a search for that single night would not return the room, and HELD if only a
+     * checkout hold blocks it. Prices come from {@link PricingEngine#nightlyPrices} without any discount.
+     *
+     * @throws IllegalArgumentException if a room does not exist or the range is invalid
+     */
+    public List<RoomCalendarResponse> getCalendars(List<UUID> roomIds, LocalDate from, LocalDate to) {
+        validateSearchDates(from, to);
+        int nights = (int) Math.min(ChronoUnit.DAYS.between(from, to), Integer.MAX_VALUE);
+        if (nights < 1 || nights > MAX_CALENDAR_NIGHTS) {
+            throw new IllegalArgumentException("Calendar must cover between 1 and " + MAX_CALENDAR_NIGHTS + " nights");
+        }
+        Set<UUID> ids = new LinkedHashSet<>(roomIds);
+        if (ids.isEmpty() || ids.size() > MAX_CALENDAR_ROOMS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_CALENDAR_ROOMS + " rooms must be requested");
+        }
+        Map<UUID, Room> rooms = new HashMap<>();
+        roomRepository.findAllById(ids).forEach(room -> rooms.put(room.getId(), room));
+        for (UUID id : ids) {
+            if (!rooms.containsKey(id)) {
+                throw new IllegalArgumentException("Room not found: " + id);
+            }
+        }
+
+        ZoneId zoneId = ZoneId.systemDefault();
+        long[] nightStarts = new long[nights + 1];
+        for (int i = 0; i <= nights; i++) {
+            nightStarts[i] = from.plusDays(i).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        }
+        Map<UUID, RoomIntervals> staysById = new HashMap<>();
+        // Nights end inclusively, as in getAvailableRooms, so a stay starting exactly at the end is read as well
+        for (ActiveStay stay : bookingRepository.findActiveStaysForRoomsInRange(ids,
+                Instant.ofEpochMilli(nightStarts[0]), Instant.ofEpochMilli(nightStarts[nights] + 1))) {
+            staysById.put(stay.roomId(), staysById.getOrDefault(stay.roomId(), RoomIntervals.EMPTY)
+                    .with(stay.bookingId(), stay.checkIn().toEpochMilli(), stay.checkOut().toEpochMilli()));
+        }
+
+        List<RoomCalendarResponse> calendars = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Room room = rooms.get(id);
+            BitSet booked = FlexibleDateSearch.occupiedNights(nightStarts, staysById.getOrDefault(id, RoomIntervals.EMPTY));
+            Money[] prices = pricingEngine.nightlyPrices(room, from, nights);
+            List<CalendarRun> runs = new ArrayList<>();
+            CalendarRun.State runState = null;
+            Money runPrice = null;
+            int runStart = 0;
+            for (int night = 0; night < nights; night++) {
+                CalendarRun.State state = booked.get(night) ? CalendarRun.State.BOOKED
+                        : reservationHoldService.isHeld(id, Instant.ofEpochMilli(nightStarts[night]),
+                        Instant.ofEpochMilli(nightStarts[night + 1]), null) ? CalendarRun.State.HELD
+                        : CalendarRun.State.FREE;
+                if (night > runStart && (state != runState || !prices[night].equals(runPrice))) {
+                    runs.add(new CalendarRun(night - runStart, runState, runPrice.toBigDecimal()));
+                    runStart = night;
+                }
+                runState = state;
+                runPrice = prices[night];
+            }
+            runs.add(new CalendarRun(nights - runStart, runState, runPrice.toBigDecimal()));
+            calendars.add(new RoomCalendarResponse(id, room.getRoomNumber(), from, to, runs));
+        }
+        return calendars;
+    }
+
+    /**
+     * Stays of every room of {@code type} (all rooms if null) that may affect a search between {@code from}
+     * and {@code to}, in room number order.
+     */
+    private Map<Room, RoomIntervals> findStaysByRoom(String type, Instant from, Instant to) {
+        if (availabilityMode != AvailabilityMode.JPQL && availabilityIndex.isReady()) {
+            return availabilityIndex.findStaysByRoom(type);
+        }
+        Map<UUID, RoomIntervals> staysById = new HashMap<>();
+        // Searches treat their end as inclusive, so a stay starting exactly at the end is read as well
+        for (ActiveStay stay : bookingRepository.findActiveStaysInRange(from, to.plusMillis(1))) {
+            staysById.put(stay.roomId(), staysById.getOrDefault(stay.roomId(), RoomIntervals.EMPTY)
+                    .with(stay.bookingId(), stay.checkIn().toEpochMilli(), stay.checkOut().toEpochMilli()));
+        }
+        Map<Room, RoomIntervals> stays = new LinkedHashMap<>();
+        roomRepository.findAll().stream()
+                .filter(room -> type == null || type.equals(room.getType()))
+                .sorted(Comparator.comparing(Room::getRoomNumber))
+                .forEach(room -> stays.put(room, staysById.getOrDefault(room.getId(), RoomIntervals.EMPTY)));
+        return stays;
+    }
+
+    private boolean isHeld(Room room, long[] nightStarts, int start, int nights) {
+        return reservationHoldService.isHeld(room.getId(), Instant.ofEpochMilli(nightStarts[start]),
+                Instant.ofEpochMilli(nightStarts[start + nights]), null);
+    }
+
+    /** Offsets {@code 0..count-1} ordered by distance from {@code requested}, the earlier one first on ties. */
+    private static int[] nearestFirst(int count, int requested) {
+        int[] order = new int[count];
+        int n = 0;
+        order[n++] = requested;
+        for (int shift = 1; n < count; shift++) {
+            if (requested - shift >= 0) {
+                order[n++] = requested - shift;
+            }
+            if (requested + shift < count) {
+                order[n++] = requested + shift;
+            }
+        }
+        return order;
+    }
+
+    private static void validateSearchDates(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Both fromDate and toDate must be provided");
+        }
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must be before or equal to toDate");
+        }
+        if (fromDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("fromDate cannot be in the past");
+        }
+    }
+
+    private List<Room> findAvailableRooms(LocalDate fromDate, LocalDate toDate, Instant startDate, Instant endDate) {
+        if (availabilityMode == AvailabilityMode.BITSET && occupancyCalendar != null
+                && occupancyCalendar.isReady() && availabilityIndex.isReady()) {
+            Optional<List<UUID>> roomIds = occupancyCalendar.findAvailableRoomIds(fromDate, toDate);
+            if (roomIds.isPresent()) {
+                return roomIds.get().stream()
+                        .map(availabilityIndex::findRoom)
+                        .flatMap(Optional::stream)
+                        .collect(Collectors.toList());
+            }
+        }
+        if (availabilityMode == AvailabilityMode.INDEX && availabilityIndex.isReady()) {
+            return availabilityIndex.findAvailableRooms(startDate, endDate);
+        }
+        return roomRepository.findAvailableRoomsInDateRange(startDate, endDate);
+    }
+
     /**
      * Converts a Room entity to RoomResponse DTO.
      */
@@ -2,6 +2,7 @@ package com.codehunter.hotelbooking.service;
 
 import com.codehunter.hotelbooking.model.User;
 import com.codehunter.hotelbooking.repository.UserRepository;
+import com.codehunter.hotelbooking.security.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -9,6 +10,10 @@ import org.springframework.stereotype.Service;
 public class UserService {
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private TokenService tokenService;
 
     public User findByUsername(String username) {
         return userRepository.findByUsername(username)
@@ -29,7 +34,9 @@ public class UserService {
         user.setMembershipLevel(membershipLevel);
         user.setCreatedAt(java.time.Instant.now());
         user.setUpdatedAt(java.time.Instant.now());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userDetailsService.evict(username);
+        return saved;
     }
 
     public User updateMembershipLevel(java.util.UUID userId, User.MembershipLevel membershipLevel) {
@@ -37,6 +44,9 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
         user.setMembershipLevel(membershipLevel);
         user.setUpdatedAt(java.time.Instant.now());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userDetailsService.evict(user.getUsername());
+        tokenService.markChanged(userId);
+        return saved;
     }
 }
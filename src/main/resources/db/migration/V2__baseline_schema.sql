@@ -0,0 +1,44 @@
+-- V2__baseline_schema.sql: Baseline schema for the JPA entities.
+-- Until now the tables were created by hibernate ddl-auto=update, so every statement is guarded with
+-- IF NOT EXISTS and matches what Hibernate generated; existing databases pass through unchanged.
+
+CREATE TABLE IF NOT EXISTS users (
+    id               UUID                        NOT NULL PRIMARY KEY,
+    username         VARCHAR(255)                NOT NULL UNIQUE,
+    password         VARCHAR(255)                NOT NULL,
+    email            VARCHAR(255)                NOT NULL UNIQUE,
+    membership_level VARCHAR(255)                NOT NULL CHECK (membership_level IN ('CLASSIC', 'GOLD', 'DIAMOND')),
+    role             VARCHAR(255)                NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    created_at       TIMESTAMP(6) WITH TIME ZONE,
+    updated_at       TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS rooms (
+    id              UUID           NOT NULL PRIMARY KEY,
+    room_number     VARCHAR(255)   NOT NULL UNIQUE,
+    type            VARCHAR(255),
+    price_per_night NUMERIC(38, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id              UUID                        NOT NULL PRIMARY KEY,
+    user_id         UUID                        NOT NULL REFERENCES users (id),
+    room_id         UUID                        NOT NULL REFERENCES rooms (id),
+    check_in        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    check_out       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    total_amount    NUMERIC(38, 2)              NOT NULL,
+    discount_amount NUMERIC(38, 2)              NOT NULL,
+    final_amount    NUMERIC(38, 2)              NOT NULL,
+    status          VARCHAR(255)                NOT NULL CHECK (status IN ('ACTIVE', 'CANCELLED')),
+    created_at      TIMESTAMP(6) WITH TIME ZONE,
+    updated_at      TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS cancellations (
+    id             UUID                        NOT NULL PRIMARY KEY,
+    booking_id     UUID                        NOT NULL UNIQUE REFERENCES bookings (id),
+    cancelled_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    refund_amount  NUMERIC(38, 2)              NOT NULL,
+    penalty_amount NUMERIC(38, 2)              NOT NULL,
+    refund_status  VARCHAR(255)                NOT NULL CHECK (refund_status IN ('PENDING', 'COMPLETED', 'FAILED'))
+);
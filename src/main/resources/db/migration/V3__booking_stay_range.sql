@@ -0,0 +1,14 @@
+-- V3__booking_stay_range.sql: Index-backed overlap detection for bookings.
+-- Every booking exposes its stay as a half-open tstzrange [check_in, check_out). A GiST exclusion
+-- constraint over (room_id, stay) rejects two ACTIVE bookings of the same room with overlapping stays,
+-- so concurrent inserts cannot double-book a room, and the same index serves availability probes.
+-- Adding the constraint fails if the table already holds overlapping ACTIVE bookings; resolve those first.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD COLUMN IF NOT EXISTS stay TSTZRANGE GENERATED ALWAYS AS (tstzrange(check_in, check_out, '[)')) STORED;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_no_overlapping_active_stay
+        EXCLUDE USING gist (room_id WITH =, stay WITH &&) WHERE (status = 'ACTIVE');
@@ -0,0 +1,4 @@
+-- V4__bookings_user_check_in_index.sql: Serves "my bookings" keyset pagination
+-- (WHERE user_id = ? ORDER BY check_in DESC, id DESC) straight from the index.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_user_check_in ON bookings (user_id, check_in DESC, id DESC);
@@ -0,0 +1,12 @@
+-- V5__cancellation_refund_queue.sql: Turns cancellations into a refund work queue.
+-- PENDING rows are claimed by the refund worker with FOR UPDATE SKIP LOCKED; next_attempt_at doubles as the
+-- lease of a claimed row and as the retry time after a failed attempt.
+
+ALTER TABLE cancellations ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE cancellations ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE cancellations ADD COLUMN IF NOT EXISTS last_error VARCHAR(1000);
+ALTER TABLE cancellations ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP(6) WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_cancellations_pending_due
+    ON cancellations (next_attempt_at)
+    WHERE refund_status = 'PENDING';
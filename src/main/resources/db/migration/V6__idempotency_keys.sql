@@ -0,0 +1,21 @@
+-- V6__idempotency_keys.sql: Remembers the outcome of booking requests sent with an Idempotency-Key header.
+-- A row is inserted IN_PROGRESS before the booking is attempted and switched to COMPLETED, with the JSON
+-- response, in the same transaction that inserts the booking. locked_until bounds how long an unfinished
+-- attempt blocks retries; rows are purged once expires_at has passed. claim_token identifies the attempt
+-- holding an IN_PROGRESS row: completing or releasing the key requires it, so an attempt whose lock ran out
+-- and whose key was re-claimed by a retry can do neither.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    user_id UUID NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response TEXT,
+    claim_token UUID,
+    locked_until TIMESTAMP(6) WITH TIME ZONE,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
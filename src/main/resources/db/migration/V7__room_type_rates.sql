@@ -0,0 +1,18 @@
+-- V7__room_type_rates.sql: Seasonal rate plans per room type.
+-- Each row is a season [start_date, end_date) whose nights are priced at the room's price_per_night times
+-- weekday_bps / 10000 (Sunday-Thursday nights) or weekend_bps / 10000 (Friday and Saturday nights).
+-- Nights outside every season are charged the plain price_per_night. Seasons of one type never overlap.
+
+CREATE TABLE IF NOT EXISTS room_type_rates (
+    id UUID PRIMARY KEY,
+    room_type VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    weekday_bps INTEGER NOT NULL,
+    weekend_bps INTEGER NOT NULL,
+    CONSTRAINT chk_room_type_rates_dates CHECK (end_date > start_date),
+    CONSTRAINT chk_room_type_rates_bps CHECK (weekday_bps > 0 AND weekend_bps > 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_room_type_rates_room_type ON room_type_rates (room_type, start_date);
@@ -0,0 +1,14 @@
+-- V8__booking_room_assignment.sql: Lets the nightly defragmentation job move bookings between rooms.
+-- room_pinned marks bookings whose guest chose the room; only unpinned bookings (made by room type) may be
+-- reassigned. Existing bookings all named a room and stay pinned.
+-- The overlap exclusion becomes DEFERRABLE INITIALLY IMMEDIATE: ordinary writes are still checked per
+-- statement, while the job defers the check to commit so a batch of moves may swap rooms between bookings.
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS room_pinned BOOLEAN NOT NULL DEFAULT TRUE;
+
+ALTER TABLE bookings DROP CONSTRAINT IF EXISTS bookings_no_overlapping_active_stay;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_no_overlapping_active_stay
+        EXCLUDE USING gist (room_id WITH =, stay WITH &&) WHERE (status = 'ACTIVE')
+        DEFERRABLE INITIALLY IMMEDIATE;
@@ -0,0 +1,11 @@
+-- V9__room_search_indexes.sql: Indexes behind the filtered room catalog search (GET /api/v1/rooms/search).
+-- Keyset pages walk (price_per_night, id) or room_number in order, within one type when the search is
+-- filtered by type, so a page is a short index range scan however deep the client pages. The availability
+-- filter probes each candidate room's ACTIVE stays by check-in without touching the bookings heap.
+
+CREATE INDEX IF NOT EXISTS idx_rooms_price ON rooms (price_per_night, id);
+CREATE INDEX IF NOT EXISTS idx_rooms_type_price ON rooms (type, price_per_night, id);
+CREATE INDEX IF NOT EXISTS idx_rooms_type_room_number ON rooms (type, room_number);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_active_room_check_in ON bookings (room_id, check_in) INCLUDE (check_out)
+    WHERE status = 'ACTIVE';
@@ -7,6 +7,8 @@ import com.codehunter.hotelbooking.model.User;
 import com.codehunter.hotelbooking.repository.BookingRepository;
 import com.codehunter.hotelbooking.repository.RoomRepository;
 import com.codehunter.hotelbooking.repository.UserRepository;
+import com.codehunter.hotelbooking.service.BookingExportService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,18 +20,25 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -48,6 +57,8 @@ class AdminControllerIntegrationTest {
     private BookingRepository bookingRepository;
     @Autowired
     private RoomRepository roomRepository;
+    @Autowired
+    private BookingExportService bookingExportService;
 
     private User adminUser;
     private User regularUser;
@@ -181,4 +192,82 @@ class AdminControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void testExportStreamsFilteredBookingsAsCsvAndNdjson() throws Exception {
+        Room room = new Room();
+        room.setRoomNumber("AdminTest104");
+        room.setType("STANDARD");
+        room.setPricePerNight(BigDecimal.valueOf(100));
+        room = roomRepository.save(room);
+        Booking booking = new Booking();
+        booking.setUser(regularUser);
+        booking.setRoom(room);
+        booking.setCheckIn(Instant.parse("2030-01-10T14:00:00Z"));
+        booking.setCheckOut(Instant.parse("2030-01-12T12:00:00Z"));
+        booking.setTotalAmount(BigDecimal.valueOf(200));
+        booking.setDiscountAmount(BigDecimal.ZERO);
+        booking.setFinalAmount(BigDecimal.valueOf(200));
+        booking.setStatus(Booking.Status.ACTIVE);
+        booking.setCreatedAt(Instant.now());
+        booking.setUpdatedAt(Instant.now());
+        bookingRepository.saveAndFlush(booking);
+        Booking later = new Booking();
+        later.setUser(regularUser);
+        later.setRoom(room);
+        later.setCheckIn(Instant.parse("2030-01-20T14:00:00Z"));
+        later.setCheckOut(Instant.parse("2030-01-22T12:00:00Z"));
+        later.setTotalAmount(BigDecimal.valueOf(200));
+        later.setDiscountAmount(BigDecimal.ZERO);
+        later.setFinalAmount(BigDecimal.valueOf(200));
+        later.setStatus(Booking.Status.ACTIVE);
+        later.setCreatedAt(Instant.now());
+        later.setUpdatedAt(Instant.now());
+        bookingRepository.saveAndFlush(later);
+
+        // The export runs on the calling thread here so it sees the uncommitted test data
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        long rows = bookingExportService.export(null, null, Booking.Status.ACTIVE, room.getId(), BookingExportService.Format.CSV, csv);
+        assertEquals(2, rows);
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith(booking.getId() + "," + regularUser.getId() + ",userTest," + room.getId() + ",AdminTest104,2030-01-10T14:00:00Z"));
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        bookingExportService.export(Instant.parse("2030-01-01T00:00:00Z"), Instant.parse("2030-02-01T00:00:00Z"),
+                null, room.getId(), BookingExportService.Format.NDJSON, ndjson);
+        String[] ndjsonLines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, ndjsonLines.length);
+        for (String line : ndjsonLines) {
+            assertTrue(line.startsWith("{"), "line starts with a separator: [" + line + "]");
+        }
+        JsonNode row = objectMapper.readTree(ndjsonLines[0]);
+        assertEquals(booking.getId().toString(), row.get("bookingId").asText());
+        assertEquals("ACTIVE", row.get("status").asText());
+        assertEquals(later.getId().toString(), objectMapper.readTree(ndjsonLines[1]).get("bookingId").asText());
+
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        assertEquals(0, bookingExportService.export(null, null, Booking.Status.CANCELLED, room.getId(), BookingExportService.Format.NDJSON, empty));
+    }
+
+    @Test
+    @WithMockUser(username = "adminTest", roles = {"ADMIN"})
+    void testExportIsNotCutOffByContainerAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/admin/users/bookings/export")
+                        .param("status", "CANCELLED")
+                        .param("roomId", UUID.randomUUID().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Well past the 30 s container default, so long exports can finish streaming
+        assertEquals(3_600_000L, result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "userTest", roles = {"USER"})
+    void testNonAdminCannotExportBookings() throws Exception {
+        mockMvc.perform(get("/api/v1/admin/users/bookings/export"))
+                .andExpect(status().isForbidden());
+    }
 }
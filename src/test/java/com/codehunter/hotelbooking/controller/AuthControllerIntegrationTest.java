@@ -0,0 +1,107 @@
+package com.codehunter.hotelbooking.controller;
+
+import com.codehunter.hotelbooking.TestContainerConfig;
+import com.codehunter.hotelbooking.dto.TokenResponse;
+import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.repository.UserRepository;
+import com.codehunter.hotelbooking.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestContainerConfig.class)
+@Transactional
+@ActiveProfiles("gemini")
+class AuthControllerIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("tokenuser");
+        user.setEmail("tokenuser@example.com");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setMembershipLevel(User.MembershipLevel.GOLD);
+        user.setRole(User.Role.USER);
+        userRepository.save(user);
+    }
+
+    @Test
+    void loginIssuesTokenThatAuthenticatesUntilLogout() throws Exception {
+        String token = login("secret");
+
+        mockMvc.perform(get("/api/v1/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("tokenuser"));
+
+        String refreshed = objectMapper.readValue(mockMvc.perform(post("/api/v1/auth/refresh")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), TokenResponse.class).getToken();
+        assertNotEquals(token, refreshed);
+        // The refreshed token replaces the old one
+        mockMvc.perform(get("/api/v1/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/v1/auth/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/v1/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void membershipChangeIsVisibleWithExistingToken() throws Exception {
+        String token = login("secret");
+        User user = userRepository.findByUsername("tokenuser").orElseThrow();
+        userService.updateMembershipLevel(user.getId(), User.MembershipLevel.DIAMOND);
+
+        mockMvc.perform(get("/api/v1/users/me/membership").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.membershipLevel").value("DIAMOND"));
+    }
+
+    @Test
+    void loginWithWrongPasswordIsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"tokenuser\",\"password\":\"wrong\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String login(String password) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"tokenuser\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, TokenResponse.class).getToken();
+    }
+}
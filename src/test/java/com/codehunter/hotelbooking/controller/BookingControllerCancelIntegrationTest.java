@@ -2,11 +2,16 @@ package com.codehunter.hotelbooking.controller;
 
 import com.codehunter.hotelbooking.TestContainerConfig;
 import com.codehunter.hotelbooking.dto.BookingRequest;
+import com.codehunter.hotelbooking.dto.CancellationResponse;
+import com.codehunter.hotelbooking.model.Booking;
+import com.codehunter.hotelbooking.model.Cancellation;
 import com.codehunter.hotelbooking.model.Room;
 import com.codehunter.hotelbooking.model.User;
 import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.CancellationRepository;
 import com.codehunter.hotelbooking.repository.RoomRepository;
 import com.codehunter.hotelbooking.repository.UserRepository;
+import com.codehunter.hotelbooking.service.BookingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +30,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -45,6 +51,10 @@ class BookingControllerCancelIntegrationTest {
     private UserRepository userRepository;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private CancellationRepository cancellationRepository;
+    @Autowired
+    private BookingService bookingService;
 
     private Room room;
     private User user;
@@ -90,7 +100,11 @@ class BookingControllerCancelIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.refundAmount").value(100.0))
                 .andExpect(jsonPath("$.penaltyAmount").value(0.0))
-                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("Full refund")));
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("Full refund")))
+                .andExpect(jsonPath("$.refundStatus").value("PENDING"));
+        Cancellation cancellation = cancellationRepository.findByBookingId(bookingId).orElseThrow();
+        assertEquals(Cancellation.RefundStatus.PENDING, cancellation.getRefundStatus());
+        assertEquals(0, cancellation.getRefundAmount().compareTo(BigDecimal.valueOf(100)));
     }
 
     @Test
@@ -104,5 +118,14 @@ class BookingControllerCancelIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").exists());
     }
-}
 
+    @Test
+    void testCancelBooking_WithoutUser() {
+        // The path used by the assistant tools: no owner to check against
+        CancellationResponse response = bookingService.cancelBooking(bookingId, Instant.now());
+        assertEquals(bookingId, response.getBookingId());
+        assertEquals(Booking.Status.CANCELLED, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+        assertEquals(Cancellation.RefundStatus.PENDING,
+                cancellationRepository.findByBookingId(bookingId).orElseThrow().getRefundStatus());
+    }
+}
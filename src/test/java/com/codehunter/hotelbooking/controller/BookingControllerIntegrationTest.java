@@ -1,6 +1,7 @@
 package com.codehunter.hotelbooking.controller;
 
 import com.codehunter.hotelbooking.TestContainerConfig;
+import com.codehunter.hotelbooking.dto.BookingPageResponse;
 import com.codehunter.hotelbooking.dto.BookingRequest;
 import com.codehunter.hotelbooking.dto.BookingResponse;
 import com.codehunter.hotelbooking.model.Room;
@@ -24,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -119,6 +121,24 @@ class BookingControllerIntegrationTest {
         assertEquals(true, bookingExists, "Booking should be created in the database");
     }
 
+    @Test
+    @WithMockUser(username = "testuser")
+    void testCreateBooking_OverlappingActiveBooking_ShouldReturnConflict() throws Exception {
+        mockMvc.perform(post("/api/v1/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bookingRequest)))
+                .andExpect(status().isOk());
+
+        BookingRequest overlapping = new BookingRequest();
+        overlapping.setRoomId(bookingRequest.getRoomId());
+        overlapping.setCheckIn(Instant.parse("2025-10-16T14:00:00Z"));
+        overlapping.setCheckOut(Instant.parse("2025-10-18T12:00:00Z"));
+        mockMvc.perform(post("/api/v1/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(overlapping)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @WithMockUser(username = "testuser")
     void testCreateBooking_InvalidDates() throws Exception {
@@ -202,7 +222,8 @@ class BookingControllerIntegrationTest {
                 .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
                 .andExpect(status().isOk())
                 .andReturn().getResponse().getContentAsString();
-        BookingResponse[] bookings = objectMapper.readValue(response, BookingResponse[].class);
+        List<BookingResponse> bookings = objectMapper.readValue(response, BookingPageResponse.class).getItems();
+        assertEquals(1, bookings.size());
         // Should only return bookings for the first user
         for (BookingResponse b : bookings) {
             assertEquals(user.getId(), b.getUserId(), "Should only return bookings for the authenticated user");
@@ -212,4 +233,163 @@ class BookingControllerIntegrationTest {
             assertEquals("testuser", b.getMembershipLevel().name().toLowerCase().contains("classic") ? user.getUsername() : "testuser");
         }
     }
+
+    @Test
+    void testGetMyBookings_PagesNewestFirstWithCursor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            BookingRequest req = new BookingRequest();
+            req.setRoomId(room.getId());
+            req.setCheckIn(Instant.parse("2025-11-01T14:00:00Z").plusSeconds(i * 3 * 86400L));
+            req.setCheckOut(Instant.parse("2025-11-03T12:00:00Z").plusSeconds(i * 3 * 86400L));
+            mockMvc.perform(post("/api/v1/bookings")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req))
+                    .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                    .andExpect(status().isOk());
+        }
+
+        String first = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/v1/bookings/my")
+                .param("limit", "2")
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        BookingPageResponse firstPage = objectMapper.readValue(first, BookingPageResponse.class);
+        assertEquals(2, firstPage.getItems().size());
+        assertEquals(Instant.parse("2025-11-07T14:00:00Z"), firstPage.getItems().get(0).getCheckIn());
+        assertNotNull(firstPage.getNextCursor());
+
+        String second = mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/v1/bookings/my")
+                .param("limit", "2")
+                .param("cursor", firstPage.getNextCursor())
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        BookingPageResponse secondPage = objectMapper.readValue(second, BookingPageResponse.class);
+        assertEquals(1, secondPage.getItems().size());
+        assertEquals(Instant.parse("2025-11-01T14:00:00Z"), secondPage.getItems().get(0).getCheckIn());
+        assertEquals(null, secondPage.getNextCursor());
+
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/api/v1/bookings/my")
+                .param("status", "CANCELLED")
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    void testBulkBooking_BooksAllRoomsOrRejectsGroupWithPerRoomFailures() throws Exception {
+        Room second = saveRoom("IntTest102");
+        Room third = saveRoom("IntTest103");
+        Instant checkIn = Instant.parse("2031-06-01T14:00:00Z");
+        Instant checkOut = Instant.parse("2031-06-03T12:00:00Z");
+
+        mockMvc.perform(post("/api/v1/bookings/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(java.util.Map.of(
+                        "roomIds", List.of(room.getId(), second.getId()), "checkIn", checkIn, "checkOut", checkOut)))
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].roomId").value(room.getId().toString()))
+                .andExpect(jsonPath("$[1].roomId").value(second.getId().toString()))
+                .andExpect(jsonPath("$[1].finalAmount").value(200.00));
+
+        UUID unknown = UUID.randomUUID();
+        mockMvc.perform(post("/api/v1/bookings/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(java.util.Map.of(
+                        "roomIds", List.of(third.getId(), second.getId(), unknown), "checkIn", checkIn, "checkOut", checkOut)))
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.failures.length()").value(2))
+                .andExpect(jsonPath("$.failures[0].roomId").value(second.getId().toString()))
+                .andExpect(jsonPath("$.failures[0].reason").value("Room is already booked for the selected dates"))
+                .andExpect(jsonPath("$.failures[1].roomId").value(unknown.toString()))
+                .andExpect(jsonPath("$.failures[1].reason").value("Room not found"));
+        // All or nothing: the free room was not booked either
+        assertEquals(false, bookingRepository.existsActiveOverlap(third.getId(), checkIn, checkOut));
+    }
+
+    @Test
+    void testBookingByType_AssignsFreeRoomOfType() throws Exception {
+        // The bootstrapped rooms are in the availability index; room 103 is the only Suite
+        Room suite = roomRepository.findByRoomNumber("103").orElseThrow();
+        java.util.Map<String, Object> request = java.util.Map.of("roomType", suite.getType(),
+                "checkIn", Instant.parse("2032-02-01T14:00:00Z"), "checkOut", Instant.parse("2032-02-03T12:00:00Z"));
+
+        mockMvc.perform(post("/api/v1/bookings/by-type")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roomId").value(suite.getId().toString()));
+        mockMvc.perform(post("/api/v1/bookings/by-type")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testPreviewRefunds_BatchReturnsOwnBookingsInRequestOrder() throws Exception {
+        User otherUser = new User();
+        otherUser.setUsername("otherpreview");
+        otherUser.setEmail("otherpreview@example.com");
+        otherUser.setPassword("password");
+        otherUser.setMembershipLevel(User.MembershipLevel.CLASSIC);
+        otherUser.setRole(User.Role.USER);
+        userRepository.save(otherUser);
+
+        Instant soon = Instant.now().plus(java.time.Duration.ofHours(30));
+        UUID halfRefund = book(user, soon, soon.plus(java.time.Duration.ofDays(2)));
+        UUID fullRefund = book(user, Instant.parse("2031-03-01T14:00:00Z"), Instant.parse("2031-03-03T12:00:00Z"));
+        UUID notOwned = book(otherUser, Instant.parse("2031-04-01T14:00:00Z"), Instant.parse("2031-04-03T12:00:00Z"));
+
+        String body = objectMapper.writeValueAsString(java.util.Map.of("bookingIds", List.of(fullRefund, notOwned, halfRefund)));
+        mockMvc.perform(post("/api/v1/bookings/refund-preview")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(user.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].bookingId").value(fullRefund.toString()))
+                .andExpect(jsonPath("$[0].refundAmount").value(200.00))
+                .andExpect(jsonPath("$[0].penaltyAmount").value(0))
+                .andExpect(jsonPath("$[1].bookingId").value(notOwned.toString()))
+                .andExpect(jsonPath("$[1].refundAmount").doesNotExist())
+                .andExpect(jsonPath("$[1].message").value("Booking not found: " + notOwned))
+                .andExpect(jsonPath("$[2].bookingId").value(halfRefund.toString()))
+                .andExpect(jsonPath("$[2].message").value("50% refund (cancelled 24-48h before check-in)"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void testPreviewRefunds_RejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/bookings/refund-preview")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Room saveRoom(String roomNumber) {
+        Room extra = new Room();
+        extra.setRoomNumber(roomNumber);
+        extra.setType("STANDARD");
+        extra.setPricePerNight(BigDecimal.valueOf(100.00));
+        return roomRepository.save(extra);
+    }
+
+    private UUID book(User owner, Instant checkIn, Instant checkOut) throws Exception {
+        BookingRequest req = new BookingRequest();
+        req.setRoomId(room.getId());
+        req.setCheckIn(checkIn);
+        req.setCheckOut(checkOut);
+        String content = mockMvc.perform(post("/api/v1/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req))
+                .with(org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user(owner.getUsername())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(content, BookingResponse.class).getBookingId();
+    }
 }
@@ -4,6 +4,7 @@ import com.codehunter.hotelbooking.TestContainerConfig;
 import com.codehunter.hotelbooking.dto.BookingRequest;
 import com.codehunter.hotelbooking.dto.BookingResponse;
 import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
 import com.codehunter.hotelbooking.service.BookingService;
 import com.codehunter.hotelbooking.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -24,7 +25,10 @@ import java.time.Instant;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -79,7 +83,8 @@ class BookingControllerTest {
     @WithMockUser(username = "testuser")
     void createBooking_shouldReturnBookingResponse() throws Exception {
         when(userService.findByUsername(eq("testuser"))).thenReturn(appUser);
-        when(bookingService.createBooking(any(BookingRequest.class), eq(appUser))).thenReturn(bookingResponse);
+        when(bookingService.createBooking(any(BookingRequest.class), argThat((AppUserPrincipal p) -> p.getId().equals(appUser.getId()))))
+                .thenReturn(bookingResponse);
 
         mockMvc.perform(post("/api/v1/bookings")
                         .with(csrf())
@@ -93,5 +98,32 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.finalAmount").value(200))
                 .andExpect(jsonPath("$.status").value("ACTIVE"));
     }
-}
 
+    @Test
+    @WithMockUser(username = "testuser")
+    void createBooking_withIdempotencyKey_replaysResponseWithoutCreatingAgain() throws Exception {
+        when(userService.findByUsername(eq("testuser"))).thenReturn(appUser);
+        when(bookingService.createBooking(any(BookingRequest.class), any(AppUserPrincipal.class))).thenReturn(bookingResponse);
+        String key = UUID.randomUUID().toString();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/bookings")
+                            .with(csrf())
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(bookingRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.bookingId").value(bookingResponse.getBookingId().toString()));
+        }
+        verify(bookingService, times(1)).createBooking(any(BookingRequest.class), any(AppUserPrincipal.class));
+
+        // Same key, different request
+        bookingRequest.setCheckOut(Instant.parse("2025-10-13T12:00:00Z"));
+        mockMvc.perform(post("/api/v1/bookings")
+                        .with(csrf())
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequest)))
+                .andExpect(status().isBadRequest());
+    }
+}
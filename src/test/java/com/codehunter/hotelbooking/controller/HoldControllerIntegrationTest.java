@@ -0,0 +1,144 @@
+package com.codehunter.hotelbooking.controller;
+
+import com.codehunter.hotelbooking.TestContainerConfig;
+import com.codehunter.hotelbooking.dto.BookingRequest;
+import com.codehunter.hotelbooking.dto.HoldRequest;
+import com.codehunter.hotelbooking.dto.HoldResponse;
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@Import(TestContainerConfig.class)
+@ActiveProfiles("gemini")
+class HoldControllerIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Room room;
+    private User holder;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        room = new Room();
+        room.setRoomNumber("HoldTest101");
+        room.setType("STANDARD");
+        room.setPricePerNight(BigDecimal.valueOf(100));
+        room = roomRepository.save(room);
+        holder = saveUser("holduser");
+        other = saveUser("holdother");
+    }
+
+    @Test
+    void testHold_BlocksOthersAndConvertsIntoBooking() throws Exception {
+        HoldRequest holdRequest = new HoldRequest();
+        holdRequest.setRoomId(room.getId());
+        holdRequest.setCheckIn(daysAhead(60).plus(14, ChronoUnit.HOURS));
+        holdRequest.setCheckOut(daysAhead(62).plus(12, ChronoUnit.HOURS));
+        String content = mockMvc.perform(post("/api/v1/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(holdRequest))
+                        .with(user(holder.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresAt").exists())
+                .andReturn().getResponse().getContentAsString();
+        HoldResponse hold = objectMapper.readValue(content, HoldResponse.class);
+
+        BookingRequest booking = new BookingRequest(room.getId(), holdRequest.getCheckIn(), holdRequest.getCheckOut());
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking))
+                        .with(user(other.getUsername())))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/v1/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(holdRequest))
+                        .with(user(other.getUsername())))
+                .andExpect(status().isConflict());
+
+        booking.setHoldId(hold.getHoldId());
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking))
+                        .with(user(holder.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(holder.getId().toString()));
+    }
+
+    @Test
+    void testReleaseHold_OnlyByOwner() throws Exception {
+        HoldRequest holdRequest = new HoldRequest();
+        holdRequest.setRoomId(room.getId());
+        holdRequest.setCheckIn(daysAhead(90).plus(14, ChronoUnit.HOURS));
+        holdRequest.setCheckOut(daysAhead(91).plus(12, ChronoUnit.HOURS));
+        HoldResponse hold = objectMapper.readValue(mockMvc.perform(post("/api/v1/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(holdRequest))
+                        .with(user(holder.getUsername())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), HoldResponse.class);
+
+        mockMvc.perform(delete("/api/v1/holds/" + hold.getHoldId()).with(user(other.getUsername())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/v1/holds/" + hold.getHoldId()).with(user(holder.getUsername())))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testHold_PastCheckInIsRejected() throws Exception {
+        HoldRequest holdRequest = new HoldRequest();
+        holdRequest.setRoomId(room.getId());
+        holdRequest.setCheckIn(daysAhead(-2));
+        holdRequest.setCheckOut(daysAhead(-1));
+        mockMvc.perform(post("/api/v1/holds")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(holdRequest))
+                        .with(user(holder.getUsername())))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static Instant daysAhead(int days) {
+        return Instant.now().truncatedTo(ChronoUnit.DAYS).plus(days, ChronoUnit.DAYS);
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setMembershipLevel(User.MembershipLevel.CLASSIC);
+        user.setRole(User.Role.USER);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,114 @@
+package com.codehunter.hotelbooking.controller;
+
+import com.codehunter.hotelbooking.TestContainerConfig;
+import com.codehunter.hotelbooking.dto.BookingRequest;
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@Import(TestContainerConfig.class)
+@ActiveProfiles("gemini")
+class RateControllerIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @WithMockUser(username = "rateadmin", roles = {"ADMIN"})
+    void testSeasonalRatesPriceNewBookings() throws Exception {
+        // A room type no other test prices, so its table is first built inside this (never committed) transaction
+        String roomType = "RATE-TEST-SUITE";
+        Room room = new Room();
+        room.setRoomNumber("RateTest101");
+        room.setType(roomType);
+        room.setPricePerNight(BigDecimal.valueOf(100));
+        room = roomRepository.save(room);
+        User guest = new User();
+        guest.setUsername("rateguest");
+        guest.setEmail("rateguest@example.com");
+        guest.setPassword("password");
+        guest.setMembershipLevel(User.MembershipLevel.GOLD);
+        guest.setRole(User.Role.USER);
+        userRepository.save(guest);
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate monday = today.plusDays(7 - today.getDayOfWeek().getValue() + 8L);
+        String seasons = "{\"seasons\":[{\"name\":\"Peak\",\"startDate\":\"" + monday + "\",\"endDate\":\"" + monday.plusDays(7)
+                         + "\",\"weekdayRate\":1.2,\"weekendRate\":1.5}]}";
+        mockMvc.perform(put("/api/v1/admin/rates/" + roomType)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(seasons))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Peak"))
+                .andExpect(jsonPath("$[0].weekendRate").value(1.5));
+        mockMvc.perform(get("/api/v1/admin/rates/" + roomType))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].weekdayRate").value(1.2));
+
+        // Thursday to Sunday: one weekday night at 120.00, Friday and Saturday at 150.00, less 10% GOLD discount
+        BookingRequest booking = new BookingRequest(room.getId(),
+                monday.plusDays(3).atTime(14, 0).toInstant(ZoneOffset.UTC),
+                monday.plusDays(6).atTime(12, 0).toInstant(ZoneOffset.UTC));
+        mockMvc.perform(post("/api/v1/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(booking))
+                        .with(user(guest.getUsername())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAmount").value(420.00))
+                .andExpect(jsonPath("$.discountAmount").value(42.00))
+                .andExpect(jsonPath("$.finalAmount").value(378.00));
+    }
+
+    @Test
+    @WithMockUser(username = "rateadmin", roles = {"ADMIN"})
+    void testOverlappingSeasonsAreRejected() throws Exception {
+        String seasons = "{\"seasons\":["
+                         + "{\"startDate\":\"2031-01-01\",\"endDate\":\"2031-02-01\",\"weekdayRate\":1.1,\"weekendRate\":1.1},"
+                         + "{\"startDate\":\"2031-01-15\",\"endDate\":\"2031-03-01\",\"weekdayRate\":1.3,\"weekendRate\":1.3}]}";
+        mockMvc.perform(put("/api/v1/admin/rates/STANDARD")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(seasons))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    void testNonAdminCannotChangeRates() throws Exception {
+        mockMvc.perform(put("/api/v1/admin/rates/STANDARD")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"seasons\":[]}"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +28,7 @@ import java.time.ZonedDateTime;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -34,6 +36,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Import(TestContainerConfig.class)
 @Transactional
 @ActiveProfiles("gemini")
+// Bookings are seeded straight through the repository and rolled back, so exercise the query path uncached
+@TestPropertySource(properties = {"app.availability.mode=JPQL", "app.availability.cache.enabled=false"})
 class RoomControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
@@ -241,6 +245,175 @@ class RoomControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getAvailability_CountsAvailableRoomsPerType() throws Exception {
+        LocalDate fromDate = LocalDate.now().plusDays(5);
+        LocalDate toDate = LocalDate.now().plusDays(8);
+        ZoneId zoneId = ZoneId.systemDefault();
+        bookingRepository.save(createBooking(user, room1,
+                fromDate.atStartOfDay(zoneId).toInstant(), fromDate.plusDays(1).atStartOfDay(zoneId).toInstant()));
+
+        mockMvc.perform(get("/api/v1/rooms/availability")
+                        .param("fromDate", fromDate.toString())
+                        .param("toDate", toDate.toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.type == '" + room1.getType() + "')].availableRooms").value(org.hamcrest.Matchers.contains(0)))
+                .andExpect(jsonPath("$[?(@.type == '" + room2.getType() + "')].availableRooms").value(org.hamcrest.Matchers.contains(1)));
+    }
+
+    @Test
+    void getFlexibleAvailability_ReturnsNearestFreeStartDates() throws Exception {
+        LocalDate fromDate = LocalDate.now().plusDays(5);
+        ZoneId zoneId = ZoneId.systemDefault();
+        bookingRepository.save(createBooking(user, room1,
+                fromDate.atStartOfDay(zoneId).toInstant(), fromDate.plusDays(3).atStartOfDay(zoneId).toInstant()));
+
+        // Three days either side: checking in three days early and three days late both fit, the earlier wins
+        mockMvc.perform(get("/api/v1/rooms/flexible")
+                        .param("fromDate", fromDate.toString())
+                        .param("nights", "2")
+                        .param("flexDays", "3")
+                        .param("type", room1.getType())
+                        .param("groupBy", "ROOM")
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].roomNumber").value("101"))
+                .andExpect(jsonPath("$[0].options.length()").value(2))
+                .andExpect(jsonPath("$[0].options[0].checkIn").value(fromDate.minusDays(3).toString()))
+                .andExpect(jsonPath("$[0].options[0].shiftDays").value(-3))
+                .andExpect(jsonPath("$[0].options[1].shiftDays").value(3));
+
+        mockMvc.perform(get("/api/v1/rooms/flexible")
+                        .param("fromDate", fromDate.toString())
+                        .param("nights", "0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAvailabilityBatch_AnswersEveryRange() throws Exception {
+        LocalDate fromDate = LocalDate.now().plusDays(5);
+        ZoneId zoneId = ZoneId.systemDefault();
+        bookingRepository.save(createBooking(user, room1,
+                fromDate.atStartOfDay(zoneId).toInstant(), fromDate.plusDays(1).atStartOfDay(zoneId).toInstant()));
+        String request = "{\"ranges\":["
+                         + "{\"fromDate\":\"" + fromDate + "\",\"toDate\":\"" + fromDate.plusDays(2) + "\"},"
+                         + "{\"fromDate\":\"" + fromDate.plusDays(3) + "\",\"toDate\":\"" + fromDate.plusDays(4) + "\"}]}";
+
+        mockMvc.perform(post("/api/v1/rooms/availability/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roomIds").doesNotExist())
+                .andExpect(jsonPath("$.ranges.length()").value(2))
+                .andExpect(jsonPath("$.ranges[0].availableRooms").value(4))
+                .andExpect(jsonPath("$.ranges[1].availableRooms").value(5))
+                .andExpect(jsonPath("$.ranges[1].availableRoomIds.length()").value(5));
+
+        mockMvc.perform(post("/api/v1/rooms/availability/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ranges\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchRooms_FiltersSortsAndPagesByKeyset() throws Exception {
+        String firstPage = mockMvc.perform(get("/api/v1/rooms/search")
+                        .param("minPrice", "150")
+                        .param("maxPrice", "250")
+                        .param("sort", "PRICE_DESC")
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].roomNumber").value("103"))
+                .andExpect(jsonPath("$.items[1].roomNumber").value("104"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/rooms/search")
+                        .param("minPrice", "150")
+                        .param("maxPrice", "250")
+                        .param("sort", "PRICE_DESC")
+                        .param("limit", "2")
+                        .param("cursor", cursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].roomNumber").value("105"))
+                .andExpect(jsonPath("$.items[1].roomNumber").value("102"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // A cursor is bound to the order it was issued for
+        mockMvc.perform(get("/api/v1/rooms/search")
+                        .param("sort", "PRICE_ASC")
+                        .param("cursor", cursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchRooms_WithDates_ExcludesBookedRooms() throws Exception {
+        LocalDate fromDate = LocalDate.now().plusDays(5);
+        ZoneId zoneId = ZoneId.systemDefault();
+        bookingRepository.save(createBooking(user, room3,
+                fromDate.atStartOfDay(zoneId).toInstant(), fromDate.plusDays(2).atStartOfDay(zoneId).toInstant()));
+
+        mockMvc.perform(get("/api/v1/rooms/search")
+                        .param("type", room3.getType())
+                        .param("fromDate", fromDate.toString())
+                        .param("toDate", fromDate.plusDays(1).toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        mockMvc.perform(get("/api/v1/rooms/search")
+                        .param("type", room3.getType())
+                        .param("fromDate", fromDate.plusDays(3).toString())
+                        .param("toDate", fromDate.plusDays(4).toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].roomNumber").value("103"));
+    }
+
+    @Test
+    void getCalendar_ReturnsRunLengthEncodedNights() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(5);
+        ZoneId zoneId = ZoneId.systemDefault();
+        bookingRepository.save(createBooking(user, room1,
+                from.plusDays(2).atTime(14, 0).atZone(zoneId).toInstant(), from.plusDays(4).atTime(12, 0).atZone(zoneId).toInstant()));
+
+        mockMvc.perform(get("/api/v1/rooms/" + room1.getId() + "/calendar")
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(7).toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roomNumber").value("101"))
+                .andExpect(jsonPath("$.runs.length()").value(3))
+                .andExpect(jsonPath("$.runs[0].nights").value(2))
+                .andExpect(jsonPath("$.runs[0].state").value("FREE"))
+                .andExpect(jsonPath("$.runs[0].price").value(100.00))
+                .andExpect(jsonPath("$.runs[1].nights").value(3))
+                .andExpect(jsonPath("$.runs[1].state").value("BOOKED"))
+                .andExpect(jsonPath("$.runs[2].nights").value(2));
+
+        mockMvc.perform(get("/api/v1/rooms/calendar")
+                        .param("roomIds", room2.getId() + "," + room1.getId())
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(7).toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].roomNumber").value("102"))
+                .andExpect(jsonPath("$[0].runs.length()").value(1))
+                .andExpect(jsonPath("$[1].runs[1].state").value("BOOKED"));
+    }
+
     @Test
     void getRooms_WithPastDate_ShouldReturnBadRequest() throws Exception {
         LocalDate fromDate = LocalDate.now().minusDays(1);
@@ -0,0 +1,48 @@
+package com.codehunter.hotelbooking.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void overlapExclusion_isConflict() {
+        DataIntegrityViolationException ex = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("conflicting key value violates exclusion constraint",
+                        new SQLException("exclusion", "23P01"), BookingConflictException.OVERLAP_CONSTRAINT));
+
+        ResponseEntity<Map<String, Object>> response = handler.handleDataIntegrityViolation(ex);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Room is already booked for the selected dates", response.getBody().get("message"));
+    }
+
+    @Test
+    void overlapExclusionFromJdbc_isConflict() {
+        DataIntegrityViolationException ex = new DataIntegrityViolationException("batch update failed", new SQLException(
+                "ERROR: conflicting key value violates exclusion constraint \"bookings_no_overlapping_active_stay\"", "23P01"));
+
+        assertEquals(HttpStatus.CONFLICT, handler.handleDataIntegrityViolation(ex).getStatusCode());
+    }
+
+    @Test
+    void otherConstraint_isNotReportedAsBookingConflict() {
+        DataIntegrityViolationException ex = new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key value violates unique constraint",
+                        new SQLException("unique", "23505"), "users_username_key"));
+
+        ResponseEntity<Map<String, Object>> response = handler.handleDataIntegrityViolation(ex);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Internal Server Error", response.getBody().get("error"));
+    }
+}
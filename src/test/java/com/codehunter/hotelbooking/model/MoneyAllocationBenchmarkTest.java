@@ -0,0 +1,66 @@
+package com.codehunter.hotelbooking.model;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares bytes allocated and time per booking-path price computation (nights, membership discount,
+ * 50% refund) between the former {@code BigDecimal} arithmetic and {@link Money}. Allocation is read from
+ * the thread's allocation counter, so no profiler is needed. Opt-in:
+ * {@code RUN_BENCHMARKS=true ./gradlew test --tests '*MoneyAllocationBenchmarkTest'}.
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+@Slf4j
+class MoneyAllocationBenchmarkTest {
+    private static final int OPERATIONS = 5_000_000;
+    private static final BigDecimal PRICE_PER_NIGHT = new BigDecimal("149.99");
+
+    private long sink;
+
+    @Test
+    void moneyAllocatesLessThanBigDecimal() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double bigDecimalBytes = 0;
+        double moneyBytes = 0;
+        // The first rounds warm up the JIT; the last one is reported
+        for (int round = 0; round < 3; round++) {
+            long started = System.nanoTime();
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < OPERATIONS; i++) {
+                sink += bigDecimalPrice(1 + (i & 7), i % 3).scale();
+            }
+            long middle = threads.getCurrentThreadAllocatedBytes();
+            long switched = System.nanoTime();
+            for (int i = 0; i < OPERATIONS; i++) {
+                sink += moneyPrice(1 + (i & 7), i % 3);
+            }
+            long after = threads.getCurrentThreadAllocatedBytes();
+            long finished = System.nanoTime();
+            bigDecimalBytes = (middle - before) / (double) OPERATIONS;
+            moneyBytes = (after - middle) / (double) OPERATIONS;
+            log.info("BigDecimal: {} B/op, {} ns/op | Money: {} B/op, {} ns/op",
+                    String.format("%.1f", bigDecimalBytes), String.format("%.1f", (switched - started) / (double) OPERATIONS),
+                    String.format("%.1f", moneyBytes), String.format("%.1f", (finished - switched) / (double) OPERATIONS));
+        }
+        assertTrue(moneyBytes < bigDecimalBytes);
+    }
+
+    private static BigDecimal bigDecimalPrice(long nights, int level) {
+        BigDecimal total = PRICE_PER_NIGHT.multiply(BigDecimal.valueOf(nights));
+        BigDecimal percent = level == 1 ? BigDecimal.valueOf(0.10) : level == 2 ? BigDecimal.valueOf(0.20) : BigDecimal.ZERO;
+        BigDecimal paid = total.subtract(total.multiply(percent));
+        return paid.subtract(paid.multiply(BigDecimal.valueOf(0.5)));
+    }
+
+    private static long moneyPrice(long nights, int level) {
+        Money total = Money.of(PRICE_PER_NIGHT, Money.USD).times(nights);
+        Money paid = total.minus(total.percentBps(level == 1 ? 1_000 : level == 2 ? 2_000 : 0));
+        return paid.minus(paid.percentBps(5_000)).minorUnits();
+    }
+}
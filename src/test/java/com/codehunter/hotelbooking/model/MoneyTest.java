@@ -0,0 +1,56 @@
+package com.codehunter.hotelbooking.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    @Test
+    void of_roundsHalfEvenToMinorUnit() {
+        assertEquals(12_345, Money.of(new BigDecimal("123.45"), Money.USD).minorUnits());
+        assertEquals(12_346, Money.of(new BigDecimal("123.455"), Money.USD).minorUnits());
+        assertEquals(12_344, Money.of(new BigDecimal("123.445"), Money.USD).minorUnits());
+        assertEquals(123, Money.of(new BigDecimal("123.4"), JPY).minorUnits());
+    }
+
+    @Test
+    void toBigDecimal_usesCurrencyScale() {
+        assertEquals(new BigDecimal("200.00"), Money.ofMinor(20_000, Money.USD).toBigDecimal());
+        assertEquals(new BigDecimal("500"), Money.ofMinor(500, JPY).toBigDecimal());
+    }
+
+    @Test
+    void percentBps_roundsHalfUpAwayFromZero() {
+        Money amount = Money.ofMinor(1_005, Money.USD);
+        assertEquals(101, amount.percentBps(1_000).minorUnits());   // 100.5 -> 101
+        assertEquals(503, amount.percentBps(5_000).minorUnits());   // 502.5 -> 503
+        assertEquals(-503, Money.ofMinor(-1_005, Money.USD).percentBps(5_000).minorUnits());
+        assertEquals(amount, amount.percentBps(Money.BPS_SCALE));
+        assertTrue(amount.percentBps(0).isZero());
+    }
+
+    @Test
+    void splitsAlwaysAddUpToWhole() {
+        Money total = Money.ofMinor(33_333, Money.USD).times(3);
+        Money discount = total.percentBps(1_250);
+        assertEquals(total, discount.plus(total.minus(discount)));
+    }
+
+    @Test
+    void arithmeticRejectsMixedCurrenciesAndOverflow() {
+        assertThrows(IllegalArgumentException.class, () -> Money.zero(Money.USD).plus(Money.zero(EUR)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, Money.USD).times(2));
+    }
+
+    @Test
+    void toString_formatsMajorAndMinorUnits() {
+        assertEquals("12.05 USD", Money.ofMinor(1_205, Money.USD).toString());
+        assertEquals("-0.07 USD", Money.ofMinor(-7, Money.USD).toString());
+    }
+}
@@ -0,0 +1,66 @@
+package com.codehunter.hotelbooking.model;
+
+import com.codehunter.hotelbooking.TestContainerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares primary-key insert throughput and index size for random UUIDv4 and time-ordered UUIDv7 keys.
+ * Opt-in, as it is slow: {@code RUN_BENCHMARKS=true ./gradlew test --tests '*UuidInsertBenchmarkTest'}.
+ * {@code BENCHMARK_ROWS} sets the row count (default 10 million).
+ */
+@SpringBootTest
+@Import(TestContainerConfig.class)
+@ActiveProfiles("gemini")
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+@Slf4j
+class UuidInsertBenchmarkTest {
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareInsertThroughput() {
+        long rows = Long.parseLong(System.getenv().getOrDefault("BENCHMARK_ROWS", "10000000"));
+        run("uuid_v4_benchmark", rows, UUID::randomUUID);
+        run("uuid_v7_benchmark", rows, UuidV7Generator::next);
+    }
+
+    private void run(String table, long rows, Supplier<UUID> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id UUID NOT NULL PRIMARY KEY, created_at TIMESTAMPTZ NOT NULL DEFAULT now())");
+        try {
+            long started = System.nanoTime();
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (long i = 0; i < rows; i++) {
+                batch.add(new Object[]{ids.get()});
+                if (batch.size() == BATCH_SIZE || i == rows - 1) {
+                    jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id) VALUES (?)", batch);
+                    batch.clear();
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            Long indexBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size('" + table + "_pkey')", Long.class);
+            Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+            assertEquals(rows, count);
+            log.info("{}: {} rows in {} s ({} rows/s), primary key index {} MB",
+                    table, rows, String.format("%.1f", seconds), Math.round(rows / seconds), indexBytes / (1024 * 1024));
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.codehunter.hotelbooking.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void next_producesVersion7WithClockTimestamp() {
+        long now = 1_760_000_000_000L;
+        UUID id = UuidV7Generator.next(new AtomicLong(), now);
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(now, id.getMostSignificantBits() >>> 16);
+        assertEquals(0, id.getMostSignificantBits() & 0xFFFL);
+    }
+
+    @Test
+    void next_withClockBehindLastStamp_countsOnFromLastStamp() {
+        long now = 1_760_000_000_000L;
+        AtomicLong last = new AtomicLong(((now + 5) << 12) | 0xFFFL);
+
+        UUID id = UuidV7Generator.next(last, now);
+
+        // The counter is exhausted for now + 5, so the id borrows from the following millisecond
+        assertEquals(now + 6, id.getMostSignificantBits() >>> 16);
+        assertEquals(0, id.getMostSignificantBits() & 0xFFFL);
+        assertEquals((now + 6) << 12, last.get());
+    }
+
+    @Test
+    void next_isStrictlyIncreasingInDatabaseOrder() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7Generator.next();
+            // PostgreSQL compares uuids as unsigned bytes, i.e. by the unsigned most significant bits first
+            assertTrue(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = current;
+        }
+    }
+
+    @Test
+    void next_isUniqueAcrossThreads() throws Exception {
+        ConcurrentLinkedQueue<UUID> ids = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(UuidV7Generator.next());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(80_000, ids.stream().map(UUID::getMostSignificantBits).distinct().count());
+    }
+}
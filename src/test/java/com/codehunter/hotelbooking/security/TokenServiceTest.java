@@ -0,0 +1,76 @@
+package com.codehunter.hotelbooking.security;
+
+import com.codehunter.hotelbooking.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+    private ObjectMapper objectMapper;
+    private TokenService tokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        tokenService = new TokenService(objectMapper, "test-secret", 900);
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("alice");
+        user.setRole(User.Role.USER);
+        user.setMembershipLevel(User.MembershipLevel.GOLD);
+    }
+
+    @Test
+    void verify_returnsClaimsOfIssuedToken() {
+        String token = tokenService.issue(user).getToken();
+
+        SessionToken claims = tokenService.verify(token).orElseThrow();
+        assertEquals(user.getId(), claims.userId());
+        assertEquals("alice", claims.username());
+        assertEquals(User.Role.USER, claims.role());
+        assertEquals(User.MembershipLevel.GOLD, claims.membershipLevel());
+        assertTrue(claims.expiresAt().isAfter(claims.issuedAt()));
+    }
+
+    @Test
+    void verify_rejectsTamperedAndForeignTokens() {
+        String token = tokenService.issue(user).getToken();
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertTrue(tokenService.verify(tampered).isEmpty());
+        assertTrue(tokenService.verify("garbage").isEmpty());
+        assertTrue(new TokenService(objectMapper, "other-secret", 900).verify(token).isEmpty());
+    }
+
+    @Test
+    void verify_rejectsExpiredToken() {
+        TokenService expiring = new TokenService(objectMapper, "test-secret", 0);
+
+        assertTrue(expiring.verify(expiring.issue(user).getToken()).isEmpty());
+    }
+
+    @Test
+    void markChanged_flagsTokensIssuedBefore() {
+        SessionToken before = tokenService.verify(tokenService.issue(user).getToken()).orElseThrow();
+        tokenService.markChanged(user.getId());
+
+        assertTrue(tokenService.isStale(before));
+    }
+
+    @Test
+    void verify_rejectsRevokedToken() {
+        String token = tokenService.issue(user).getToken();
+        tokenService.revoke(tokenService.verify(token).orElseThrow());
+
+        assertTrue(tokenService.verify(token).isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvailabilityCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityCache cache;
+    private LocalDate day;
+    private Room room;
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AvailabilityCache(meterRegistry, 100, 60);
+        day = LocalDate.now().plusDays(10);
+        room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber("101");
+    }
+
+    @Test
+    void repeatedSearchIsServedFromCache() {
+        AtomicInteger searches = new AtomicInteger();
+
+        cache.get(day, day.plusDays(2), () -> countSearch(searches));
+        List<Room> second = cache.get(day, day.plusDays(2), () -> countSearch(searches));
+
+        assertEquals(1, searches.get());
+        assertEquals(List.of(room), second);
+        assertEquals(0.5, meterRegistry.get("availability.cache.hit.ratio").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cache.size").tag("cache", "roomAvailability").gauge().value());
+    }
+
+    @Test
+    void bookingChangeDropsOnlyOverlappingRanges() {
+        AtomicInteger searches = new AtomicInteger();
+        cache.get(day, day.plusDays(2), () -> countSearch(searches));
+        cache.get(day.plusDays(5), day.plusDays(7), () -> countSearch(searches));
+
+        ZoneId zoneId = ZoneId.systemDefault();
+        cache.invalidate(day.plusDays(1).atTime(14, 0).atZone(zoneId).toInstant(), day.plusDays(3).atTime(12, 0).atZone(zoneId).toInstant());
+
+        assertEquals(1, cache.size());
+        assertEquals(1.0, meterRegistry.get("availability.cache.invalidations").counter().count());
+        cache.get(day.plusDays(5), day.plusDays(7), () -> countSearch(searches));
+        cache.get(day, day.plusDays(2), () -> countSearch(searches));
+        assertEquals(3, searches.get());
+    }
+
+    @Test
+    void resultComputedDuringInvalidationIsNotCached() {
+        AtomicInteger searches = new AtomicInteger();
+
+        cache.get(day, day.plusDays(2), () -> {
+            cache.invalidate(day.plusDays(20).atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                    day.plusDays(21).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            return countSearch(searches);
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void bookingIsVisibleWhenIndexListenerRunsBeforeCalendarListener() throws Exception {
+        assertBookingVisibleAfterListeners(true);
+    }
+
+    @Test
+    void bookingIsVisibleWhenCalendarListenerRunsBeforeIndexListener() throws Exception {
+        assertBookingVisibleAfterListeners(false);
+    }
+
+    /**
+     * Searches like the BITSET mode, which reads both the calendar and the index, and runs one search
+     * between the two listeners, when only one of them has seen the booking.
+     */
+    private void assertBookingVisibleAfterListeners(boolean indexFirst) throws Exception {
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(roomRepository.findAll()).thenReturn(List.of(room));
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex(roomRepository, bookingRepository);
+        OccupancyCalendar calendar = new OccupancyCalendar(bookingRepository, roomRepository,
+                tempDir.resolve("occupancy.bin").toString(), 64, 30);
+        index.setAvailabilityCache(cache);
+        calendar.setAvailabilityCache(cache);
+        index.load();
+        calendar.open();
+        LocalDate from = LocalDate.now().plusDays(3);
+        LocalDate to = from.plusDays(2);
+        ZoneId zoneId = ZoneId.systemDefault();
+        Supplier<List<Room>> search = () -> calendar.findAvailableRoomIds(from, to).orElseThrow().stream()
+                .map(roomId -> index.findRoom(roomId).orElseThrow())
+                .filter(r -> index.findAvailableRooms(from.atStartOfDay(zoneId).toInstant(),
+                        to.atStartOfDay(zoneId).toInstant()).contains(r))
+                .toList();
+        assertEquals(List.of(room), cache.get(from, to, search));
+
+        BookingChangedEvent booked = BookingChangedEvent.created(UUID.randomUUID(), room.getId(),
+                from.atTime(14, 0).atZone(zoneId).toInstant(), to.atTime(12, 0).atZone(zoneId).toInstant());
+        if (indexFirst) {
+            index.onBookingChanged(booked);
+            cache.get(from, to, search);
+            calendar.onBookingChanged(booked);
+        } else {
+            calendar.onBookingChanged(booked);
+            cache.get(from, to, search);
+            index.onBookingChanged(booked);
+        }
+
+        assertEquals(List.of(), cache.get(from, to, search));
+        calendar.close();
+    }
+
+    private List<Room> countSearch(AtomicInteger searches) {
+        searches.incrementAndGet();
+        return List.of(room);
+    }
+}
@@ -0,0 +1,267 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.dto.BookingRequest;
+import com.codehunter.hotelbooking.dto.BookingResponse;
+import com.codehunter.hotelbooking.dto.CancellationResponse;
+import com.codehunter.hotelbooking.dto.RoomTypeBookingRequest;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BookingCoordinatorTest {
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private ReservationHoldService reservationHoldService;
+    @Mock
+    private RoomService roomService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        coordinator = new BookingCoordinator(bookingService, reservationHoldService, roomService, meterRegistry, 64, 5000);
+    }
+
+    @Test
+    void withRoomLocks_serializesWritesToSameRoom() throws Exception {
+        UUID roomId = UUID.randomUUID();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return coordinator.withRoomLocks(List.of(roomId), () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    sleep(5);
+                    inside.decrementAndGet();
+                    return null;
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, maxInside.get());
+        assertEquals(8, meterRegistry.get("booking.lock.hold").timer().count());
+    }
+
+    @Test
+    void withRoomLocks_groupsInOppositeOrderDoNotDeadlock() throws Exception {
+        List<UUID> rooms = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rooms.add(UUID.randomUUID());
+        }
+        List<UUID> reversed = new ArrayList<>(rooms);
+        Collections.reverse(reversed);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            List<UUID> group = i % 2 == 0 ? rooms : reversed;
+            futures.add(executor.submit(() -> coordinator.withRoomLocks(group, () -> 1)));
+        }
+        for (Future<Integer> future : futures) {
+            assertEquals(1, future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void withRoomLocks_releasesLocksWhenActionFails() {
+        UUID roomId = UUID.randomUUID();
+        assertThrows(IllegalArgumentException.class, () -> coordinator.withRoomLocks(List.of(roomId), () -> {
+            throw new IllegalArgumentException("boom");
+        }));
+        assertEquals("ok", coordinator.withRoomLocks(List.of(roomId), () -> "ok"));
+    }
+
+    @Test
+    void withRoomLocks_recordsWaitAndCountsTimeout() throws Exception {
+        BookingCoordinator impatient = new BookingCoordinator(bookingService, reservationHoldService, roomService, meterRegistry, 64, 50);
+        UUID roomId = UUID.randomUUID();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> impatient.withRoomLocks(List.of(roomId), () -> {
+            locked.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        assertThrows(BookingConflictException.class, () -> impatient.withRoomLocks(List.of(roomId), () -> "never"));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(1.0, meterRegistry.get("booking.lock.timeouts").counter().count());
+        // The holder's wait and the timed-out wait are both recorded
+        assertEquals(2, meterRegistry.get("booking.lock.wait").timer().count());
+        assertTrue(meterRegistry.get("booking.lock.wait").timer().max(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    void createBookingByType_fallsBackToNextCandidateWhenRoomIsTaken() {
+        UUID taken = UUID.randomUUID();
+        UUID free = UUID.randomUUID();
+        RoomTypeBookingRequest request = new RoomTypeBookingRequest();
+        request.setRoomType("STANDARD");
+        request.setCheckIn(Instant.parse("2031-05-01T14:00:00Z"));
+        request.setCheckOut(Instant.parse("2031-05-03T12:00:00Z"));
+        AppUserPrincipal principal = mock(AppUserPrincipal.class);
+        BookingResponse booked = new BookingResponse();
+        booked.setRoomId(free);
+        when(roomService.findRoomsForStay("STANDARD", request.getCheckIn(), request.getCheckOut())).thenReturn(List.of(taken, free));
+        when(bookingService.createAssignedBooking(argThat((BookingRequest r) -> r != null && taken.equals(r.getRoomId())), eq(principal)))
+                .thenThrow(new BookingConflictException("Room is already booked for the selected dates"));
+        when(bookingService.createAssignedBooking(argThat((BookingRequest r) -> r != null && free.equals(r.getRoomId())), eq(principal)))
+                .thenReturn(booked);
+
+        assertSame(booked, coordinator.createBooking(request, principal));
+    }
+
+    @Test
+    void createBookingByType_fallsBackWhenRoomWasTakenOnAnotherNode() {
+        UUID taken = UUID.randomUUID();
+        UUID free = UUID.randomUUID();
+        RoomTypeBookingRequest request = new RoomTypeBookingRequest();
+        request.setRoomType("STANDARD");
+        request.setCheckIn(Instant.parse("2031-05-01T14:00:00Z"));
+        request.setCheckOut(Instant.parse("2031-05-03T12:00:00Z"));
+        AppUserPrincipal principal = mock(AppUserPrincipal.class);
+        BookingResponse booked = new BookingResponse();
+        when(roomService.findRoomsForStay("STANDARD", request.getCheckIn(), request.getCheckOut())).thenReturn(List.of(taken, free));
+        when(bookingService.createAssignedBooking(argThat((BookingRequest r) -> r != null && taken.equals(r.getRoomId())), eq(principal)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", new SQLException(
+                        "ERROR: conflicting key value violates exclusion constraint \"bookings_no_overlapping_active_stay\"", "23P01")));
+        when(bookingService.createAssignedBooking(argThat((BookingRequest r) -> r != null && free.equals(r.getRoomId())), eq(principal)))
+                .thenReturn(booked);
+
+        assertSame(booked, coordinator.createBooking(request, principal));
+    }
+
+    @Test
+    void createBookingByType_otherIntegrityViolationsAreNotRetried() {
+        UUID first = UUID.randomUUID();
+        RoomTypeBookingRequest request = new RoomTypeBookingRequest();
+        request.setRoomType("STANDARD");
+        request.setCheckIn(Instant.parse("2031-05-01T14:00:00Z"));
+        request.setCheckOut(Instant.parse("2031-05-03T12:00:00Z"));
+        AppUserPrincipal principal = mock(AppUserPrincipal.class);
+        when(roomService.findRoomsForStay(any(), any(), any())).thenReturn(List.of(first, UUID.randomUUID()));
+        when(bookingService.createAssignedBooking(any(), eq(principal)))
+                .thenThrow(new DataIntegrityViolationException("null value in column \"user_id\""));
+
+        assertThrows(DataIntegrityViolationException.class, () -> coordinator.createBooking(request, principal));
+        verify(bookingService, times(1)).createAssignedBooking(any(), eq(principal));
+    }
+
+    @Test
+    void createBookingByType_conflictWhenNoRoomOfTypeIsFree() {
+        RoomTypeBookingRequest request = new RoomTypeBookingRequest();
+        request.setRoomType("SUITE");
+        request.setCheckIn(Instant.parse("2031-05-01T14:00:00Z"));
+        request.setCheckOut(Instant.parse("2031-05-03T12:00:00Z"));
+        when(roomService.findRoomsForStay(any(), any(), any())).thenReturn(List.of());
+
+        assertThrows(BookingConflictException.class, () -> coordinator.createBooking(request, mock(AppUserPrincipal.class)));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void cancelBooking_waitsForRoomLock() throws Exception {
+        BookingCoordinator impatient = new BookingCoordinator(bookingService, reservationHoldService, roomService, meterRegistry, 64, 50);
+        UUID bookingId = UUID.randomUUID();
+        UUID roomId = UUID.randomUUID();
+        when(bookingService.getRoomIdOfBooking(bookingId)).thenReturn(roomId);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> impatient.withRoomLocks(List.of(roomId), () -> {
+            locked.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        assertThrows(BookingConflictException.class, () -> impatient.cancelBooking(bookingId, null, Instant.now()));
+        verify(bookingService, never()).cancelBooking(any(), any(), any());
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        CancellationResponse cancelled = new CancellationResponse();
+        when(bookingService.cancelBooking(eq(bookingId), isNull(), any())).thenReturn(cancelled);
+        assertSame(cancelled, impatient.cancelBooking(bookingId, null, Instant.now()));
+    }
+
+    @Test
+    void cancelBooking_followsBookingMovedToAnotherRoom() {
+        UUID bookingId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID oldRoom = UUID.randomUUID();
+        UUID newRoom = UUID.randomUUID();
+        // Looked up on old room, moved before the lock was taken, then found on the new room twice
+        when(bookingService.getRoomIdOfBooking(bookingId)).thenReturn(oldRoom, newRoom, newRoom, newRoom);
+        CancellationResponse cancelled = new CancellationResponse();
+        when(bookingService.cancelBooking(eq(bookingId), eq(userId), any())).thenReturn(cancelled);
+
+        assertSame(cancelled, coordinator.cancelBooking(bookingId, userId, Instant.now()));
+        verify(bookingService, times(1)).cancelBooking(eq(bookingId), eq(userId), any());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
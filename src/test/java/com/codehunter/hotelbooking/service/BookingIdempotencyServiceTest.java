@@ -0,0 +1,149 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.dto.BookingRequest;
+import com.codehunter.hotelbooking.dto.BookingResponse;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.repository.IdempotencyKeyRepository;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BookingIdempotencyServiceTest {
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private ReservationHoldService reservationHoldService;
+    @Mock
+    private RoomService roomService;
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private BookingIdempotencyService service;
+    private BookingRequest request;
+    private AppUserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(idempotencyKeyRepository.complete(any(), anyString(), any(), anyString())).thenReturn(1);
+        BookingCoordinator coordinator = new BookingCoordinator(bookingService, reservationHoldService, roomService, new SimpleMeterRegistry(), 64, 5000);
+        service = new BookingIdempotencyService(bookingService, coordinator, idempotencyKeyRepository,
+                transactionManager, objectMapper, 3600, 30, 2000, 100);
+        request = new BookingRequest(UUID.randomUUID(), Instant.parse("2030-05-01T14:00:00Z"), Instant.parse("2030-05-03T12:00:00Z"));
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("idem");
+        user.setPassword("x");
+        user.setRole(User.Role.USER);
+        user.setMembershipLevel(User.MembershipLevel.CLASSIC);
+        principal = AppUserPrincipal.from(user);
+    }
+
+    @Test
+    void concurrentDuplicates_waitForFirstAttempt() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(idempotencyKeyRepository.tryClaim(any(), eq("k1"), anyString(), any(), any(), any(), any())).thenReturn(true);
+        when(bookingService.createBooking(request, principal)).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return response();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<BookingResponse> first = executor.submit(() -> service.createBooking(request, principal, "k1"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        Future<BookingResponse> second = executor.submit(() -> service.createBooking(request, principal, "k1"));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS).getBookingId(), second.get(5, TimeUnit.SECONDS).getBookingId());
+        verify(bookingService, times(1)).createBooking(request, principal);
+        verify(idempotencyKeyRepository).complete(eq(principal.getId()), eq("k1"), any(), anyString());
+        executor.shutdown();
+    }
+
+    @Test
+    void storedResponse_isReplayedFromDatabase() throws Exception {
+        BookingResponse stored = response();
+        when(idempotencyKeyRepository.tryClaim(any(), eq("k2"), anyString(), any(), any(), any(), any())).thenReturn(false);
+        when(idempotencyKeyRepository.find(principal.getId(), "k2")).thenReturn(Optional.of(new IdempotencyKeyRepository.StoredKey(
+                BookingIdempotencyService.hash(request), true, objectMapper.writeValueAsString(stored))));
+
+        BookingResponse replayed = service.createBooking(request, principal, "k2");
+
+        assertEquals(stored.getBookingId(), replayed.getBookingId());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void keyReusedForDifferentRequest_isRejected() {
+        when(idempotencyKeyRepository.tryClaim(any(), eq("k3"), anyString(), any(), any(), any(), any())).thenReturn(false);
+        when(idempotencyKeyRepository.find(principal.getId(), "k3"))
+                .thenReturn(Optional.of(new IdempotencyKeyRepository.StoredKey("other", true, "{}")));
+
+        assertThrows(IllegalArgumentException.class, () -> service.createBooking(request, principal, "k3"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void failedAttempt_releasesKey() {
+        when(idempotencyKeyRepository.tryClaim(any(), eq("k4"), anyString(), any(), any(), any(), any())).thenReturn(true);
+        when(bookingService.createBooking(request, principal)).thenThrow(new IllegalArgumentException("Room not found"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.createBooking(request, principal, "k4"));
+        verify(idempotencyKeyRepository).release(eq(principal.getId()), eq("k4"), any());
+    }
+
+    @Test
+    void expiredLeaseTakenOver_rollsBackBookingAndKeepsNewClaim() {
+        ArgumentCaptor<UUID> claimToken = ArgumentCaptor.forClass(UUID.class);
+        when(idempotencyKeyRepository.tryClaim(any(), eq("k5"), anyString(), claimToken.capture(), any(), any(), any())).thenReturn(true);
+        when(bookingService.createBooking(request, principal)).thenReturn(response());
+        // While this attempt ran past its lock, another one re-claimed the key with its own token
+        when(idempotencyKeyRepository.complete(eq(principal.getId()), eq("k5"), any(), anyString())).thenReturn(0);
+
+        assertThrows(BookingConflictException.class, () -> service.createBooking(request, principal, "k5"));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(idempotencyKeyRepository).complete(eq(principal.getId()), eq("k5"), eq(claimToken.getValue()), anyString());
+        verify(idempotencyKeyRepository).release(principal.getId(), "k5", claimToken.getValue());
+    }
+
+    private BookingResponse response() {
+        BookingResponse response = new BookingResponse();
+        response.setBookingId(UUID.randomUUID());
+        response.setUserId(principal.getId());
+        response.setRoomId(request.getRoomId());
+        response.setCheckIn(request.getCheckIn());
+        response.setCheckOut(request.getCheckOut());
+        return response;
+    }
+}
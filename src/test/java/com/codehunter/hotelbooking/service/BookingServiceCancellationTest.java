@@ -3,15 +3,23 @@ package com.codehunter.hotelbooking.service;
 import com.codehunter.hotelbooking.dto.BookingRequest;
 import com.codehunter.hotelbooking.dto.CancellationResponse;
 import com.codehunter.hotelbooking.model.Booking;
+import com.codehunter.hotelbooking.model.Cancellation;
 import com.codehunter.hotelbooking.model.Room;
 import com.codehunter.hotelbooking.model.User;
 import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.BookingRow;
+import com.codehunter.hotelbooking.repository.CancellationRepository;
+import com.codehunter.hotelbooking.repository.CancelledBooking;
 import com.codehunter.hotelbooking.repository.RoomRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -26,6 +34,12 @@ class BookingServiceCancellationTest {
     private BookingRepository bookingRepository;
     @Mock
     private RoomRepository roomRepository;
+    @Mock
+    private CancellationRepository cancellationRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private RefundPolicy refundPolicy = new RefundPolicy(null);
     @InjectMocks
     private BookingService bookingService;
 
@@ -57,39 +71,48 @@ class BookingServiceCancellationTest {
 
     @Test
     void cancelBooking_fullRefund() {
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        stubCancelled();
         CancellationResponse response = bookingService.cancelBooking(booking.getId(), Instant.now());
         assertEquals(booking.getId(), response.getBookingId());
-        assertEquals(BigDecimal.valueOf(200), response.getRefundAmount());
-        assertEquals(BigDecimal.ZERO, response.getPenaltyAmount());
+        assertEquals(new BigDecimal("200.00"), response.getRefundAmount());
+        assertEquals(new BigDecimal("0.00"), response.getPenaltyAmount());
         assertTrue(response.getMessage().contains("Full refund"));
-        assertEquals(Booking.Status.CANCELLED, booking.getStatus());
+        verify(bookingRepository, never()).findRowById(any());
+        verify(bookingRepository, never()).save(any());
+        assertEquals("PENDING", response.getRefundStatus());
+        ArgumentCaptor<Cancellation> captor = ArgumentCaptor.forClass(Cancellation.class);
+        verify(cancellationRepository).save(captor.capture());
+        assertEquals(Cancellation.RefundStatus.PENDING, captor.getValue().getRefundStatus());
+        assertEquals(new BigDecimal("200.00"), captor.getValue().getRefundAmount());
+        assertNotNull(captor.getValue().getNextAttemptAt());
     }
 
     @Test
     void cancelBooking_halfRefund() {
         booking.setCheckIn(Instant.now().plusSeconds(60 * 60 * 30)); // 30h from now
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        stubCancelled();
         CancellationResponse response = bookingService.cancelBooking(booking.getId(), Instant.now());
-        assertEquals(BigDecimal.valueOf(100.0), response.getRefundAmount());
-        assertEquals(BigDecimal.valueOf(100.0), response.getPenaltyAmount());
+        assertEquals(new BigDecimal("100.00"), response.getRefundAmount());
+        assertEquals(new BigDecimal("100.00"), response.getPenaltyAmount());
         assertTrue(response.getMessage().contains("50% refund"));
     }
 
     @Test
     void cancelBooking_noRefund() {
         booking.setCheckIn(Instant.now().plusSeconds(60 * 60 * 10)); // 10h from now
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        stubCancelled();
         CancellationResponse response = bookingService.cancelBooking(booking.getId(), Instant.now());
-        assertEquals(BigDecimal.ZERO, response.getRefundAmount());
-        assertEquals(BigDecimal.valueOf(200), response.getPenaltyAmount());
+        assertEquals(new BigDecimal("0.00"), response.getRefundAmount());
+        assertEquals(new BigDecimal("200.00"), response.getPenaltyAmount());
         assertTrue(response.getMessage().contains("No refund"));
+        // Nothing to pay out, so the cancellation is recorded as already settled
+        assertEquals("COMPLETED", response.getRefundStatus());
     }
 
     @Test
     void cancelBooking_alreadyCancelled() {
         booking.setStatus(Booking.Status.CANCELLED);
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        stubNotUpdated();
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
                 bookingService.cancelBooking(booking.getId(), Instant.now()));
         assertTrue(ex.getMessage().contains("already cancelled"));
@@ -98,10 +121,61 @@ class BookingServiceCancellationTest {
     @Test
     void cancelBooking_afterCheckIn() {
         booking.setCheckIn(Instant.now().minusSeconds(60 * 60)); // 1h ago
-        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        stubNotUpdated();
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
                 bookingService.cancelBooking(booking.getId(), Instant.now()));
         assertTrue(ex.getMessage().contains("Cannot cancel after check-in time"));
     }
-}
 
+    @Test
+    void cancelBooking_notOwner() {
+        stubNotUpdated();
+        assertThrows(AccessDeniedException.class, () ->
+                bookingService.cancelBooking(booking.getId(), UUID.randomUUID(), Instant.now()));
+    }
+
+    @Test
+    void cancelBooking_withoutUser_skipsOwnershipCheck() {
+        stubCancelled();
+        bookingService.cancelBooking(booking.getId(), Instant.now());
+        verify(bookingRepository).cancelActiveBookingOfAnyUser(eq(booking.getId()), any(), any());
+        verify(bookingRepository, never()).cancelActiveBooking(any(), any(), any(), any());
+    }
+
+    @Test
+    void cancelBooking_withUser_usesOwnedQuery() {
+        stubCancelled();
+        bookingService.cancelBooking(booking.getId(), user.getId(), Instant.now());
+        verify(bookingRepository).cancelActiveBooking(eq(booking.getId()), eq(user.getId()), any(), any());
+        verify(bookingRepository, never()).cancelActiveBookingOfAnyUser(any(), any(), any());
+    }
+
+    @Test
+    void cancelBooking_notFound() {
+        when(bookingRepository.cancelActiveBooking(eq(booking.getId()), any(), any(), any())).thenReturn(Optional.empty());
+        when(bookingRepository.findRowById(booking.getId())).thenReturn(Optional.empty());
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+                bookingService.cancelBooking(booking.getId(), user.getId(), Instant.now()));
+        assertTrue(ex.getMessage().contains("Booking not found"));
+    }
+
+    private void stubCancelled() {
+        CancelledBooking row = new CancelledBooking() {
+            public UUID getBookingId() { return booking.getId(); }
+            public UUID getRoomId() { return room.getId(); }
+            public Instant getCheckIn() { return booking.getCheckIn(); }
+            public Instant getCheckOut() { return booking.getCheckOut(); }
+            public BigDecimal getFinalAmount() { return booking.getFinalAmount(); }
+        };
+        when(bookingRepository.cancelActiveBookingOfAnyUser(eq(booking.getId()), any(), any())).thenReturn(Optional.of(row));
+        when(bookingRepository.cancelActiveBooking(eq(booking.getId()), eq(user.getId()), any(), any())).thenReturn(Optional.of(row));
+    }
+
+    private void stubNotUpdated() {
+        when(bookingRepository.cancelActiveBookingOfAnyUser(eq(booking.getId()), any(), any())).thenReturn(Optional.empty());
+        when(bookingRepository.cancelActiveBooking(eq(booking.getId()), any(), any(), any())).thenReturn(Optional.empty());
+        when(bookingRepository.findRowById(booking.getId())).thenReturn(Optional.of(new BookingRow(booking.getId(),
+                user.getId(), room.getId(), booking.getCheckIn(), booking.getCheckOut(), user.getMembershipLevel(),
+                booking.getTotalAmount(), booking.getDiscountAmount(), booking.getFinalAmount(), booking.getStatus())));
+    }
+}
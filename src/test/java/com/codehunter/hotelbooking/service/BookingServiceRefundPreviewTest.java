@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -25,6 +26,8 @@ class BookingServiceRefundPreviewTest {
     private BookingRepository bookingRepository;
     @Mock
     private RoomRepository roomRepository;
+    @Spy
+    private RefundPolicy refundPolicy = new RefundPolicy(null);
     @InjectMocks
     private BookingService bookingService;
 
@@ -59,8 +62,8 @@ class BookingServiceRefundPreviewTest {
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
         RefundPreviewResponse response = bookingService.previewRefund(booking.getId(), Instant.now());
         assertEquals(booking.getId(), response.getBookingId());
-        assertEquals(BigDecimal.valueOf(200), response.getRefundAmount());
-        assertEquals(BigDecimal.ZERO, response.getPenaltyAmount());
+        assertEquals(new BigDecimal("200.00"), response.getRefundAmount());
+        assertEquals(new BigDecimal("0.00"), response.getPenaltyAmount());
         assertTrue(response.getMessage().contains("Full refund"));
     }
 
@@ -69,8 +72,8 @@ class BookingServiceRefundPreviewTest {
         booking.setCheckIn(Instant.now().plusSeconds(60 * 60 * 30)); // 30h from now
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
         RefundPreviewResponse response = bookingService.previewRefund(booking.getId(), Instant.now());
-        assertEquals(BigDecimal.valueOf(100.0), response.getRefundAmount());
-        assertEquals(BigDecimal.valueOf(100.0), response.getPenaltyAmount());
+        assertEquals(new BigDecimal("100.00"), response.getRefundAmount());
+        assertEquals(new BigDecimal("100.00"), response.getPenaltyAmount());
         assertTrue(response.getMessage().contains("50% refund"));
     }
 
@@ -79,8 +82,8 @@ class BookingServiceRefundPreviewTest {
         booking.setCheckIn(Instant.now().plusSeconds(60 * 60 * 10)); // 10h from now
         when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
         RefundPreviewResponse response = bookingService.previewRefund(booking.getId(), Instant.now());
-        assertEquals(BigDecimal.ZERO, response.getRefundAmount());
-        assertEquals(BigDecimal.valueOf(200), response.getPenaltyAmount());
+        assertEquals(new BigDecimal("0.00"), response.getRefundAmount());
+        assertEquals(new BigDecimal("200.00"), response.getPenaltyAmount());
         assertTrue(response.getMessage().contains("No refund"));
     }
 
@@ -2,18 +2,24 @@ package com.codehunter.hotelbooking.service;
 
 import com.codehunter.hotelbooking.dto.BookingRequest;
 import com.codehunter.hotelbooking.dto.BookingResponse;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
 import com.codehunter.hotelbooking.model.Booking;
 import com.codehunter.hotelbooking.model.Room;
 import com.codehunter.hotelbooking.model.User;
 import com.codehunter.hotelbooking.model.User.MembershipLevel;
 import com.codehunter.hotelbooking.repository.BookingRepository;
 import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.RoomTypeRateRepository;
+import com.codehunter.hotelbooking.repository.UserRepository;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -28,6 +34,14 @@ class BookingServiceTest {
     private BookingRepository bookingRepository;
     @Mock
     private RoomRepository roomRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ReservationHoldService reservationHoldService;
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine(mock(RoomTypeRateRepository.class), 730, 0, 1000, 2000);
     @InjectMocks
     private BookingService bookingService;
 
@@ -55,9 +69,9 @@ class BookingServiceTest {
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArgument(0));
         BookingResponse response = bookingService.createBooking(request, user);
-        assertEquals(BigDecimal.valueOf(200), response.getTotalAmount());
-        assertEquals(BigDecimal.ZERO, response.getDiscountAmount());
-        assertEquals(BigDecimal.valueOf(200), response.getFinalAmount());
+        assertEquals(new BigDecimal("200.00"), response.getTotalAmount());
+        assertEquals(new BigDecimal("0.00"), response.getDiscountAmount());
+        assertEquals(new BigDecimal("200.00"), response.getFinalAmount());
     }
 
     @Test
@@ -66,7 +80,7 @@ class BookingServiceTest {
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArgument(0));
         BookingResponse response = bookingService.createBooking(request, user);
-        assertEquals(BigDecimal.valueOf(200), response.getTotalAmount());
+        assertEquals(new BigDecimal("200.00"), response.getTotalAmount());
         assertEquals(BigDecimal.valueOf(20.0).setScale(2), response.getDiscountAmount().setScale(2));
         assertEquals(BigDecimal.valueOf(180.0).setScale(2), response.getFinalAmount().setScale(2));
     }
@@ -77,8 +91,53 @@ class BookingServiceTest {
         when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArgument(0));
         BookingResponse response = bookingService.createBooking(request, user);
-        assertEquals(BigDecimal.valueOf(200), response.getTotalAmount());
+        assertEquals(new BigDecimal("200.00"), response.getTotalAmount());
         assertEquals(BigDecimal.valueOf(40.0).setScale(2), response.getDiscountAmount().setScale(2));
         assertEquals(BigDecimal.valueOf(160.0).setScale(2), response.getFinalAmount().setScale(2));
     }
+
+    @Test
+    void testBookingForPrincipalReferencesUserWithoutLoadingIt() {
+        AppUserPrincipal principal = new AppUserPrincipal(user.getId(), "alice", null, "alice@example.com",
+                User.Role.USER, MembershipLevel.GOLD);
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArgument(0));
+        BookingResponse response = bookingService.createBooking(request, principal);
+        assertEquals(user.getId(), response.getUserId());
+        assertEquals(BookingResponse.MembershipLevel.GOLD, response.getMembershipLevel());
+        assertEquals(BigDecimal.valueOf(180.0).setScale(2), response.getFinalAmount().setScale(2));
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void testBookingRejectedWhenRoomAlreadyBooked() {
+        user.setMembershipLevel(MembershipLevel.CLASSIC);
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.existsActiveOverlap(room.getId(), request.getCheckIn(), request.getCheckOut())).thenReturn(true);
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(request, user));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void testBookingRejectedWhenRoomHeldByAnotherCheckout() {
+        user.setMembershipLevel(MembershipLevel.CLASSIC);
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(reservationHoldService.isHeld(room.getId(), request.getCheckIn(), request.getCheckOut(), null)).thenReturn(true);
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(request, user));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void testBookingConvertsOwnHold() {
+        user.setMembershipLevel(MembershipLevel.CLASSIC);
+        UUID holdId = UUID.randomUUID();
+        request.setHoldId(holdId);
+        when(roomRepository.findById(room.getId())).thenReturn(Optional.of(room));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArgument(0));
+        bookingService.createBooking(request, user);
+        verify(reservationHoldService).verifyHold(holdId, user.getId(), room.getId(), request.getCheckIn(), request.getCheckOut());
+        verify(reservationHoldService).isHeld(room.getId(), request.getCheckIn(), request.getCheckOut(), holdId);
+        verify(reservationHoldService).releaseAfterCommit(holdId);
+    }
 }
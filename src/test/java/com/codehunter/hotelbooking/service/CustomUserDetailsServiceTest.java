@@ -0,0 +1,81 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.User;
+import com.codehunter.hotelbooking.repository.UserRepository;
+import com.codehunter.hotelbooking.security.AppUserPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CustomUserDetailsServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsService = new CustomUserDetailsService(userRepository, meterRegistry, 60, 100);
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("alice");
+        user.setPassword("{noop}secret");
+        user.setRole(User.Role.USER);
+        user.setMembershipLevel(User.MembershipLevel.GOLD);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void loadUserByUsername_cachesLookups() {
+        UserDetails first = userDetailsService.loadUserByUsername("alice");
+        UserDetails second = userDetailsService.loadUserByUsername("alice");
+
+        assertEquals("alice", second.getUsername());
+        assertEquals("{noop}secret", second.getPassword());
+        assertTrue(second.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+        assertNotSame(first, second);
+        assertEquals(User.MembershipLevel.GOLD, ((AppUserPrincipal) second).getMembershipLevel());
+        verify(userRepository, times(1)).findByUsername("alice");
+        verify(userRepository, never()).findAll();
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void loadUserByUsername_survivesCredentialErasure() {
+        ((CredentialsContainer) userDetailsService.loadUserByUsername("alice")).eraseCredentials();
+
+        assertEquals("{noop}secret", userDetailsService.loadUserByUsername("alice").getPassword());
+    }
+
+    @Test
+    void loadUserByUsername_unknownUserIsNotCached() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost"));
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+
+    @Test
+    void evict_forcesReload() {
+        userDetailsService.loadUserByUsername("alice");
+        userDetailsService.evict("alice");
+        userDetailsService.loadUserByUsername("alice");
+
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+}
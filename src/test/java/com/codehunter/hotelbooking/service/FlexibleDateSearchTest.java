@@ -0,0 +1,55 @@
+package com.codehunter.hotelbooking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlexibleDateSearchTest {
+    private static final long NIGHT = 1_000;
+
+    @Test
+    void emptyRoomFitsEveryStart() {
+        FlexibleDateSearch search = new FlexibleDateSearch(nightStarts(8), 3, 5);
+
+        assertEquals(bits(0, 1, 2, 3, 4), search.feasibleStarts(RoomIntervals.EMPTY));
+    }
+
+    @Test
+    void staysSplitTheWindowIntoRuns() {
+        // Nights 0..9, starts 0..8, two-night stays; booked from mid-night 2 to mid-night 4 and for night 7
+        FlexibleDateSearch search = new FlexibleDateSearch(nightStarts(11), 2, 9);
+        RoomIntervals stays = RoomIntervals.EMPTY
+                .with(UUID.randomUUID(), 2 * NIGHT + 500, 4 * NIGHT + 500)
+                .with(UUID.randomUUID(), 7 * NIGHT, 8 * NIGHT);
+
+        // Night 6 also counts as taken: a plain search ending on that boundary would overlap the stay
+        assertEquals(bits(0, 8), search.feasibleStarts(stays));
+    }
+
+    @Test
+    void stayTooLongForAnyRun() {
+        FlexibleDateSearch search = new FlexibleDateSearch(nightStarts(6), 4, 2);
+        RoomIntervals stays = RoomIntervals.EMPTY.with(UUID.randomUUID(), 2 * NIGHT + 1, 3 * NIGHT - 1);
+
+        assertTrue(search.feasibleStarts(stays).isEmpty());
+    }
+
+    private static long[] nightStarts(int count) {
+        long[] starts = new long[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = i * NIGHT;
+        }
+        return starts;
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int index : indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
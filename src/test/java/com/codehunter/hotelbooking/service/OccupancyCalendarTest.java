@@ -0,0 +1,157 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Booking;
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.ActiveStay;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.StayChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class OccupancyCalendarTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private RoomRepository roomRepository;
+    @TempDir
+    Path tempDir;
+
+    private Room room1;
+    private Room room2;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        room1 = room("101");
+        room2 = room("102");
+        today = LocalDate.now();
+        when(roomRepository.findAll()).thenReturn(List.of(room1, room2));
+        when(bookingRepository.findActiveStaysInRange(any(), any())).thenReturn(List.of());
+        when(bookingRepository.findStayChangesSince(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void findAvailableRoomIds_excludesOccupiedNights() throws Exception {
+        OccupancyCalendar calendar = newCalendar();
+        calendar.open();
+        calendar.onBookingChanged(BookingChangedEvent.created(UUID.randomUUID(), room1.getId(),
+                at(today.plusDays(2)), at(today.plusDays(4))));
+
+        assertEquals(Optional.of(List.of(room2.getId())), calendar.findAvailableRoomIds(today.plusDays(3), today.plusDays(5)));
+        assertEquals(Optional.of(List.of(room1.getId(), room2.getId())), calendar.findAvailableRoomIds(today.plusDays(4), today.plusDays(6)));
+        calendar.close();
+    }
+
+    @Test
+    void findAvailableRoomIds_outsideHorizon_returnsEmpty() throws Exception {
+        OccupancyCalendar calendar = newCalendar();
+        calendar.open();
+
+        assertTrue(calendar.findAvailableRoomIds(today.plusDays(40), today.plusDays(45)).isEmpty());
+        calendar.close();
+    }
+
+    @Test
+    void open_remapsExistingFileWithoutRebuilding() throws Exception {
+        OccupancyCalendar calendar = newCalendar();
+        calendar.open();
+        calendar.onBookingChanged(BookingChangedEvent.created(UUID.randomUUID(), room2.getId(),
+                at(today.plusDays(1)), at(today.plusDays(3))));
+        calendar.close();
+        clearInvocations(bookingRepository);
+
+        OccupancyCalendar reopened = newCalendar();
+        reopened.open();
+
+        assertEquals(Optional.of(List.of(room1.getId())), reopened.findAvailableRoomIds(today.plusDays(1), today.plusDays(2)));
+        verify(bookingRepository).findStayChangesSince(any());
+        verify(bookingRepository, never()).findActiveStaysInRange(any(), any());
+        reopened.close();
+    }
+
+    @Test
+    void cancelAndRebookSameNights_keepsRoomOccupiedAcrossReopen() throws Exception {
+        UUID cancelledId = UUID.randomUUID();
+        UUID rebookedId = UUID.randomUUID();
+        Instant checkIn = at(today.plusDays(2));
+        Instant checkOut = at(today.plusDays(4));
+        when(bookingRepository.findActiveStaysForRoomsInRange(any(), any(), any()))
+                .thenReturn(List.of(new ActiveStay(rebookedId, room1.getId(), checkIn, checkOut)));
+        OccupancyCalendar calendar = newCalendar();
+        calendar.open();
+        calendar.onBookingChanged(BookingChangedEvent.created(cancelledId, room1.getId(), checkIn, checkOut));
+        // Listeners of the two commits ran out of order: the rebooking is applied before the cancellation
+        calendar.onBookingChanged(BookingChangedEvent.created(rebookedId, room1.getId(), checkIn, checkOut));
+        calendar.onBookingChanged(BookingChangedEvent.cancelled(cancelledId, room1.getId(), checkIn, checkOut));
+
+        assertEquals(Optional.of(List.of(room2.getId())), calendar.findAvailableRoomIds(today.plusDays(2), today.plusDays(3)));
+        calendar.close();
+
+        when(bookingRepository.findStayChangesSince(any())).thenReturn(List.of(
+                new StayChange(rebookedId, room1.getId(), checkIn, checkOut, Booking.Status.ACTIVE),
+                new StayChange(cancelledId, room1.getId(), checkIn, checkOut, Booking.Status.CANCELLED)));
+        OccupancyCalendar reopened = newCalendar();
+        reopened.open();
+
+        assertEquals(Optional.of(List.of(room2.getId())), reopened.findAvailableRoomIds(today.plusDays(2), today.plusDays(3)));
+        reopened.close();
+    }
+
+    @Test
+    void open_replaysBookingMovedToAnotherRoom_freesOldRoom() throws Exception {
+        UUID bookingId = UUID.randomUUID();
+        Instant checkIn = at(today.plusDays(1));
+        Instant checkOut = at(today.plusDays(3));
+        OccupancyCalendar calendar = newCalendar();
+        calendar.open();
+        calendar.onBookingChanged(BookingChangedEvent.created(bookingId, room1.getId(), checkIn, checkOut));
+        calendar.close();
+
+        when(bookingRepository.findStayChangesSince(any())).thenReturn(List.of(
+                new StayChange(bookingId, room2.getId(), checkIn, checkOut, Booking.Status.ACTIVE)));
+        when(bookingRepository.findActiveStaysForRoomsInRange(any(), any(), any()))
+                .thenReturn(List.of(new ActiveStay(bookingId, room2.getId(), checkIn, checkOut)));
+        OccupancyCalendar reopened = newCalendar();
+        reopened.open();
+
+        assertEquals(Optional.of(List.of(room1.getId())), reopened.findAvailableRoomIds(today.plusDays(1), today.plusDays(3)));
+        verify(bookingRepository).findActiveStaysForRoomsInRange(
+                argThat(ids -> ids != null && ids.containsAll(List.of(room1.getId(), room2.getId()))), any(), any());
+        reopened.close();
+    }
+
+    private OccupancyCalendar newCalendar() {
+        return new OccupancyCalendar(bookingRepository, roomRepository, tempDir.resolve("occupancy.bin").toString(), 128, 30);
+    }
+
+    private static Instant at(LocalDate date) {
+        return date.atTime(14, 0).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static Room room(String number) {
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber(number);
+        room.setPricePerNight(BigDecimal.valueOf(100));
+        return room;
+    }
+}
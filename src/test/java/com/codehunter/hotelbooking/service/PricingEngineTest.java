@@ -0,0 +1,166 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Money;
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.model.RoomTypeRate;
+import com.codehunter.hotelbooking.model.User.MembershipLevel;
+import com.codehunter.hotelbooking.repository.RoomTypeRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PricingEngineTest {
+    @Mock
+    private RoomTypeRateRepository rateRepository;
+
+    private PricingEngine pricingEngine;
+    private Room room;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(rateRepository.findByRoomTypeOrderByStartDate(anyString())).thenReturn(List.of());
+        pricingEngine = new PricingEngine(rateRepository, 730, 0, 1000, 2000);
+        room = new Room();
+        room.setType("DELUXE");
+        room.setPricePerNight(new BigDecimal("100.00"));
+        // A Monday inside the table's horizon
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        monday = today.plusDays(7 - today.getDayOfWeek().getValue() + 1L);
+    }
+
+    @Test
+    void quote_withoutSeasonsChargesNightlyPriceLessMembershipDiscount() {
+        PricingEngine.Quote quote = pricingEngine.quote(room, checkIn(monday), 3, MembershipLevel.GOLD);
+
+        assertEquals(Money.ofMinor(30_000, Money.USD), quote.total());
+        assertEquals(Money.ofMinor(3_000, Money.USD), quote.discount());
+        assertEquals(Money.ofMinor(27_000, Money.USD), quote.finalAmount());
+    }
+
+    @Test
+    void quote_appliesWeekdayAndWeekendRatesOfSeason() {
+        when(rateRepository.findByRoomTypeOrderByStartDate("DELUXE"))
+                .thenReturn(List.of(season(monday, monday.plusDays(14), 12_000, 15_000)));
+
+        // Monday to Monday: five weekday nights at 120.00 and Friday/Saturday at 150.00
+        PricingEngine.Quote quote = pricingEngine.quote(room, checkIn(monday), 7, MembershipLevel.CLASSIC);
+
+        assertEquals(Money.ofMinor(5 * 12_000 + 2 * 15_000, Money.USD), quote.total());
+        assertTrue(quote.discount().isZero());
+    }
+
+    @Test
+    void quote_chargesPlainPriceForNightsOutsideSeasons() {
+        when(rateRepository.findByRoomTypeOrderByStartDate("DELUXE"))
+                .thenReturn(List.of(season(monday.plusDays(1), monday.plusDays(2), 20_000, 20_000)));
+
+        PricingEngine.Quote quote = pricingEngine.quote(room, checkIn(monday), 3, MembershipLevel.CLASSIC);
+
+        assertEquals(Money.ofMinor(10_000 + 20_000 + 10_000, Money.USD), quote.total());
+    }
+
+    @Test
+    void quote_beyondHorizonMatchesNightByNightSum() {
+        LocalDate farMonday = monday.plusWeeks(200);
+        when(rateRepository.findByRoomTypeOrderByStartDate("DELUXE"))
+                .thenReturn(List.of(season(monday, farMonday.plusDays(7), 12_000, 15_000)));
+
+        PricingEngine.Quote inside = pricingEngine.quote(room, checkIn(monday), 7, MembershipLevel.CLASSIC);
+        PricingEngine.Quote outside = pricingEngine.quote(room, checkIn(farMonday), 7, MembershipLevel.CLASSIC);
+
+        assertEquals(inside.total(), outside.total());
+    }
+
+    @Test
+    void table_isBuiltOncePerRoomTypeAndRebuiltOnlyForReplacedType() {
+        Room standard = new Room();
+        standard.setType("STANDARD");
+        standard.setPricePerNight(new BigDecimal("80.00"));
+        pricingEngine.quote(room, checkIn(monday), 2, MembershipLevel.CLASSIC);
+        pricingEngine.quote(room, checkIn(monday), 5, MembershipLevel.CLASSIC);
+        pricingEngine.quote(standard, checkIn(monday), 2, MembershipLevel.CLASSIC);
+        verify(rateRepository, times(1)).findByRoomTypeOrderByStartDate("DELUXE");
+        verify(rateRepository, times(1)).findByRoomTypeOrderByStartDate("STANDARD");
+
+        RoomTypeRate peak = season(monday, monday.plusDays(7), 20_000, 20_000);
+        pricingEngine.replaceRates("DELUXE", List.of(peak));
+        when(rateRepository.findByRoomTypeOrderByStartDate("DELUXE")).thenReturn(List.of(peak));
+        PricingEngine.Quote quote = pricingEngine.quote(room, checkIn(monday), 2, MembershipLevel.CLASSIC);
+        pricingEngine.quote(standard, checkIn(monday), 2, MembershipLevel.CLASSIC);
+
+        assertEquals(Money.ofMinor(40_000, Money.USD), quote.total());
+        verify(rateRepository, times(2)).findByRoomTypeOrderByStartDate("DELUXE");
+        verify(rateRepository, times(1)).findByRoomTypeOrderByStartDate("STANDARD");
+    }
+
+    @Test
+    void table_builtFromSeasonsReplacedDuringLoadIsNotKept() {
+        RoomTypeRate peak = season(monday, monday.plusDays(7), 20_000, 20_000);
+        when(rateRepository.findByRoomTypeOrderByStartDate("DELUXE"))
+                .thenAnswer(invocation -> {
+                    // The seasons change after this read but before the table is installed
+                    pricingEngine.replaceRates("DELUXE", List.of(peak));
+                    return List.of();
+                })
+                .thenReturn(List.of(peak));
+
+        PricingEngine.Quote stale = pricingEngine.quote(room, checkIn(monday), 2, MembershipLevel.CLASSIC);
+        PricingEngine.Quote fresh = pricingEngine.quote(room, checkIn(monday), 2, MembershipLevel.CLASSIC);
+
+        assertEquals(Money.ofMinor(20_000, Money.USD), stale.total());
+        assertEquals(Money.ofMinor(40_000, Money.USD), fresh.total());
+        verify(rateRepository, times(2)).findByRoomTypeOrderByStartDate("DELUXE");
+    }
+
+    @Test
+    void replaceRates_rejectsOverlappingSeasons() {
+        List<RoomTypeRate> seasons = List.of(
+                season(monday, monday.plusDays(10), 12_000, 12_000),
+                season(monday.plusDays(9), monday.plusDays(20), 15_000, 15_000));
+
+        assertThrows(IllegalArgumentException.class, () -> pricingEngine.replaceRates("DELUXE", seasons));
+        verify(rateRepository, never()).deleteByRoomType(anyString());
+    }
+
+    @Test
+    void isWeekendNight_fridayAndSaturdayOnly() {
+        LocalDate friday = LocalDate.of(2025, 10, 10);
+        assertTrue(PricingEngine.RateTable.isWeekendNight(friday.toEpochDay()));
+        assertTrue(PricingEngine.RateTable.isWeekendNight(friday.plusDays(1).toEpochDay()));
+        assertFalse(PricingEngine.RateTable.isWeekendNight(friday.plusDays(2).toEpochDay()));
+        assertFalse(PricingEngine.RateTable.isWeekendNight(friday.minusDays(1).toEpochDay()));
+    }
+
+    @Test
+    void discountsByLevel_exposesConfiguredDiscounts() {
+        assertEquals(0, pricingEngine.discountsByLevel().get(MembershipLevel.CLASSIC));
+        assertEquals(1000, pricingEngine.discountsByLevel().get(MembershipLevel.GOLD));
+        assertEquals(2000, pricingEngine.discountsByLevel().get(MembershipLevel.DIAMOND));
+    }
+
+    private static Instant checkIn(LocalDate date) {
+        return date.atTime(14, 0).toInstant(ZoneOffset.UTC);
+    }
+
+    private static RoomTypeRate season(LocalDate start, LocalDate end, int weekdayBps, int weekendBps) {
+        RoomTypeRate rate = new RoomTypeRate();
+        rate.setStartDate(start);
+        rate.setEndDate(end);
+        rate.setWeekdayBps(weekdayBps);
+        rate.setWeekendBps(weekendBps);
+        return rate;
+    }
+}
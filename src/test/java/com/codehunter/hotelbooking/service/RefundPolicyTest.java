@@ -0,0 +1,70 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefundPolicyTest {
+    private final RefundPolicy defaultPolicy = new RefundPolicy("");
+
+    @Test
+    void defaultTiers_matchHistoricalPolicy() {
+        assertEquals(10_000, defaultPolicy.tierFor(49).refundBps());
+        assertEquals(5_000, defaultPolicy.tierFor(48).refundBps());
+        assertEquals(5_000, defaultPolicy.tierFor(24).refundBps());
+        assertEquals(0, defaultPolicy.tierFor(23).refundBps());
+        assertEquals(0, defaultPolicy.tierFor(0).refundBps());
+        assertNull(defaultPolicy.tierFor(-1));
+        assertEquals("50% refund (cancelled 24-48h before check-in)", defaultPolicy.tierFor(30).message());
+    }
+
+    @Test
+    void tierFor_returnsSameTierInstanceEachTime() {
+        assertSame(defaultPolicy.tierFor(100), defaultPolicy.tierFor(5000));
+    }
+
+    @Test
+    void tier_computesRefundAndPenalty() {
+        Money paid = Money.ofMinor(20_001, Money.USD);
+        RefundPolicy.Tier half = defaultPolicy.tierFor(30);
+        // 100.005 rounds half-up to 100.01; the penalty takes the remainder
+        assertEquals(Money.ofMinor(10_001, Money.USD), half.refund(paid));
+        assertEquals(Money.ofMinor(10_000, Money.USD), half.penalty(paid));
+        RefundPolicy.Tier full = defaultPolicy.tierFor(72);
+        assertEquals(paid, full.refund(paid));
+        assertEquals(Money.zero(Money.USD), full.penalty(paid));
+    }
+
+    @Test
+    void configuredTiers_areSortedRegardlessOfOrder() {
+        RefundPolicy policy = new RefundPolicy("12|0.25|Quarter;72|1|Full");
+        assertEquals("Full", policy.tierFor(80).message());
+        assertEquals("Quarter", policy.tierFor(71).message());
+        assertNull(policy.tierFor(11));
+    }
+
+    @Test
+    void cancellableCheckInAfter_matchesLowestTier() {
+        Instant now = Instant.parse("2030-01-01T12:00:00Z");
+        // Lowest default tier is 0h, so anything less than a whole hour past check-in still counts
+        assertEquals(now.minus(Duration.ofHours(1)), defaultPolicy.cancellableCheckInAfter(now));
+
+        RefundPolicy policy = new RefundPolicy("12|0.25|Quarter");
+        Instant cutoff = policy.cancellableCheckInAfter(now);
+        assertNotNull(policy.tierFor(now, now.plus(Duration.ofHours(12))));
+        assertTrue(now.plus(Duration.ofHours(12)).isAfter(cutoff));
+        assertNull(policy.tierFor(now, cutoff));
+    }
+
+    @Test
+    void invalidTiers_areRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RefundPolicy("24|0.5"));
+        assertThrows(IllegalArgumentException.class, () -> new RefundPolicy("24|1.5|Too much"));
+        assertThrows(IllegalArgumentException.class, () -> new RefundPolicy("24|0.5|A;24|1|B"));
+        assertThrows(IllegalArgumentException.class, () -> new RefundPolicy("24|0.33333|Not whole basis points"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.repository.CancellationRepository;
+import com.codehunter.hotelbooking.repository.RefundClaim;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RefundProcessorTest {
+    @Mock
+    private CancellationRepository cancellationRepository;
+    @Mock
+    private RefundGateway refundGateway;
+
+    private RefundProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        processor = new RefundProcessor(cancellationRepository, refundGateway, 10, 120, 3, 30, 600);
+    }
+
+    @Test
+    void processDueRefunds_completesSuccessfulRefunds() {
+        RefundClaim claim = claim(1);
+        when(cancellationRepository.claimDueRefunds(any(), any(), eq(10))).thenReturn(List.of(claim));
+
+        processor.processDueRefunds();
+
+        verify(refundGateway).refund(claim.getId(), claim.getBookingId(), claim.getRefundAmount());
+        verify(cancellationRepository).markRefundCompleted(eq(claim.getId()), any());
+    }
+
+    @Test
+    void process_schedulesRetryWithBackoffOnFailure() {
+        RefundClaim claim = claim(2);
+        doThrow(new IllegalStateException("gateway down")).when(refundGateway).refund(any(), any(), any());
+
+        Instant before = Instant.now();
+        processor.process(claim);
+
+        verify(cancellationRepository).scheduleRefundRetry(eq(claim.getId()),
+                argThat(at -> !at.isBefore(before.plusSeconds(60))), contains("gateway down"));
+        verify(cancellationRepository, never()).markRefundFailed(any(), anyString());
+    }
+
+    @Test
+    void process_failsAfterMaxAttempts() {
+        RefundClaim claim = claim(3);
+        doThrow(new IllegalStateException("card expired")).when(refundGateway).refund(any(), any(), any());
+
+        processor.process(claim);
+
+        verify(cancellationRepository).markRefundFailed(eq(claim.getId()), contains("card expired"));
+        verify(cancellationRepository, never()).scheduleRefundRetry(any(), any(), anyString());
+    }
+
+    @Test
+    void backoff_doublesUpToMaximum() {
+        assertEquals(Duration.ofSeconds(30), processor.backoff(1));
+        assertEquals(Duration.ofSeconds(60), processor.backoff(2));
+        assertEquals(Duration.ofSeconds(120), processor.backoff(3));
+        assertEquals(Duration.ofSeconds(600), processor.backoff(10));
+    }
+
+    private static RefundClaim claim(int attempts) {
+        UUID id = UUID.randomUUID();
+        UUID bookingId = UUID.randomUUID();
+        return new RefundClaim() {
+            public UUID getId() { return id; }
+            public UUID getBookingId() { return bookingId; }
+            public BigDecimal getRefundAmount() { return BigDecimal.valueOf(100); }
+            public int getAttempts() { return attempts; }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.dto.HoldResponse;
+import com.codehunter.hotelbooking.exception.BookingConflictException;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class ReservationHoldServiceTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private RoomRepository roomRepository;
+
+    private ReservationHoldService holdService;
+    private final UUID roomId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final Instant checkIn = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(30, ChronoUnit.DAYS).plus(14, ChronoUnit.HOURS);
+    private final Instant checkOut = checkIn.plus(46, ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(roomRepository.existsById(any())).thenReturn(true);
+        holdService = new ReservationHoldService(bookingRepository, roomRepository, 600, 3, 30, 365);
+    }
+
+    @Test
+    void hold_blocksOverlappingStaysOnly() {
+        HoldResponse hold = holdService.createHold(roomId, checkIn, checkOut, userId);
+
+        assertTrue(holdService.isHeld(roomId, checkIn.plusSeconds(86400), checkOut.plusSeconds(86400), null));
+        // Back-to-back stays do not overlap
+        assertFalse(holdService.isHeld(roomId, checkOut, checkOut.plusSeconds(86400), null));
+        assertFalse(holdService.isHeld(UUID.randomUUID(), checkIn, checkOut, null));
+        assertFalse(holdService.isHeld(roomId, checkIn, checkOut, hold.getHoldId()));
+        assertThrows(BookingConflictException.class, () -> holdService.createHold(roomId, checkIn, checkOut, UUID.randomUUID()));
+    }
+
+    @Test
+    void verifyHold_checksOwnerAndStay() {
+        HoldResponse hold = holdService.createHold(roomId, checkIn, checkOut, userId);
+
+        holdService.verifyHold(hold.getHoldId(), userId, roomId, checkIn, checkOut);
+        assertThrows(AccessDeniedException.class, () -> holdService.verifyHold(hold.getHoldId(), UUID.randomUUID(), roomId, checkIn, checkOut));
+        assertThrows(IllegalArgumentException.class, () -> holdService.verifyHold(hold.getHoldId(), userId, roomId, checkIn, checkOut.plusSeconds(86400)));
+        assertThrows(IllegalArgumentException.class, () -> holdService.verifyHold(UUID.randomUUID(), userId, roomId, checkIn, checkOut));
+    }
+
+    @Test
+    void release_freesRoom() {
+        HoldResponse hold = holdService.createHold(roomId, checkIn, checkOut, userId);
+
+        assertThrows(AccessDeniedException.class, () -> holdService.release(hold.getHoldId(), UUID.randomUUID()));
+        holdService.release(hold.getHoldId(), userId);
+        assertFalse(holdService.isHeld(roomId, checkIn, checkOut, null));
+    }
+
+    @Test
+    void sweepExpired_dropsExpiredHoldsInOneBatch() {
+        ReservationHoldService shortLived = new ReservationHoldService(bookingRepository, roomRepository, 0, 3, 30, 365);
+        HoldResponse first = shortLived.createHold(roomId, checkIn, checkOut, userId);
+        shortLived.createHold(UUID.randomUUID(), checkIn, checkOut, userId);
+
+        shortLived.sweepExpired();
+
+        assertFalse(shortLived.isHeld(roomId, checkIn, checkOut, null));
+        assertThrows(IllegalArgumentException.class, () -> shortLived.verifyHold(first.getHoldId(), userId, roomId, checkIn, checkOut));
+    }
+
+    @Test
+    void createHold_capsHoldsPerUser() {
+        for (int i = 0; i < 3; i++) {
+            holdService.createHold(UUID.randomUUID(), checkIn, checkOut, userId);
+        }
+        UUID fourthRoom = UUID.randomUUID();
+        assertThrows(BookingConflictException.class, () -> holdService.createHold(fourthRoom, checkIn, checkOut, userId));
+        assertFalse(holdService.isHeld(fourthRoom, checkIn, checkOut, null));
+        // Other users are not affected
+        holdService.createHold(fourthRoom, checkIn, checkOut, UUID.randomUUID());
+    }
+
+    @Test
+    void createHold_releasingFreesASlot() {
+        HoldResponse first = holdService.createHold(UUID.randomUUID(), checkIn, checkOut, userId);
+        holdService.createHold(UUID.randomUUID(), checkIn, checkOut, userId);
+        holdService.createHold(UUID.randomUUID(), checkIn, checkOut, userId);
+
+        holdService.release(first.getHoldId(), userId);
+
+        holdService.createHold(UUID.randomUUID(), checkIn, checkOut, userId);
+    }
+
+    @Test
+    void createHold_rejectsPastCheckIn() {
+        Instant yesterday = Instant.now().minus(1, ChronoUnit.DAYS);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> holdService.createHold(roomId, yesterday, yesterday.plus(2, ChronoUnit.DAYS), userId));
+        assertTrue(ex.getMessage().contains("past"));
+    }
+
+    @Test
+    void createHold_rejectsStayLongerThanMaxNights() {
+        assertThrows(IllegalArgumentException.class,
+                () -> holdService.createHold(roomId, checkIn, checkIn.plus(31, ChronoUnit.DAYS), userId));
+        holdService.createHold(roomId, checkIn, checkIn.plus(30, ChronoUnit.DAYS), userId);
+    }
+
+    @Test
+    void createHold_rejectsCheckInBeyondHorizon() {
+        Instant farAhead = Instant.now().plus(366, ChronoUnit.DAYS);
+        assertThrows(IllegalArgumentException.class,
+                () -> holdService.createHold(roomId, farAhead, farAhead.plus(2, ChronoUnit.DAYS), userId));
+        assertFalse(holdService.isHeld(roomId, farAhead, farAhead.plus(2, ChronoUnit.DAYS), null));
+    }
+}
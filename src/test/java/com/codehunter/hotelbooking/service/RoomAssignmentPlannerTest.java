@@ -0,0 +1,85 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository.AssignedStay;
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository.Move;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomAssignmentPlannerTest {
+    private static final long FIRST_NIGHT = LocalDate.of(2031, 3, 1).toEpochDay();
+
+    private final RoomAssignmentPlanner planner = new RoomAssignmentPlanner(FIRST_NIGHT, FIRST_NIGHT + 30, 2);
+    private final Instant now = night(-1);
+    private final UUID roomA = UUID.randomUUID();
+    private final UUID roomB = UUID.randomUUID();
+
+    @Test
+    void movesStayToCloseUnsellableGap() {
+        // Room A has a one-night hole between nights 4 and 5 that no two-night stay can use
+        AssignedStay stayInA = stay(roomA, 0, 4, true);
+        AssignedStay movable = stay(roomA, 5, 8, false);
+        AssignedStay stayInB = stay(roomB, 0, 5, true);
+
+        RoomAssignmentPlanner.Plan plan = planner.plan("Double", List.of(roomA, roomB),
+                List.of(stayInA, movable, stayInB), now, (roomId, stay) -> false);
+
+        assertEquals(List.of(new Move(movable.bookingId(), roomA, roomB)), plan.moves());
+        assertEquals(47, plan.sellableNightsBefore());
+        assertEquals(48, plan.sellableNightsAfter());
+        assertEquals(1, plan.recoveredNights());
+    }
+
+    @Test
+    void pinnedStaysKeepTheirRooms() {
+        RoomAssignmentPlanner.Plan plan = planner.plan("Double", List.of(roomA, roomB),
+                List.of(stay(roomA, 0, 4, true), stay(roomA, 5, 8, true), stay(roomB, 0, 5, true)),
+                now, (roomId, stay) -> false);
+
+        assertTrue(plan.moves().isEmpty());
+        assertEquals(0, plan.recoveredNights());
+    }
+
+    @Test
+    void startedStaysKeepTheirRooms() {
+        RoomAssignmentPlanner.Plan plan = planner.plan("Double", List.of(roomA, roomB),
+                List.of(stay(roomA, 0, 4, true), stay(roomA, 5, 8, false), stay(roomB, 0, 5, true)),
+                night(6), (roomId, stay) -> false);
+
+        assertTrue(plan.moves().isEmpty());
+    }
+
+    @Test
+    void blockedRoomsAreNotTargets() {
+        RoomAssignmentPlanner.Plan plan = planner.plan("Double", List.of(roomA, roomB),
+                List.of(stay(roomA, 0, 4, true), stay(roomA, 5, 8, false), stay(roomB, 0, 5, true)),
+                now, (roomId, stay) -> roomId.equals(roomB));
+
+        assertTrue(plan.moves().isEmpty());
+    }
+
+    @Test
+    void noMovesWithoutImprovement() {
+        // Both rooms keep only sellable gaps, so shuffling the stays cannot recover anything
+        RoomAssignmentPlanner.Plan plan = planner.plan("Double", List.of(roomA, roomB),
+                List.of(stay(roomA, 0, 4, false), stay(roomB, 10, 14, false)),
+                now, (roomId, stay) -> false);
+
+        assertTrue(plan.moves().isEmpty());
+        assertEquals(plan.sellableNightsBefore(), plan.sellableNightsAfter());
+    }
+
+    private static AssignedStay stay(UUID roomId, int fromNight, int toNight, boolean pinned) {
+        return new AssignedStay(UUID.randomUUID(), roomId, "Double", night(fromNight), night(toNight), pinned);
+    }
+
+    private static Instant night(int offset) {
+        return LocalDate.ofEpochDay(FIRST_NIGHT + offset).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,128 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.ActiveStay;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class RoomAvailabilityIndexTest {
+    @Mock
+    private RoomRepository roomRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private RoomAvailabilityIndex index;
+    private Room room1;
+    private Room room2;
+    private Instant day1;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new RoomAvailabilityIndex(roomRepository, bookingRepository);
+        room1 = room("101");
+        room2 = room("102");
+        day1 = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.DAYS);
+        when(roomRepository.findAll()).thenReturn(List.of(room2, room1));
+    }
+
+    @Test
+    void findAvailableRooms_excludesRoomsWithOverlappingStay() {
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(List.of(
+                new ActiveStay(UUID.randomUUID(), room1.getId(), day(1), day(3))));
+        index.load();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(room2), index.findAvailableRooms(day(2), day(4)));
+        assertEquals(List.of(room1, room2), index.findAvailableRooms(day(3), day(5)));
+    }
+
+    @Test
+    void findAvailableRooms_detectsLongStayStartingBeforeShorterOnes() {
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(List.of(
+                new ActiveStay(UUID.randomUUID(), room1.getId(), day(1), day(10)),
+                new ActiveStay(UUID.randomUUID(), room1.getId(), day(2), day(3))));
+        index.load();
+
+        assertEquals(List.of(room2), index.findAvailableRooms(day(6), day(7)));
+    }
+
+    @Test
+    void onBookingChanged_appliesCreateAndCancel() {
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(List.of());
+        index.load();
+        UUID bookingId = UUID.randomUUID();
+
+        index.onBookingChanged(BookingChangedEvent.created(bookingId, room2.getId(), day(1), day(2)));
+        assertEquals(List.of(room1), index.findAvailableRooms(day(1), day(2)));
+
+        index.onBookingChanged(BookingChangedEvent.cancelled(bookingId, room2.getId(), day(1), day(2)));
+        assertEquals(List.of(room1, room2), index.findAvailableRooms(day(1), day(2)));
+    }
+
+    @Test
+    void findRoomsForStay_prefersRoomWhoseFreeRunItFillsExactly() {
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(List.of(
+                new ActiveStay(UUID.randomUUID(), room2.getId(), day(1), day(3)),
+                new ActiveStay(UUID.randomUUID(), room2.getId(), day(5), day(8))));
+        index.load();
+
+        // room2 has exactly the two free nights between its stays; room1 would be cut into two open runs
+        assertEquals(List.of(room2, room1), index.findRoomsForStay("STANDARD", day(3), day(5)));
+        assertEquals(List.of(room1), index.findRoomsForStay("STANDARD", day(2), day(4)));
+        assertEquals(List.of(), index.findRoomsForStay("DELUXE", day(3), day(5)));
+    }
+
+    @Test
+    void findRoomsForStay_prefersRoomAdjacentToExistingStay() {
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(List.of(
+                new ActiveStay(UUID.randomUUID(), room2.getId(), day(1), day(3))));
+        index.load();
+
+        assertEquals(List.of(room2, room1), index.findRoomsForStay("STANDARD", day(3), day(4)));
+    }
+
+    @Test
+    void countAvailableRoomsByType_countsPerTypeAndSkipsBlockedRooms() {
+        Room deluxe = room("201");
+        deluxe.setType("DELUXE");
+        when(roomRepository.findAll()).thenReturn(List.of(room1, room2, deluxe));
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(List.of(
+                new ActiveStay(UUID.randomUUID(), room1.getId(), day(1), day(3))));
+        index.load();
+
+        assertEquals(Map.of("DELUXE", 1, "STANDARD", 1), index.countAvailableRoomsByType(day(2), day(4), roomId -> false));
+        assertEquals(List.of("DELUXE", "STANDARD"),
+                List.copyOf(index.countAvailableRoomsByType(day(2), day(4), roomId -> false).keySet()));
+        assertEquals(Map.of("DELUXE", 1, "STANDARD", 0),
+                index.countAvailableRoomsByType(day(2), day(4), roomId -> roomId.equals(room2.getId())));
+    }
+
+    private Instant day(int offset) {
+        return day1.plus(offset - 1L, ChronoUnit.DAYS);
+    }
+
+    private static Room room(String number) {
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber(number);
+        room.setType("STANDARD");
+        room.setPricePerNight(BigDecimal.valueOf(100));
+        return room;
+    }
+}
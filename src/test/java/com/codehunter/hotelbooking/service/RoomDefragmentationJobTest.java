@@ -0,0 +1,152 @@
+package com.codehunter.hotelbooking.service;
+
+import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.ActiveStay;
+import com.codehunter.hotelbooking.repository.BookingRepository;
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository;
+import com.codehunter.hotelbooking.repository.RoomAssignmentRepository.AssignedStay;
+import com.codehunter.hotelbooking.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class RoomDefragmentationJobTest {
+    @Mock
+    private RoomAssignmentRepository roomAssignmentRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private RoomRepository roomRepository;
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private ReservationHoldService reservationHoldService;
+    @Mock
+    private RoomService roomService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    Path tempDir;
+
+    private final LocalDate firstNight = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+    private Room roomA;
+    private Room roomB;
+    private RoomAvailabilityIndex index;
+    private OccupancyCalendar calendar;
+    private RoomDefragmentationJob job;
+    private final List<BookingChangedEvent> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        roomA = room("101");
+        roomB = room("102");
+        when(roomRepository.findAll()).thenReturn(List.of(roomA, roomB));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        index = new RoomAvailabilityIndex(roomRepository, bookingRepository);
+        calendar = new OccupancyCalendar(bookingRepository, roomRepository, tempDir.resolve("occupancy.bin").toString(), 128, 30);
+        BookingCoordinator coordinator = new BookingCoordinator(bookingService, reservationHoldService, roomService,
+                new SimpleMeterRegistry(), 64, 5000);
+        // Events reach the in-memory structures in publishing order, as their after-commit listeners would
+        job = new RoomDefragmentationJob(roomAssignmentRepository, coordinator, reservationHoldService, event -> {
+            published.add((BookingChangedEvent) event);
+            index.onBookingChanged((BookingChangedEvent) event);
+            calendar.onBookingChanged((BookingChangedEvent) event);
+        }, transactionManager, new SimpleMeterRegistry(), 1, 30, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        calendar.close();
+        job.shutdown();
+    }
+
+    @Test
+    void run_swapsBookingsAndKeepsIndexAndCalendarInStep() throws Exception {
+        // Each room has a one-night hole; moving X into B and Y into A turns A's hole into two sellable nights
+        AssignedStay pinnedA = stay(roomA, 0, 4, true);
+        AssignedStay x = stay(roomA, 5, 8, false);
+        AssignedStay pinnedB = stay(roomB, 0, 5, true);
+        AssignedStay y = stay(roomB, 6, 9, false);
+        List<AssignedStay> before = List.of(pinnedA, x, pinnedB, y);
+        List<AssignedStay> after = List.of(pinnedA, moved(x, roomB), pinnedB, moved(y, roomA));
+        when(roomAssignmentRepository.findRoomIdsByType()).thenReturn(Map.of("Double", List.of(roomA.getId(), roomB.getId())));
+        when(roomAssignmentRepository.findActiveStaysEndingAfter(any())).thenReturn(before);
+        when(roomAssignmentRepository.moveBookings(any(), any())).thenReturn(new int[]{1, 1});
+        when(bookingRepository.findActiveStaysEndingAfter(any())).thenReturn(activeStays(before));
+        when(bookingRepository.findActiveStaysInRange(any(), any())).thenReturn(activeStays(before));
+        when(bookingRepository.findActiveStaysForRoomsInRange(any(), any(), any())).thenAnswer(invocation -> {
+            Collection<UUID> roomIds = invocation.getArgument(0);
+            return activeStays(after).stream().filter(stay -> roomIds.contains(stay.roomId())).toList();
+        });
+        index.load();
+        calendar.open();
+
+        RoomDefragmentationJob.Report report = job.run();
+
+        assertEquals(2, report.bookingsMoved());
+        assertEquals(2, report.recoveredRoomNights());
+        assertEquals(List.of(BookingChangedEvent.Type.CANCELLED, BookingChangedEvent.Type.CANCELLED,
+                        BookingChangedEvent.Type.CREATED, BookingChangedEvent.Type.CREATED),
+                published.stream().map(BookingChangedEvent::type).toList());
+        assertEquals(List.of(roomA), index.findAvailableRooms(at(4), at(5)));
+        assertEquals(List.of(roomB), index.findAvailableRooms(at(8), at(9)));
+        assertEquals(Optional.of(List.of(roomA.getId())), calendar.findAvailableRoomIds(date(4), date(6)));
+        assertEquals(Optional.of(List.of(roomB.getId())), calendar.findAvailableRoomIds(date(8), date(9)));
+        // Both rooms are taken on the nights the swapped stays share
+        assertEquals(Optional.of(List.of()), calendar.findAvailableRoomIds(date(6), date(8)));
+        assertEquals(List.of(), index.findAvailableRooms(at(6), at(7)));
+    }
+
+    private AssignedStay stay(Room room, int fromNight, int toNight, boolean pinned) {
+        return new AssignedStay(UUID.randomUUID(), room.getId(), "Double", at(fromNight), at(toNight), pinned);
+    }
+
+    private static AssignedStay moved(AssignedStay stay, Room room) {
+        return new AssignedStay(stay.bookingId(), room.getId(), stay.roomType(), stay.checkIn(), stay.checkOut(), stay.pinned());
+    }
+
+    private static List<ActiveStay> activeStays(List<AssignedStay> stays) {
+        return stays.stream().map(stay -> new ActiveStay(stay.bookingId(), stay.roomId(), stay.checkIn(), stay.checkOut())).toList();
+    }
+
+    private Instant at(int night) {
+        return firstNight.plusDays(night).atTime(12, 0).toInstant(ZoneOffset.UTC);
+    }
+
+    private LocalDate date(int night) {
+        return LocalDate.ofInstant(at(night), ZoneId.systemDefault());
+    }
+
+    private static Room room(String number) {
+        Room room = new Room();
+        room.setId(UUID.randomUUID());
+        room.setRoomNumber(number);
+        room.setType("Double");
+        room.setPricePerNight(BigDecimal.valueOf(100));
+        return room;
+    }
+}
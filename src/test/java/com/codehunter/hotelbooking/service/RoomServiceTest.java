@@ -1,19 +1,35 @@
 package com.codehunter.hotelbooking.service;
 
+import com.codehunter.hotelbooking.dto.AvailabilityBatchRequest;
+import com.codehunter.hotelbooking.dto.AvailabilityBatchResponse;
+import com.codehunter.hotelbooking.dto.CalendarRun;
+import com.codehunter.hotelbooking.dto.FlexibleAvailabilityResponse;
+import com.codehunter.hotelbooking.dto.RoomCalendarResponse;
 import com.codehunter.hotelbooking.dto.RoomResponse;
+import com.codehunter.hotelbooking.dto.RoomTypeAvailabilityResponse;
 import com.codehunter.hotelbooking.model.Room;
+import com.codehunter.hotelbooking.repository.ActiveStay;
+import com.codehunter.hotelbooking.repository.BookingRepository;
 import com.codehunter.hotelbooking.repository.RoomRepository;
+import com.codehunter.hotelbooking.repository.RoomTypeRateRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +39,14 @@ import static org.mockito.Mockito.*;
 class RoomServiceTest {
     @Mock
     private RoomRepository roomRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private RoomAvailabilityIndex availabilityIndex;
+    @Mock
+    private ReservationHoldService reservationHoldService;
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine(mock(RoomTypeRateRepository.class), 730, 0, 1000, 2000);
     @InjectMocks
     private RoomService roomService;
 
@@ -90,6 +114,83 @@ class RoomServiceTest {
         verify(roomRepository).findAvailableRoomsInDateRange(any(), any());
     }
 
+    @Test
+    void testGetAvailableRooms_IndexMode_AnsweredFromIndex() {
+        // Given
+        ReflectionTestUtils.setField(roomService, "availabilityMode", AvailabilityMode.INDEX);
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+        LocalDate toDate = LocalDate.now().plusDays(3);
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.findAvailableRooms(any(), any())).thenReturn(List.of(room2));
+
+        // When
+        List<RoomResponse> result = roomService.getAvailableRooms(fromDate, toDate);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(room2.getId(), result.get(0).getId());
+        verify(roomRepository, never()).findAvailableRoomsInDateRange(any(), any());
+    }
+
+    @Test
+    void testGetAvailableRooms_IndexModeNotReady_FallsBackToQuery() {
+        // Given
+        ReflectionTestUtils.setField(roomService, "availabilityMode", AvailabilityMode.INDEX);
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+        LocalDate toDate = LocalDate.now().plusDays(3);
+        when(availabilityIndex.isReady()).thenReturn(false);
+        when(roomRepository.findAvailableRoomsInDateRange(any(), any())).thenReturn(List.of(room1));
+
+        // When
+        List<RoomResponse> result = roomService.getAvailableRooms(fromDate, toDate);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(availabilityIndex, never()).findAvailableRooms(any(), any());
+    }
+
+    @Test
+    void testGetAvailabilityByType_QueryFallbackListsEveryType() {
+        // Given
+        ReflectionTestUtils.setField(roomService, "availabilityMode", AvailabilityMode.JPQL);
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+        LocalDate toDate = LocalDate.now().plusDays(3);
+        when(roomRepository.findDistinctTypes()).thenReturn(List.of("DELUXE", "STANDARD"));
+        when(roomRepository.findAvailableRoomsInDateRange(any(), any())).thenReturn(List.of(room2));
+
+        // When
+        List<RoomTypeAvailabilityResponse> result = roomService.getAvailabilityByType(fromDate, toDate);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("DELUXE", result.get(0).getType());
+        assertEquals(0, result.get(0).getAvailableRooms());
+        assertEquals("STANDARD", result.get(1).getType());
+        assertEquals(1, result.get(1).getAvailableRooms());
+        verify(availabilityIndex, never()).countAvailableRoomsByType(any(), any(), any());
+    }
+
+    @Test
+    void testFindRoomsForStay_IndexMode_SkipsHeldRooms() {
+        // Given
+        ReflectionTestUtils.setField(roomService, "availabilityMode", AvailabilityMode.INDEX);
+        Instant checkIn = Instant.parse("2031-05-01T14:00:00Z");
+        Instant checkOut = Instant.parse("2031-05-03T12:00:00Z");
+        Room room3 = new Room();
+        room3.setId(UUID.randomUUID());
+        room3.setRoomNumber("103");
+        room3.setType("STANDARD");
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.findRoomsForStay("STANDARD", checkIn, checkOut)).thenReturn(List.of(room3, room2));
+        when(reservationHoldService.isHeld(room3.getId(), checkIn, checkOut, null)).thenReturn(true);
+
+        // When
+        List<UUID> result = roomService.findRoomsForStay("STANDARD", checkIn, checkOut);
+
+        // Then
+        assertEquals(List.of(room2.getId()), result);
+    }
+
     @Test
     void testGetAvailableRooms_NoAvailableRooms() {
         // Given
@@ -220,4 +321,165 @@ class RoomServiceTest {
         // Then
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindFlexibleDates_QueryFallbackPerRoom() {
+        // Given: room 101 is booked for the two requested nights, room 102 is free throughout
+        ReflectionTestUtils.setField(roomService, "availabilityMode", AvailabilityMode.JPQL);
+        LocalDate fromDate = LocalDate.now().plusDays(5);
+        ZoneId zoneId = ZoneId.systemDefault();
+        ActiveStay stay = new ActiveStay(UUID.randomUUID(), room1.getId(),
+                fromDate.atTime(14, 0).atZone(zoneId).toInstant(), fromDate.plusDays(2).atTime(12, 0).atZone(zoneId).toInstant());
+        when(roomRepository.findAll()).thenReturn(List.of(room2, room1));
+        when(bookingRepository.findActiveStaysInRange(any(), any())).thenReturn(List.of(stay));
+
+        // When
+        List<FlexibleAvailabilityResponse> result = roomService.findFlexibleDates(fromDate, 2, 2, null, FlexibleGrouping.ROOM, 3);
+
+        // Then: 101 only fits two nights earlier, 102 keeps the requested date and its nearest shifts
+        assertEquals(2, result.size());
+        assertEquals("101", result.get(0).getRoomNumber());
+        assertEquals(1, result.get(0).getOptions().size());
+        assertEquals(-2, result.get(0).getOptions().get(0).getShiftDays());
+        assertEquals(fromDate.minusDays(2), result.get(0).getOptions().get(0).getCheckIn());
+        assertEquals(fromDate, result.get(0).getOptions().get(0).getCheckOut());
+        assertEquals("102", result.get(1).getRoomNumber());
+        assertEquals(List.of(0, -1, 1), result.get(1).getOptions().stream().map(option -> option.getShiftDays()).toList());
+        verify(bookingRepository, times(1)).findActiveStaysInRange(any(), any());
+    }
+
+    @Test
+    void testFindFlexibleDates_IndexPerTypeSkipsHeldRooms() {
+        // Given
+        Room room3 = new Room();
+        room3.setId(UUID.randomUUID());
+        room3.setRoomNumber("103");
+        room3.setType("DELUXE");
+        Map<Room, RoomIntervals> stays = new LinkedHashMap<>();
+        stays.put(room1, RoomIntervals.EMPTY);
+        stays.put(room3, RoomIntervals.EMPTY);
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.findStaysByRoom("DELUXE")).thenReturn(stays);
+        when(reservationHoldService.isHeld(eq(room3.getId()), any(), any(), any())).thenReturn(true);
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+
+        // When
+        List<FlexibleAvailabilityResponse> result = roomService.findFlexibleDates(fromDate, 3, 3, "DELUXE", FlexibleGrouping.TYPE, 2);
+
+        // Then: earlier starts are cut at today
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getRoomId());
+        assertEquals("DELUXE", result.get(0).getType());
+        assertEquals(List.of(0, -1), result.get(0).getOptions().stream().map(option -> option.getShiftDays()).toList());
+        assertEquals(1, result.get(0).getOptions().get(0).getAvailableRooms());
+        verify(bookingRepository, never()).findActiveStaysInRange(any(), any());
+    }
+
+    @Test
+    void testFindFlexibleDates_InvalidNights() {
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.findFlexibleDates(LocalDate.now().plusDays(1), 0, 3, null, FlexibleGrouping.TYPE, 3));
+    }
+
+    @Test
+    void testGetAvailabilityBatch_AnswersAllRangesFromOneQuery() {
+        // Given: room 101 is booked for the second night of the first range only
+        ReflectionTestUtils.setField(roomService, "availabilityMode", AvailabilityMode.JPQL);
+        LocalDate fromDate = LocalDate.now().plusDays(2);
+        ZoneId zoneId = ZoneId.systemDefault();
+        ActiveStay stay = new ActiveStay(UUID.randomUUID(), room1.getId(),
+                fromDate.plusDays(1).atTime(14, 0).atZone(zoneId).toInstant(), fromDate.plusDays(2).atTime(12, 0).atZone(zoneId).toInstant());
+        when(roomRepository.findAll()).thenReturn(List.of(room1, room2));
+        when(bookingRepository.findActiveStaysInRange(any(), any())).thenReturn(List.of(stay));
+        List<AvailabilityBatchRequest.Range> ranges = List.of(
+                new AvailabilityBatchRequest.Range(fromDate, fromDate.plusDays(2)),
+                new AvailabilityBatchRequest.Range(fromDate.plusDays(3), fromDate.plusDays(5)));
+
+        // When
+        AvailabilityBatchResponse ids = roomService.getAvailabilityBatch(ranges, AvailabilityBatchRequest.Format.IDS);
+        AvailabilityBatchResponse bitmaps = roomService.getAvailabilityBatch(ranges, AvailabilityBatchRequest.Format.BITMAP);
+
+        // Then
+        assertNull(ids.getRoomIds());
+        assertEquals(List.of(room2.getId()), ids.getRanges().get(0).getAvailableRoomIds());
+        assertEquals(List.of(room1.getId(), room2.getId()), ids.getRanges().get(1).getAvailableRoomIds());
+        assertEquals(List.of(room1.getId(), room2.getId()), bitmaps.getRoomIds());
+        assertArrayEquals(new byte[]{0b10}, Base64.getUrlDecoder().decode(bitmaps.getRanges().get(0).getBitmap()));
+        assertArrayEquals(new byte[]{0b11}, Base64.getUrlDecoder().decode(bitmaps.getRanges().get(1).getBitmap()));
+        assertEquals(1, bitmaps.getRanges().get(0).getAvailableRooms());
+        assertNull(bitmaps.getRanges().get(0).getAvailableRoomIds());
+        verify(bookingRepository, times(2)).findActiveStaysInRange(any(), any());
+    }
+
+    @Test
+    void testGetAvailabilityBatch_RejectsInvalidRange() {
+        List<AvailabilityBatchRequest.Range> ranges = List.of(
+                new AvailabilityBatchRequest.Range(LocalDate.now().plusDays(3), LocalDate.now().plusDays(1)));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.getAvailabilityBatch(ranges, AvailabilityBatchRequest.Format.IDS));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void testSearchRooms_RejectsCursorOfAnotherOrder() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("ROOM_NUMBER|" + room1.getId() + "|101").getBytes());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.searchRooms(null, null, null, null, null, RoomSearchOrder.PRICE_ASC, cursor, 20));
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.searchRooms(null, null, null, null, null, RoomSearchOrder.PRICE_ASC, "not-a-cursor", 20));
+        verifyNoInteractions(roomRepository);
+    }
+
+    @Test
+    void testSearchRooms_RejectsInvalidFilters() {
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.searchRooms(null, BigDecimal.valueOf(200), BigDecimal.valueOf(100), null, null,
+                        RoomSearchOrder.PRICE_ASC, null, 20));
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.searchRooms(null, null, null, LocalDate.now().plusDays(1), null,
+                        RoomSearchOrder.PRICE_ASC, null, 20));
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.searchRooms(null, null, null, null, null, RoomSearchOrder.PRICE_ASC, null, 0));
+        verifyNoInteractions(roomRepository);
+    }
+
+    @Test
+    void testGetCalendars_RunLengthEncodesNights() {
+        // Given: booked from the second night, checking out on the morning of the fourth, and a hold on the sixth
+        LocalDate from = LocalDate.now().plusDays(3);
+        ZoneId zoneId = ZoneId.systemDefault();
+        ActiveStay stay = new ActiveStay(UUID.randomUUID(), room1.getId(),
+                from.plusDays(1).atTime(14, 0).atZone(zoneId).toInstant(), from.plusDays(3).atTime(12, 0).atZone(zoneId).toInstant());
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room1, room2));
+        when(bookingRepository.findActiveStaysForRoomsInRange(any(), any(), any())).thenReturn(List.of(stay));
+        when(reservationHoldService.isHeld(eq(room1.getId()), eq(from.plusDays(5).atStartOfDay(zoneId).toInstant()), any(), any()))
+                .thenReturn(true);
+
+        // When
+        List<RoomCalendarResponse> calendars = roomService.getCalendars(List.of(room2.getId(), room1.getId()), from, from.plusDays(6));
+
+        // Then
+        assertEquals(2, calendars.size());
+        assertEquals("102", calendars.get(0).getRoomNumber());
+        assertEquals(1, calendars.get(0).getRuns().size());
+        assertEquals(6, calendars.get(0).getRuns().get(0).getNights());
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(calendars.get(0).getRuns().get(0).getPrice()));
+        List<CalendarRun> runs = calendars.get(1).getRuns();
+        assertEquals(List.of(1, 3, 1, 1), runs.stream().map(CalendarRun::getNights).toList());
+        assertEquals(List.of(CalendarRun.State.FREE, CalendarRun.State.BOOKED, CalendarRun.State.FREE, CalendarRun.State.HELD),
+                runs.stream().map(CalendarRun::getState).toList());
+        verify(bookingRepository, times(1)).findActiveStaysForRoomsInRange(any(), any(), any());
+    }
+
+    @Test
+    void testGetCalendars_UnknownRoom() {
+        when(roomRepository.findAllById(any())).thenReturn(List.of(room1));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                roomService.getCalendars(List.of(room1.getId(), UUID.randomUUID()), LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)));
+        verifyNoInteractions(bookingRepository);
+    }
+}